@@ -0,0 +1,19 @@
+package com.quicklist.app;
+
+import android.app.Application;
+
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.quicklist.app.data.FirestoreConfig;
+import com.quicklist.app.data.OutboxSync;
+import com.quicklist.app.perf.StartupPhases;
+
+public class QuickListApp extends Application {
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        StartupPhases.mark(StartupPhases.APP_CREATE);
+        // Cache settings have to land before any activity touches Firestore
+        FirestoreConfig.apply(FirebaseFirestore.getInstance());
+        OutboxSync.start(this);
+    }
+}
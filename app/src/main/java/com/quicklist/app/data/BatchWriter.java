@@ -0,0 +1,137 @@
+package com.quicklist.app.data;
+
+import android.os.SystemClock;
+
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.WriteBatch;
+import com.quicklist.app.perf.Metrics;
+import com.quicklist.app.store.BulkListener;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs a bulk operation as a chain of WriteBatch commits of at most
+ * {@link #MAX_OPS_PER_BATCH} writes each. Chunks commit one after another so the
+ * caller gets progress, and a failure stops the chain. Callbacks arrive on the main thread.
+ *
+ * Ops wrapped with {@link #counted} also adjust a counter on another document (e.g. the
+ * parent list's itemCount). Their deltas are summed per chunk and written as one
+ * increment in the same batch, so a counter never drifts from the docs it counts.
+ */
+public final class BatchWriter {
+    /** Firestore's per-batch write limit. */
+    public static final int MAX_OPS_PER_BATCH = 500;
+
+    public interface Op {
+        void addTo(WriteBatch batch);
+    }
+
+    private static final class Counted implements Op {
+        final Op op;
+        final DocumentReference counterDoc;
+        final String field;
+        final long delta;
+
+        Counted(Op op, DocumentReference counterDoc, String field, long delta) {
+            this.op = op; this.counterDoc = counterDoc; this.field = field; this.delta = delta;
+        }
+
+        @Override public void addTo(WriteBatch batch) { op.addTo(batch); }
+    }
+
+    private BatchWriter() {}
+
+    public static Op update(DocumentReference ref, String field, Object value) {
+        return b -> b.update(ref, field, value);
+    }
+
+    public static Op set(DocumentReference ref, Object data) {
+        return b -> b.set(ref, data);
+    }
+
+    public static Op delete(DocumentReference ref) {
+        return b -> b.delete(ref);
+    }
+
+    /** {@code op}, plus {@code field += delta} on {@code counterDoc} in the same batch. Nests for several fields. */
+    public static Op counted(Op op, DocumentReference counterDoc, String field, long delta) {
+        return new Counted(op, counterDoc, field, delta);
+    }
+
+    public static void run(FirebaseFirestore db, List<Op> ops, BulkListener listener) {
+        commitFrom(db, ops, 0, listener);
+    }
+
+    /** Commits a handful of ops as one atomic batch; must fit in a single chunk. */
+    public static Task<Void> commit(FirebaseFirestore db, List<Op> ops) {
+        WriteBatch batch = db.batch();
+        int end = fill(batch, ops, 0);
+        if (end < ops.size()) throw new IllegalArgumentException(ops.size() + " ops don't fit one batch");
+        return timed(batch);
+    }
+
+    private static void commitFrom(FirebaseFirestore db, List<Op> ops, int start, BulkListener listener) {
+        if (start >= ops.size()) {
+            listener.onComplete(ops.size(), null);
+            return;
+        }
+        WriteBatch batch = db.batch();
+        int end = fill(batch, ops, start);
+        timed(batch)
+                .addOnSuccessListener(v -> {
+                    listener.onProgress(end, ops.size());
+                    commitFrom(db, ops, end, listener);
+                })
+                .addOnFailureListener(e -> listener.onComplete(start, e));
+    }
+
+    // Commit with its server round-trip recorded; offline commits only count once acked
+    private static Task<Void> timed(WriteBatch batch) {
+        long sent = SystemClock.elapsedRealtimeNanos();
+        return batch.commit().addOnSuccessListener(
+                v -> Metrics.record(Metrics.WRITE_RTT, SystemClock.elapsedRealtimeNanos() - sent));
+    }
+
+    /**
+     * Adds ops from {@code start} until the batch is full, then one increment update per
+     * counter document they touched. Returns the index after the last op added.
+     */
+    private static int fill(WriteBatch batch, List<Op> ops, int start) {
+        Map<String, DocumentReference> counterDocs = new LinkedHashMap<>();
+        Map<String, Map<String, Long>> deltas = new HashMap<>();
+        int i = start;
+        for (; i < ops.size(); i++) {
+            Op op = ops.get(i);
+            int extra = 0;
+            for (Op o = op; o instanceof Counted; o = ((Counted) o).op) {
+                String path = ((Counted) o).counterDoc.getPath();
+                if (!counterDocs.containsKey(path)) extra = 1;
+            }
+            if (i - start + 1 + counterDocs.size() + extra > MAX_OPS_PER_BATCH) break;
+            op.addTo(batch);
+            for (Op o = op; o instanceof Counted; o = ((Counted) o).op) {
+                Counted c = (Counted) o;
+                String path = c.counterDoc.getPath();
+                counterDocs.put(path, c.counterDoc);
+                Map<String, Long> fields = deltas.get(path);
+                if (fields == null) { fields = new HashMap<>(); deltas.put(path, fields); }
+                Long prev = fields.get(c.field);
+                fields.put(c.field, (prev == null ? 0 : prev) + c.delta);
+            }
+        }
+        for (Map.Entry<String, DocumentReference> e : counterDocs.entrySet()) {
+            Map<String, Object> update = new HashMap<>();
+            for (Map.Entry<String, Long> f : deltas.get(e.getKey()).entrySet()) {
+                if (f.getValue() != 0) update.put(f.getKey(), FieldValue.increment(f.getValue()));
+            }
+            if (!update.isEmpty()) batch.update(e.getValue(), update);
+        }
+        return i;
+    }
+}
@@ -0,0 +1,72 @@
+package com.quicklist.app.data;
+
+import android.util.Log;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.AggregateSource;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.Source;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Sets a list's itemCount/checkedCount to what its items on the server add up to. Item
+ * writes move the counters by the writer's view of the item, so crossing edits from two
+ * members can leave them off by a few; this puts them right.
+ *
+ * The list doc is read first, then the items are counted with server aggregates, then the
+ * counters are written in a transaction that goes through only if they are still what was
+ * read. An increment another member made meanwhile is never overwritten; the recount just
+ * reports that it should run again.
+ */
+final class CounterRepair {
+    private static final String TAG = "CounterRepair";
+
+    private CounterRepair() {}
+
+    /** True once the counters are right; false if they moved while counting, worth retrying. */
+    static Task<Boolean> recount(DocumentReference listRef) {
+        CollectionReference items = listRef.collection("items");
+        return listRef.get(Source.SERVER).onSuccessTask(before -> {
+            if (!before.exists()) return Tasks.forResult(true);
+            return items.count().get(AggregateSource.SERVER).onSuccessTask(all ->
+                    items.whereEqualTo("checked", true).count().get(AggregateSource.SERVER).onSuccessTask(checked ->
+                            listRef.getFirestore().runTransaction(tx -> {
+                                DocumentSnapshot cur = tx.get(listRef);
+                                if (!cur.exists()) return true;
+                                if (!Objects.equals(cur.get("itemCount"), before.get("itemCount"))
+                                        || !Objects.equals(cur.get("checkedCount"), before.get("checkedCount"))) {
+                                    return false;
+                                }
+                                long itemCount = all.getCount(), checkedCount = checked.getCount();
+                                if (count(cur, "itemCount") == itemCount && count(cur, "checkedCount") == checkedCount) {
+                                    return true;
+                                }
+                                Log.i(TAG, "repairing " + listRef.getPath() + " " + count(cur, "checkedCount") + "/"
+                                        + count(cur, "itemCount") + " -> " + checkedCount + "/" + itemCount);
+                                Map<String, Object> counts = new HashMap<>();
+                                counts.put("itemCount", itemCount);
+                                counts.put("checkedCount", checkedCount);
+                                tx.update(listRef, counts);
+                                return true;
+                            })));
+        });
+    }
+
+    /** True if {@code e} means the server couldn't be reached. */
+    static boolean isOffline(Exception e) {
+        return e instanceof FirebaseFirestoreException
+                && ((FirebaseFirestoreException) e).getCode() == FirebaseFirestoreException.Code.UNAVAILABLE;
+    }
+
+    private static long count(DocumentSnapshot list, String field) {
+        Object v = list.get(field);
+        return v instanceof Number ? ((Number) v).longValue() : -1;
+    }
+}
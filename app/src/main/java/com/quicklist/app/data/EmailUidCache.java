@@ -0,0 +1,50 @@
+package com.quicklist.app.data;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded LRU of email -> uid with a TTL. Remembers misses too, so a typo isn't
+ * re-queried on every retry. Keys are lowercased emails.
+ */
+final class EmailUidCache {
+    /** Cached "no such user". */
+    static final String MISSING = "";
+
+    private static final class Entry {
+        final String uid;
+        final long expiresAt;
+        Entry(String uid, long expiresAt) { this.uid = uid; this.expiresAt = expiresAt; }
+    }
+
+    private final long ttlMs;
+    private final LongSupplier clock;
+    private final LinkedHashMap<String, Entry> map;
+
+    EmailUidCache(int maxEntries, long ttlMs, LongSupplier clock) {
+        this.ttlMs = ttlMs;
+        this.clock = clock;
+        this.map = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /** The uid, {@link #MISSING} for a cached miss, or null if unknown or expired. */
+    synchronized String get(String key) {
+        Entry e = map.get(key);
+        if (e == null) return null;
+        if (clock.getAsLong() >= e.expiresAt) { map.remove(key); return null; }
+        return e.uid;
+    }
+
+    synchronized void put(String key, String uidOrMissing) {
+        map.put(key, new Entry(uidOrMissing, clock.getAsLong() + ttlMs));
+    }
+
+    synchronized int size() { return map.size(); }
+
+    synchronized void clear() { map.clear(); }
+}
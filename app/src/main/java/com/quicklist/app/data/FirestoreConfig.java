@@ -0,0 +1,63 @@
+package com.quicklist.app.data;
+
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreSettings;
+import com.google.firebase.firestore.LocalCacheSettings;
+import com.google.firebase.firestore.MemoryCacheSettings;
+import com.google.firebase.firestore.MemoryEagerGcSettings;
+import com.google.firebase.firestore.MemoryLruGcSettings;
+import com.google.firebase.firestore.PersistentCacheSettings;
+
+/**
+ * Local cache setup for the shared FirebaseFirestore instance. Must run before the
+ * first Firestore call in the process, which is why QuickListApp owns it.
+ */
+public final class FirestoreConfig {
+
+    public enum CacheMode {
+        /** On-disk cache, LRU-collected once it grows past the size threshold. */
+        PERSISTENT,
+        /** In-memory cache with the same LRU threshold; nothing survives the process. */
+        MEMORY_LRU,
+        /** In-memory cache that drops documents as soon as no listener needs them. */
+        MEMORY_EAGER
+    }
+
+    public static final CacheMode DEFAULT_MODE = CacheMode.PERSISTENT;
+    // Big enough for hundreds of lists with a few hundred items each
+    public static final long DEFAULT_CACHE_BYTES = 50L * 1024 * 1024;
+
+    private FirestoreConfig() {}
+
+    public static void apply(FirebaseFirestore db) {
+        apply(db, DEFAULT_MODE, DEFAULT_CACHE_BYTES);
+    }
+
+    /**
+     * @param sizeBytes LRU garbage-collection threshold; pass
+     *                  {@link FirebaseFirestoreSettings#CACHE_SIZE_UNLIMITED} to never collect.
+     *                  Ignored for {@link CacheMode#MEMORY_EAGER}.
+     */
+    public static void apply(FirebaseFirestore db, CacheMode mode, long sizeBytes) {
+        LocalCacheSettings cache;
+        switch (mode) {
+            case MEMORY_LRU:
+                cache = MemoryCacheSettings.newBuilder()
+                        .setGcSettings(MemoryLruGcSettings.newBuilder().setSizeBytes(sizeBytes).build())
+                        .build();
+                break;
+            case MEMORY_EAGER:
+                cache = MemoryCacheSettings.newBuilder()
+                        .setGcSettings(MemoryEagerGcSettings.newBuilder().build())
+                        .build();
+                break;
+            case PERSISTENT:
+            default:
+                cache = PersistentCacheSettings.newBuilder().setSizeBytes(sizeBytes).build();
+                break;
+        }
+        db.setFirestoreSettings(new FirebaseFirestoreSettings.Builder()
+                .setLocalCacheSettings(cache)
+                .build());
+    }
+}
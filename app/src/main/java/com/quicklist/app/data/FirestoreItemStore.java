@@ -0,0 +1,254 @@
+package com.quicklist.app.data;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.android.gms.tasks.OnCompleteListener;
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.Source;
+import com.quicklist.app.models.ItemSummary;
+import com.quicklist.app.models.ListSummary;
+import com.quicklist.app.models.Projections;
+import com.quicklist.app.outbox.Outbox;
+import com.quicklist.app.store.BulkListener;
+import com.quicklist.app.store.ItemFeed;
+import com.quicklist.app.store.ItemStore;
+import com.quicklist.app.store.PageSink;
+import com.quicklist.app.store.Prefetcher;
+import com.quicklist.app.store.StoreCallback;
+import com.quicklist.app.store.StoreObserver;
+import com.quicklist.app.store.Subscription;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * {@link ItemStore} over lists/{listId}/items. Feeds are {@link ItemPager}s; toggles and
+ * quantity steps are merged by a {@link WriteCoalescer}; adds, deletes and bulk edits go
+ * through {@link BatchWriter}. Every write is a batch with the list's counters moved in
+ * it, so it shows at once and queues offline. The counter change comes from this device's
+ * view of the item, so edits that cross another member's can leave the counters off;
+ * each write that moves them therefore also queues a {@link CounterRepair} recount of
+ * the list in the {@link Outbox}, which {@link OutboxWorker} runs once the burst of
+ * writes has gone out.
+ *
+ * Toggles, quantity steps and deletes are recorded in the outbox while they wait in the
+ * coalescer and settled once their batch is handed to Firestore, so the worker replays
+ * only what a dead process never handed over. Each quantity step stamps the item with
+ * steps.{writerId} = its write number, which tells a replay whether the step already
+ * landed. Adds and bulk edits go to Firestore's queue at once and aren't recorded.
+ */
+final class FirestoreItemStore implements ItemStore {
+    private final QuickListRepository repo;
+    private final FirebaseFirestore db;
+    private final WriteCoalescer writes;
+    private final Consumer<Exception> onWriteError;
+
+    FirestoreItemStore(QuickListRepository repo, FirebaseFirestore db, Consumer<Exception> onWriteError) {
+        this.repo = repo;
+        this.db = db;
+        this.onWriteError = onWriteError;
+        this.writes = new WriteCoalescer(onWriteError == null ? null : onWriteError::accept);
+    }
+
+    @Override public ItemFeed observe(String listId, StoreObserver<ItemSummary> observer) {
+        ItemPager pager = new ItemPager(repo.hub(), QuickListRepository.itemsKey(listId),
+                repo.itemsQuery(listId), observer);
+        pager.start();
+        return pager;
+    }
+
+    @Override public Subscription fetchAll(String listId, StoreCallback<List<ItemSummary>> callback) {
+        boolean[] closed = {false};
+        repo.itemsQuery(listId).get()
+                .addOnSuccessListener(q -> {
+                    if (closed[0]) return;
+                    List<ItemSummary> out = new ArrayList<>(q.size());
+                    for (DocumentSnapshot d : q.getDocuments()) out.add(Projections.item(d));
+                    callback.onResult(out, null);
+                })
+                .addOnFailureListener(e -> { if (!closed[0]) callback.onResult(null, e); });
+        return () -> closed[0] = true;
+    }
+
+    @Override public void fetchPages(String listId, int pageSize, PageSink sink) {
+        fetchPage(repo.itemsQuery(listId), null, pageSize, sink);
+    }
+
+    // Cursors on the last snapshot, so rows sharing a createdAt are neither skipped nor repeated
+    private void fetchPage(Query query, DocumentSnapshot after, int pageSize, PageSink sink) {
+        (after == null ? query : query.startAfter(after)).limit(pageSize).get()
+                .addOnSuccessListener(q -> {
+                    List<DocumentSnapshot> docs = q.getDocuments();
+                    List<ItemSummary> page = new ArrayList<>(docs.size());
+                    for (DocumentSnapshot d : docs) page.add(Projections.item(d));
+                    DocumentSnapshot end = docs.isEmpty() ? after : docs.get(docs.size() - 1);
+                    sink.onPage(page, docs.size() < pageSize, () -> fetchPage(query, end, pageSize, sink));
+                })
+                .addOnFailureListener(sink::onError);
+    }
+
+    @Override public String newItemId(String listId) {
+        return repo.listRef(listId).collection("items").document().getId();
+    }
+
+    @Override public void add(String listId, ItemSummary item, StoreCallback<Void> callback) {
+        BatchWriter.commit(db, Collections.singletonList(restoreOp(listId, item)))
+                .addOnCompleteListener(reported(callback));
+    }
+
+    // The checked flag and the list's checkedCount go out in the item's coalesced batch
+    @Override public void setChecked(String listId, ItemSummary item, boolean checked, StoreCallback<Void> callback) {
+        DocumentReference ref = itemRef(listId, item.id);
+        if (writes.pendingValue(ref, "checked", item.checked) == checked) {
+            if (callback != null) callback.onResult(null, null);
+            return;
+        }
+        Outbox outbox = OutboxSync.peek();
+        long write = outbox == null ? 0 : outbox.setChecked(listId, item.id, checked);
+        writes.set(ref, "checked", checked, tracked(outbox, write, callback));
+        writes.count(ref, repo.listRef(listId), "checkedCount", checked ? 1 : -1);
+        recount(listId);
+    }
+
+    @Override public boolean isChecked(String listId, ItemSummary item) {
+        return writes.pendingValue(itemRef(listId, item.id), "checked", item.checked);
+    }
+
+    // The stamp goes out with the merged increment, naming the last step it includes
+    @Override public void stepQuantity(String listId, ItemSummary item, int delta, StoreCallback<Void> callback) {
+        DocumentReference ref = itemRef(listId, item.id);
+        Outbox outbox = OutboxSync.peek();
+        long write = outbox == null ? 0 : outbox.stepQuantity(listId, item.id, delta);
+        writes.increment(ref, "quantity", delta, tracked(outbox, write, callback));
+        if (outbox != null) writes.stamp(ref, FirestoreOutboxBackend.stepsField(outbox.writerId()), write);
+    }
+
+    @Override public void delete(String listId, ItemSummary item, StoreCallback<Void> callback) {
+        BatchWriter.Op op = deleteOp(listId, item);
+        writes.flush(); // queued edits land before the delete, not after it
+        BatchWriter.commit(db, Collections.singletonList(op)).addOnCompleteListener(reported(callback));
+        recount(listId);
+    }
+
+    @Override public void restore(String listId, ItemSummary item, StoreCallback<Void> callback) {
+        BatchWriter.commit(db, Collections.singletonList(restoreOp(listId, item)))
+                .addOnCompleteListener(reported(callback));
+    }
+
+    @Override public void setCheckedAll(String listId, List<ItemSummary> items, boolean checked, BulkListener listener) {
+        List<BatchWriter.Op> ops = new ArrayList<>(items.size());
+        int step = checked ? 1 : -1;
+        for (ItemSummary i : items) {
+            ops.add(withCounts(listId, BatchWriter.update(itemRef(listId, i.id), "checked", checked), 0, step));
+        }
+        run(ops, listener);
+        recount(listId);
+    }
+
+    @Override public void deleteAll(String listId, List<ItemSummary> items, BulkListener listener) {
+        List<BatchWriter.Op> ops = new ArrayList<>(items.size());
+        for (ItemSummary i : items) ops.add(deleteOp(listId, i));
+        run(ops, listener);
+        recount(listId);
+    }
+
+    @Override public void restoreAll(String listId, List<ItemSummary> items, BulkListener listener) {
+        List<BatchWriter.Op> ops = new ArrayList<>(items.size());
+        for (ItemSummary i : items) ops.add(restoreOp(listId, i));
+        run(ops, listener);
+    }
+
+    // Compares against the cached list doc, which Home's listener keeps fresh; only a mismatch
+    // pays for the server recount
+    @Override public void verifyCounts(String listId, int itemCount, int checkedCount, StoreCallback<Boolean> callback) {
+        DocumentReference listRef = repo.listRef(listId);
+        listRef.get(Source.CACHE)
+                .addOnSuccessListener(snap -> {
+                    if (!snap.exists()) { callback.onResult(true, null); return; }
+                    if (snap.getMetadata().hasPendingWrites()) { callback.onResult(false, null); return; }
+                    ListSummary list = Projections.list(snap);
+                    if (list.itemCount == itemCount && list.checkedCount == checkedCount) {
+                        callback.onResult(true, null);
+                        return;
+                    }
+                    CounterRepair.recount(listRef).addOnCompleteListener(t -> {
+                        if (t.isSuccessful()) callback.onResult(t.getResult(), null);
+                        else if (CounterRepair.isOffline(t.getException())) callback.onResult(false, null);
+                        else callback.onResult(null, t.getException());
+                    });
+                })
+                .addOnFailureListener(e -> callback.onResult(null, e));
+    }
+
+    @Override public Prefetcher prefetcher() { return repo.prefetcher(); }
+
+    @Override public void flush() { writes.flush(); }
+
+    @Override public String toString() { return writes.toString(); }
+
+    // Settles the recorded write once its batch is in Firestore's queue
+    private WriteCoalescer.EditListener tracked(@Nullable Outbox outbox, long write, StoreCallback<Void> callback) {
+        if (outbox != null) OutboxSync.recorded();
+        OnCompleteListener<Void> report = reported(callback);
+        return new WriteCoalescer.EditListener() {
+            @Override public void onSent() {
+                if (outbox != null) outbox.sent(write);
+            }
+
+            @Override public void onComplete(@NonNull Task<Void> task) { report.onComplete(task); }
+        };
+    }
+
+    // Once per list until it runs; the worker recounts after the writes before it have landed
+    private void recount(String listId) {
+        Outbox outbox = OutboxSync.peek();
+        if (outbox == null) return;
+        outbox.recount(listId);
+        OutboxSync.recorded();
+    }
+
+    // Failures without a callback go where the coalescer's would have
+    private OnCompleteListener<Void> reported(StoreCallback<Void> callback) {
+        return task -> {
+            Exception e = task.isSuccessful() ? null : task.getException();
+            if (callback != null) callback.onResult(null, e);
+            else if (e != null && onWriteError != null) onWriteError.accept(e);
+        };
+    }
+
+    private DocumentReference itemRef(String listId, String itemId) {
+        return repo.listRef(listId).collection("items").document(itemId);
+    }
+
+    // Wraps an item write with its effect on the list's itemCount/checkedCount, committed in the same batch
+    private BatchWriter.Op withCounts(String listId, BatchWriter.Op op, int items, int checked) {
+        DocumentReference listRef = repo.listRef(listId);
+        if (items != 0) op = BatchWriter.counted(op, listRef, "itemCount", items);
+        if (checked != 0) op = BatchWriter.counted(op, listRef, "checkedCount", checked);
+        return op;
+    }
+
+    // Counts the item as checked if a queued toggle says so, since that toggle lands first
+    private BatchWriter.Op deleteOp(String listId, ItemSummary item) {
+        int checked = isChecked(listId, item) ? 1 : 0;
+        return withCounts(listId, BatchWriter.delete(itemRef(listId, item.id)), -1, -checked);
+    }
+
+    private BatchWriter.Op restoreOp(String listId, ItemSummary item) {
+        return withCounts(listId, BatchWriter.set(itemRef(listId, item.id), Projections.toItem(item)),
+                1, item.checked ? 1 : 0);
+    }
+
+    // Commits in chunks; queued toggles go out first so the bulk edit lands on top of them
+    private void run(List<BatchWriter.Op> ops, BulkListener listener) {
+        writes.flush();
+        BatchWriter.run(db, ops, listener);
+    }
+}
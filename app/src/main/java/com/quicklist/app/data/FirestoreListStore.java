@@ -0,0 +1,178 @@
+package com.quicklist.app.data;
+
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.Source;
+import com.quicklist.app.core.SnapshotMerge;
+import com.quicklist.app.models.ListSummary;
+import com.quicklist.app.models.Projections;
+import com.quicklist.app.store.Change;
+import com.quicklist.app.store.ListStore;
+import com.quicklist.app.store.PagedFeed;
+import com.quicklist.app.store.StoreCallback;
+import com.quicklist.app.store.StoreObserver;
+import com.quicklist.app.store.StoreSnapshot;
+import com.quicklist.app.store.Subscription;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * {@link ListStore} over the lists collection. The live queries are shared through the
+ * repository's {@link ListenerHub}: active lists while Home is up, archived ones a page at
+ * a time while shown. Pin/color/emoji taps are merged by a {@link WriteCoalescer}.
+ */
+final class FirestoreListStore implements ListStore {
+    private final QuickListRepository repo;
+    private final FirebaseFirestore db;
+    private final WriteCoalescer writes;
+
+    FirestoreListStore(QuickListRepository repo, FirebaseFirestore db, Consumer<Exception> onWriteError) {
+        this.repo = repo;
+        this.db = db;
+        this.writes = new WriteCoalescer(onWriteError == null ? null : onWriteError::accept);
+    }
+
+    private static class Feed implements Subscription, ListenerHub.Callback<QuerySnapshot> {
+        final StoreObserver<ListSummary> observer;
+        List<ListSummary> rows = Collections.emptyList();
+        ListenerHub.Subscription sub;
+        boolean seenLive, diffNext = true, closed;
+
+        Feed(StoreObserver<ListSummary> observer) { this.observer = observer; }
+
+        @Override public void onValue(QuerySnapshot snap) {
+            if (closed) return;
+            seenLive = true;
+            deliver(snap, diffNext);
+            diffNext = false;
+        }
+
+        @Override public void onError(Exception e) { if (!closed) observer.onError(e); }
+
+        // The hub may hand over a snapshot whose changes are relative to an earlier one; diff those
+        void deliver(QuerySnapshot snap, boolean diff) {
+            List<ListSummary> before = rows;
+            rows = Projections.decode(snap, rows, l -> l.id, Projections::list);
+            List<Change<ListSummary>> changes = diff
+                    ? SnapshotMerge.diff(before, rows, l -> l.id)
+                    : Projections.changes(snap, rows, Projections::list);
+            observer.onSnapshot(new StoreSnapshot<>(rows, changes,
+                    snap.getMetadata().isFromCache(), snap.getMetadata().hasPendingWrites()));
+        }
+
+        @Override public void close() {
+            closed = true;
+            if (sub != null) sub.close();
+            sub = null;
+        }
+    }
+
+    // A bigger page is a new query; its first delivery is diffed against the rows already
+    // loaded, so a page turn arrives as the added lists only
+    private final class Pages extends Feed implements PagedFeed {
+        final Query query;
+        final String uid;
+        int limit = PAGE_SIZE;
+
+        Pages(String uid, StoreObserver<ListSummary> observer) {
+            super(observer);
+            this.uid = uid;
+            this.query = repo.listsQuery(uid, true);
+        }
+
+        void listen() {
+            ListenerHub.Subscription previous = sub;
+            diffNext = true;
+            seenLive = false;
+            sub = repo.hub().observe(QuickListRepository.archivedKey(uid, limit),
+                    QuickListRepository.source(query.limit(limit)), this);
+            if (previous != null) previous.close();
+        }
+
+        @Override public void loadMore() {
+            if (closed || !seenLive || rows.size() < limit) return;
+            limit += PAGE_SIZE;
+            listen();
+        }
+
+        @Override public boolean isFullyLoaded() { return seenLive && rows.size() < limit; }
+    }
+
+    @Override public Subscription observe(String uid, StoreObserver<ListSummary> observer) {
+        Query query = repo.listsQuery(uid, false);
+        String key = QuickListRepository.listsKey(uid);
+        Feed feed = new Feed(observer);
+        if (repo.hub().peek(key) == null) {
+            // Paint from the local cache right away; the live listener reconciles afterwards.
+            // A listener still in its grace period hands over its last snapshot instead.
+            query.get(Source.CACHE)
+                    .addOnSuccessListener(snap -> {
+                        if (feed.closed) return;
+                        observer.onCacheRead(!snap.isEmpty());
+                        if (!feed.seenLive) feed.deliver(snap, true);
+                    })
+                    .addOnFailureListener(e -> { if (!feed.closed) observer.onCacheRead(false); });
+        }
+        feed.sub = repo.hub().observe(key, QuickListRepository.source(query), feed);
+        return feed;
+    }
+
+    // No cache paint: the archived view opens on demand, after the active lists are up
+    @Override public PagedFeed observeArchived(String uid, StoreObserver<ListSummary> observer) {
+        Pages pages = new Pages(uid, observer);
+        pages.listen();
+        return pages;
+    }
+
+    @Override public void create(String uid, String name, StoreCallback<String> callback) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("name", name);
+        data.put("createdBy", uid);
+        data.put("members", Arrays.asList(uid));
+        data.put("createdAt", Timestamp.now());
+        data.put("pinned", false);
+        data.put("archived", false);
+        data.put("color", "#16A34A");
+        data.put("emoji", "✅");
+        data.put("itemCount", 0);
+        data.put("checkedCount", 0);
+        db.collection("lists").add(data)
+                .addOnSuccessListener(ref -> callback.onResult(ref.getId(), null))
+                .addOnFailureListener(e -> callback.onResult(null, e));
+    }
+
+    @Override public void setPinned(String listId, boolean pinned) {
+        writes.set(repo.listRef(listId), "pinned", pinned);
+    }
+
+    @Override public boolean isPinned(ListSummary list) {
+        return writes.pendingValue(repo.listRef(list.id), "pinned", list.pinned);
+    }
+
+    @Override public void setArchived(String listId, boolean archived, StoreCallback<Void> callback) {
+        DocumentReference ref = repo.listRef(listId);
+        ref.update("archived", archived)
+                .addOnSuccessListener(v -> callback.onResult(null, null))
+                .addOnFailureListener(e -> callback.onResult(null, e));
+    }
+
+    @Override public void setColor(String listId, String hex) {
+        writes.set(repo.listRef(listId), "color", hex);
+    }
+
+    @Override public void setEmoji(String listId, String emoji) {
+        writes.set(repo.listRef(listId), "emoji", emoji);
+    }
+
+    @Override public void flush() { writes.flush(); }
+
+    @Override public String toString() { return writes.toString(); }
+}
@@ -0,0 +1,99 @@
+package com.quicklist.app.data;
+
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.quicklist.app.outbox.Mutation;
+import com.quicklist.app.outbox.Outbox;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replays outbox mutations so that one the server already has changes nothing. Each
+ * first waits for Firestore's write queue to drain, since writes a dead process handed
+ * over go out from there on the next start and must land before the replay reads.
+ *
+ * A toggle is a transaction that reads the item and changes it, and the list's
+ * checkedCount, only if the server's copy differs. A quantity step applies only if the
+ * item's steps.{writerId} marker is below the step's number, and raises the marker with
+ * it. A recount is a {@link CounterRepair}, retried if the counters moved while it
+ * counted. Blocks; worker thread only.
+ */
+final class FirestoreOutboxBackend implements Outbox.Backend {
+    static final long QUEUE_WAIT_S = 30;
+
+    private final FirebaseFirestore db;
+    private final String writerId;
+
+    FirestoreOutboxBackend(FirebaseFirestore db, String writerId) {
+        this.db = db;
+        this.writerId = writerId;
+    }
+
+    /** The item field the live path and the replay stamp with this writer's last quantity step. */
+    static String stepsField(String writerId) { return "steps." + writerId; }
+
+    @Override public void apply(Mutation m) throws Exception {
+        Tasks.await(db.waitForPendingWrites(), QUEUE_WAIT_S, TimeUnit.SECONDS);
+        DocumentReference listRef = db.collection("lists").document(m.listId);
+        if (m.kind == Mutation.Kind.RECOUNT) {
+            recount(listRef);
+            return;
+        }
+        DocumentReference itemRef = listRef.collection("items").document(m.itemId);
+        Tasks.await(db.runTransaction(tx -> {
+            DocumentSnapshot cur = tx.get(itemRef);
+            if (!cur.exists()) return null;
+            boolean wasChecked = Boolean.TRUE.equals(cur.getBoolean("checked"));
+            switch (m.kind) {
+                case SET_CHECKED:
+                    if (wasChecked == m.checked) return null;
+                    tx.update(itemRef, "checked", m.checked);
+                    tx.update(listRef, "checkedCount", FieldValue.increment(m.checked ? 1 : -1));
+                    break;
+                case STEP_QUANTITY:
+                    Object applied = cur.get(FieldPath.of("steps", writerId));
+                    if (applied instanceof Number && ((Number) applied).longValue() >= m.id) return null;
+                    Map<String, Object> step = new HashMap<>();
+                    step.put("quantity", FieldValue.increment(m.delta));
+                    step.put(stepsField(writerId), m.id);
+                    tx.update(itemRef, step);
+                    break;
+                default:
+                    break;
+            }
+            return null;
+        }));
+    }
+
+    private void recount(DocumentReference listRef) throws Exception {
+        if (!Tasks.await(CounterRepair.recount(listRef))) {
+            throw new FirebaseFirestoreException(listRef.getPath() + " changed while counting",
+                    FirebaseFirestoreException.Code.ABORTED);
+        }
+    }
+
+    // Rejections and bad data won't change on retry; network and contention errors might
+    @Override public boolean isPermanent(Exception e) {
+        Throwable t = e instanceof ExecutionException && e.getCause() != null ? e.getCause() : e;
+        if (!(t instanceof FirebaseFirestoreException)) return false;
+        switch (((FirebaseFirestoreException) t).getCode()) {
+            case PERMISSION_DENIED:
+            case NOT_FOUND:
+            case INVALID_ARGUMENT:
+            case FAILED_PRECONDITION:
+            case OUT_OF_RANGE:
+            case UNAUTHENTICATED:
+                return true;
+            default:
+                return false;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.quicklist.app.data;
+
+import android.os.SystemClock;
+import android.util.Patterns;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Invites many emails to a list at once. Emails resolve to uids through a small
+ * LRU/TTL cache, then chunked {@code whereIn} queries for the misses (run in
+ * parallel), and all found members are added with one {@code arrayUnion} update.
+ * Emails are matched lowercased; users/{uid}.email is stored that way.
+ */
+public final class InviteService {
+    /** Firestore's cap on values in one whereIn filter. */
+    public static final int WHERE_IN_LIMIT = 30;
+    static final int CACHE_SIZE = 256;
+    static final long CACHE_TTL_MS = 10 * 60 * 1000;
+
+    public enum Status { ADDED, NOT_FOUND, INVALID, FAILED }
+
+    public static final class Result {
+        /** Per-email outcome, in the order the emails were given. */
+        public final Map<String, Status> byEmail;
+
+        Result(Map<String, Status> byEmail) { this.byEmail = byEmail; }
+
+        public int count(Status s) {
+            int n = 0;
+            for (Status v : byEmail.values()) if (v == s) n++;
+            return n;
+        }
+
+        public boolean allAdded() { return count(Status.ADDED) == byEmail.size(); }
+
+        public String summary() {
+            StringBuilder sb = new StringBuilder();
+            for (Map.Entry<String, Status> e : byEmail.entrySet()) {
+                if (sb.length() > 0) sb.append('\n');
+                sb.append(e.getKey()).append(": ").append(label(e.getValue()));
+            }
+            return sb.toString();
+        }
+
+        private static String label(Status s) {
+            switch (s) {
+                case ADDED: return "shared";
+                case NOT_FOUND: return "no QuickList account";
+                case INVALID: return "not an email";
+                default: return "failed, try again";
+            }
+        }
+    }
+
+    public interface Callback { void onResult(Result result); }
+
+    private final FirebaseFirestore db;
+    private final EmailUidCache cache =
+            new EmailUidCache(CACHE_SIZE, CACHE_TTL_MS, SystemClock::elapsedRealtime);
+
+    InviteService(FirebaseFirestore db) {
+        this.db = db;
+    }
+
+    public void invite(String listId, Collection<String> rawEmails, Callback cb) {
+        final Map<String, Status> out = new LinkedHashMap<>();
+        final Map<String, String> uidByEmail = new LinkedHashMap<>();
+        final List<String> misses = new ArrayList<>();
+
+        for (String raw : rawEmails) {
+            String email = raw.trim();
+            if (email.isEmpty() || out.containsKey(email)) continue;
+            if (!Patterns.EMAIL_ADDRESS.matcher(email).matches()) { out.put(email, Status.INVALID); continue; }
+            String uid = cache.get(email.toLowerCase(Locale.ROOT));
+            // Misses hold their slot as FAILED until a lookup says otherwise
+            if (uid == null) { misses.add(email); out.put(email, Status.FAILED); }
+            else if (uid.equals(EmailUidCache.MISSING)) out.put(email, Status.NOT_FOUND);
+            else { uidByEmail.put(email, uid); out.put(email, Status.ADDED); }
+        }
+        if (misses.isEmpty()) { applyMembership(listId, out, uidByEmail, cb); return; }
+
+        final List<List<String>> chunks = new ArrayList<>();
+        final List<Task<QuerySnapshot>> lookups = new ArrayList<>();
+        for (int i = 0; i < misses.size(); i += WHERE_IN_LIMIT) {
+            List<String> chunk = misses.subList(i, Math.min(misses.size(), i + WHERE_IN_LIMIT));
+            chunks.add(chunk);
+            // Queried by the same lowercased key the cache uses, so a result can't be cached under another casing
+            List<Object> keys = new ArrayList<>(chunk.size());
+            for (String email : chunk) {
+                String key = email.toLowerCase(Locale.ROOT);
+                if (!keys.contains(key)) keys.add(key);
+            }
+            lookups.add(db.collection("users").whereIn("email", keys).get());
+        }
+        Tasks.whenAllComplete(lookups).addOnCompleteListener(all -> {
+            for (int c = 0; c < chunks.size(); c++) {
+                Task<QuerySnapshot> t = lookups.get(c);
+                if (!t.isSuccessful() || t.getResult() == null) continue; // chunk stays FAILED
+                Map<String, String> found = new HashMap<>();
+                for (DocumentSnapshot d : t.getResult().getDocuments()) {
+                    String email = d.getString("email");
+                    if (email != null) found.put(email.toLowerCase(Locale.ROOT), d.getId());
+                }
+                for (String email : chunks.get(c)) {
+                    String key = email.toLowerCase(Locale.ROOT);
+                    String uid = found.get(key);
+                    cache.put(key, uid != null ? uid : EmailUidCache.MISSING);
+                    if (uid != null) { uidByEmail.put(email, uid); out.put(email, Status.ADDED); }
+                    else out.put(email, Status.NOT_FOUND);
+                }
+            }
+            applyMembership(listId, out, uidByEmail, cb);
+        });
+    }
+
+    public void clearCache() { cache.clear(); }
+
+    // One update for every resolved member; on failure they all flip to FAILED
+    private void applyMembership(String listId, Map<String, Status> out,
+                                 Map<String, String> uidByEmail, Callback cb) {
+        if (uidByEmail.isEmpty()) { cb.onResult(new Result(out)); return; }
+        Object[] uids = uidByEmail.values().toArray();
+        db.collection("lists").document(listId)
+                .update("members", FieldValue.arrayUnion(uids))
+                .addOnSuccessListener(v -> cb.onResult(new Result(out)))
+                .addOnFailureListener(e -> {
+                    for (String email : uidByEmail.keySet()) out.put(email, Status.FAILED);
+                    cb.onResult(new Result(out));
+                });
+    }
+}
@@ -0,0 +1,214 @@
+package com.quicklist.app.data;
+
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.Source;
+import com.quicklist.app.core.SnapshotMerge;
+import com.quicklist.app.models.ItemSummary;
+import com.quicklist.app.models.Projections;
+import com.quicklist.app.store.Change;
+import com.quicklist.app.store.ItemFeed;
+import com.quicklist.app.store.StoreObserver;
+import com.quicklist.app.store.StoreSnapshot;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Windowed loading of an ordered items query.
+ *
+ * Pages are fetched with {@code limit}/{@code startAfter} as the user scrolls. Only the
+ * open tail page uses a limit; once the next page is requested the tail is closed with
+ * {@code endAt(lastDoc)} so inserts in the middle can't push rows across page boundaries.
+ * Only pages within {@link #LIVE_RADIUS} of the viewport keep a listener; the rest keep
+ * their last rows until they scroll back into range.
+ *
+ * Time-to-first-row and memory depend on how far the user has scrolled, not on how
+ * many items the list holds. Page listeners go through the {@link ListenerHub}, so a
+ * second screen on the same list shares them, and a first page warmed by the
+ * {@link ItemPrefetcher} is painted without a cache read or round trip. This is the
+ * {@link ItemFeed} behind {@link FirestoreItemStore}. Main thread only.
+ */
+public final class ItemPager implements ItemFeed {
+    public static final int PAGE_SIZE = 100;
+    public static final int LIVE_RADIUS = 1;
+
+    private static final class Page {
+        final int index;
+        final DocumentSnapshot after;   // last doc of the previous page; null for the first
+        DocumentSnapshot end;           // set once the page is closed
+        DocumentSnapshot lastDoc;
+        List<ItemSummary> items = new ArrayList<>();
+        ListenerHub.Subscription sub;
+        boolean full;                   // open page returned PAGE_SIZE rows: more may follow
+        boolean fromCache = true;
+        boolean pendingWrites;
+        boolean seenLive;
+        boolean diffNext;               // next live value may be the hub's cached one: its changes aren't ours
+
+        Page(int index, DocumentSnapshot after) { this.index = index; this.after = after; }
+    }
+
+    private final ListenerHub hub;
+    private final String keyPrefix;
+    private final Query ordered;
+    private final StoreObserver<ItemSummary> observer;
+    private final List<Page> pages = new ArrayList<>();
+    private final Map<String, Integer> pageOfItem = new HashMap<>();
+    private boolean startedWarm;
+    private boolean closed;
+
+    /**
+     * @param keyPrefix identifies the query in the hub, e.g. "items/{listId}"
+     * @param observer gets every loaded row in query order, de-duplicated, plus the changes that triggered it
+     */
+    public ItemPager(ListenerHub hub, String keyPrefix, Query ordered, StoreObserver<ItemSummary> observer) {
+        this.hub = hub;
+        this.keyPrefix = keyPrefix;
+        this.ordered = ordered;
+        this.observer = observer;
+    }
+
+    /** Hub key of the first page, so a prefetcher can warm exactly the listener start() uses. */
+    public static String firstPageKey(String keyPrefix) {
+        return keyPrefix + "#..+" + PAGE_SIZE;
+    }
+
+    public static Query firstPageQuery(Query ordered) {
+        return ordered.limit(PAGE_SIZE);
+    }
+
+    public void start() {
+        if (closed || !pages.isEmpty()) return;
+        final Page first = new Page(0, null);
+        pages.add(first);
+        startedWarm = hub.peek(keyFor(first)) != null;
+        if (startedWarm) {
+            attach(first); // the hub hands over the warmed snapshot synchronously
+            return;
+        }
+        // Paint from the local cache right away; the live listener reconciles afterwards
+        queryFor(first).get(Source.CACHE)
+                .addOnSuccessListener(snap -> {
+                    observer.onCacheRead(!snap.isEmpty());
+                    if (!first.seenLive) apply(first, snap, false);
+                })
+                .addOnFailureListener(e -> observer.onCacheRead(false));
+        attach(first);
+    }
+
+    /** Requests the page after the tail, if the tail is full. */
+    @Override public void loadMore() {
+        if (closed || pages.isEmpty()) return;
+        Page tail = pages.get(pages.size() - 1);
+        if (tail.end != null || !tail.full || tail.lastDoc == null) return;
+        tail.end = tail.lastDoc;
+        if (tail.sub != null) { detach(tail); attach(tail); } // re-listen with the closed bounds
+        Page next = new Page(tail.index + 1, tail.lastDoc);
+        pages.add(next);
+        attach(next);
+    }
+
+    /** Keeps listeners only on pages near the rows between the two visible ids. */
+    @Override public void onViewport(String firstVisibleId, String lastVisibleId) {
+        if (closed) return; // e.g. a scroll callback posted before the screen stopped
+        Integer a = pageOfItem.get(firstVisibleId), b = pageOfItem.get(lastVisibleId);
+        if (a == null || b == null) return;
+        int lo = Math.min(a, b) - LIVE_RADIUS, hi = Math.max(a, b) + LIVE_RADIUS;
+        for (Page p : pages) {
+            if (p.index >= lo && p.index <= hi) attach(p);
+            else detach(p);
+        }
+    }
+
+    /** True once the last page came back short, i.e. every row has been loaded. */
+    @Override public boolean isFullyLoaded() {
+        if (pages.isEmpty()) return false;
+        Page tail = pages.get(pages.size() - 1);
+        return tail.end == null && tail.seenLive && !tail.full;
+    }
+
+    /** True if start() found the first page already live in the hub. */
+    @Override public boolean startedWarm() { return startedWarm; }
+
+    @Override public int liveListenerCount() {
+        int n = 0;
+        for (Page p : pages) if (p.sub != null) n++;
+        return n;
+    }
+
+    @Override public void close() {
+        closed = true;
+        for (Page p : pages) detach(p);
+    }
+
+    private Query queryFor(Page p) {
+        if (p.after == null && p.end == null) return firstPageQuery(ordered);
+        Query q = ordered;
+        if (p.after != null) q = q.startAfter(p.after);
+        return p.end != null ? q.endAt(p.end) : q.limit(PAGE_SIZE);
+    }
+
+    // Same bounds -> same key, so equal pages from two screens share one listener
+    private String keyFor(Page p) {
+        if (p.after == null && p.end == null) return firstPageKey(keyPrefix);
+        return keyPrefix + "#" + (p.after == null ? "" : p.after.getId())
+                + ".." + (p.end == null ? "+" + PAGE_SIZE : p.end.getId());
+    }
+
+    private void attach(Page p) {
+        if (p.sub != null) return;
+        p.diffNext = true;
+        p.sub = hub.observe(keyFor(p), QuickListRepository.itemsSource(queryFor(p)),
+                new ListenerHub.Callback<QuerySnapshot>() {
+                    @Override public void onValue(QuerySnapshot snap) {
+                        p.seenLive = true;
+                        apply(p, snap, true);
+                    }
+                    @Override public void onError(Exception e) { observer.onError(e); }
+                });
+    }
+
+    private void detach(Page p) {
+        if (p.sub == null) return;
+        p.sub.close();
+        p.sub = null;
+    }
+
+    private void apply(Page p, QuerySnapshot snap, boolean live) {
+        List<ItemSummary> before = p.items;
+        p.items = Projections.decode(snap, p.items, i -> i.id, Projections::item);
+        p.fromCache = snap.getMetadata().isFromCache();
+        p.pendingWrites = snap.getMetadata().hasPendingWrites();
+        if (p.end == null) {
+            List<DocumentSnapshot> docs = snap.getDocuments();
+            p.full = docs.size() >= PAGE_SIZE;
+            p.lastDoc = docs.isEmpty() ? null : docs.get(docs.size() - 1);
+        }
+        List<Change<ItemSummary>> changes = p.diffNext || !live
+                ? SnapshotMerge.diff(before, p.items, i -> i.id)
+                : Projections.changes(snap, p.items, Projections::item);
+        if (live) p.diffNext = false;
+        publish(changes);
+    }
+
+    private void publish(List<Change<ItemSummary>> changes) {
+        List<ItemSummary> all = new ArrayList<>();
+        boolean fromCache = false, pending = false;
+        pageOfItem.clear();
+        for (Page p : pages) {
+            fromCache |= p.fromCache;
+            pending |= p.pendingWrites;
+            for (ItemSummary i : p.items) {
+                // A stale page can briefly overlap its neighbour; first occurrence wins
+                if (pageOfItem.containsKey(i.id)) continue;
+                pageOfItem.put(i.id, p.index);
+                all.add(i);
+            }
+        }
+        observer.onSnapshot(new StoreSnapshot<>(all, changes, fromCache, pending));
+    }
+}
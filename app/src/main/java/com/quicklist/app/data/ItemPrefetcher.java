@@ -0,0 +1,179 @@
+package com.quicklist.app.data;
+
+import com.quicklist.app.store.Prefetcher;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps the first items page of likely-next lists warm in the {@link ListenerHub}, so
+ * opening one finds its rows already there instead of waiting for a round trip.
+ *
+ * Candidates in priority order: the row whose overflow menu is open, recently opened
+ * lists, then pinned lists. At most {@code maxListeners} are warm at once, and if the
+ * warmed pages together hold more than {@code maxBytes} the lowest-priority ones are
+ * dropped. The hand-off is the hub itself: the opened screen observes the same key and
+ * gets the last value right away. Owners pause it while Home is not visible.
+ *
+ * Plain Java like the hub; main thread only.
+ */
+public final class ItemPrefetcher<T> implements Prefetcher {
+    public static final int DEFAULT_MAX_LISTENERS = 4;
+    public static final long DEFAULT_MAX_BYTES = 256 * 1024;
+    public static final int RECENT_LIMIT = 3;
+
+    /** Why a list is warm; earlier constants win when the budget is tight. */
+    public enum Reason { MENU, RECENT, PINNED }
+
+    /** Maps a list to its first-page hub key and listener, and sizes a warmed value. */
+    public interface Warmer<T> {
+        String keyFor(String listId);
+        ListenerHub.Source<T> sourceFor(String listId);
+        /** Rough bytes a warmed value keeps in memory. */
+        long sizeOf(T value);
+    }
+
+    private final class Warm implements ListenerHub.Callback<T> {
+        final String listId;
+        Reason reason;
+        int rank;
+        long bytes;
+        ListenerHub.Subscription sub;
+
+        Warm(String listId) { this.listId = listId; }
+
+        @Override public void onValue(T value) {
+            bytes = warmer.sizeOf(value);
+            enforceBytes();
+        }
+
+        @Override public void onError(Exception e) { drop(this); }
+    }
+
+    private final ListenerHub hub;
+    private final Warmer<T> warmer;
+    private final int maxListeners;
+    private final long maxBytes;
+    private final Map<String, Warm> warm = new LinkedHashMap<>();
+    private final Deque<String> recent = new ArrayDeque<>();
+    private final Set<String> overBudget = new HashSet<>();
+    private List<String> pinned = Collections.emptyList();
+    private String menuHint;
+    private boolean active;
+
+    public ItemPrefetcher(ListenerHub hub, Warmer<T> warmer, int maxListeners, long maxBytes) {
+        this.hub = hub;
+        this.warmer = warmer;
+        this.maxListeners = maxListeners;
+        this.maxBytes = maxBytes;
+    }
+
+    @Override public void setPinned(List<String> listIds) {
+        pinned = new ArrayList<>(listIds);
+        reconcile();
+    }
+
+    @Override public void noteOpened(String listId) {
+        recent.remove(listId);
+        recent.addFirst(listId);
+        while (recent.size() > RECENT_LIMIT) recent.removeLast();
+        reconcile();
+    }
+
+    @Override public void hint(String listId) {
+        menuHint = listId;
+        reconcile();
+    }
+
+    @Override public void resume() {
+        active = true;
+        reconcile();
+    }
+
+    /** Releases every warm listener; the hub's grace period still covers a quick open. */
+    @Override public void pause() {
+        active = false;
+        for (Warm w : warm.values()) w.sub.close();
+        warm.clear();
+    }
+
+    public void clear() {
+        pause();
+        recent.clear();
+        overBudget.clear();
+        pinned = Collections.emptyList();
+        menuHint = null;
+    }
+
+    /** True if the list's first page is already in the hub, warmed or otherwise. */
+    public boolean isWarm(String listId) {
+        return hub.peek(warmer.keyFor(listId)) != null;
+    }
+
+    /** Why {@code listId} is warm right now, or null if it isn't being prefetched. */
+    public Reason reasonFor(String listId) {
+        Warm w = warm.get(listId);
+        return w == null ? null : w.reason;
+    }
+
+    public int warmCount() { return warm.size(); }
+
+    public long warmBytes() {
+        long total = 0;
+        for (Warm w : warm.values()) total += w.bytes;
+        return total;
+    }
+
+    private void reconcile() {
+        if (!active) return;
+        Map<String, Reason> wanted = new LinkedHashMap<>();
+        if (menuHint != null) wanted.put(menuHint, Reason.MENU);
+        for (String id : recent) if (!wanted.containsKey(id)) wanted.put(id, Reason.RECENT);
+        for (String id : pinned) if (!wanted.containsKey(id)) wanted.put(id, Reason.PINNED);
+        wanted.keySet().removeAll(overBudget);
+
+        List<String> keep = new ArrayList<>(wanted.keySet());
+        if (keep.size() > maxListeners) keep = keep.subList(0, maxListeners);
+        for (Iterator<Warm> it = warm.values().iterator(); it.hasNext(); ) {
+            Warm w = it.next();
+            if (!keep.contains(w.listId)) { w.sub.close(); it.remove(); }
+        }
+        for (int i = 0; i < keep.size(); i++) {
+            String id = keep.get(i);
+            Warm w = warm.get(id);
+            boolean fresh = w == null;
+            if (fresh) { w = new Warm(id); warm.put(id, w); }
+            w.reason = wanted.get(id);
+            w.rank = i;
+            if (!fresh) continue;
+            w.sub = hub.observe(warmer.keyFor(id), warmer.sourceFor(id), w);
+            // A cached value is delivered inside observe() and may already have blown the budget
+            if (!warm.containsKey(id)) w.sub.close();
+        }
+    }
+
+    // Drops the lowest-ranked pages until the total fits; they stay out until clear()
+    private void enforceBytes() {
+        long total = warmBytes();
+        while (total > maxBytes && !warm.isEmpty()) {
+            Warm worst = null;
+            for (Warm w : warm.values()) if (worst == null || w.rank > worst.rank) worst = w;
+            total -= worst.bytes;
+            overBudget.add(worst.listId);
+            drop(worst);
+        }
+    }
+
+    private void drop(Warm w) {
+        if (warm.remove(w.listId) == null) return;
+        if (w.sub != null) w.sub.close();
+    }
+}
@@ -0,0 +1,219 @@
+package com.quicklist.app.data;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import com.quicklist.app.models.ItemSummary;
+import com.quicklist.app.store.BulkListener;
+import com.quicklist.app.store.ItemStore;
+import com.quicklist.app.store.PageSink;
+import com.quicklist.app.store.Subscription;
+import com.quicklist.app.transfer.Format;
+import com.quicklist.app.transfer.ItemReader;
+import com.quicklist.app.transfer.ItemWriter;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Moves a list's items in from pasted text or a file and out to a file, a chunk at a
+ * time: parsing and file IO on a background thread, store calls on the main thread.
+ * The next chunk is only read once the last one has committed (or been written out),
+ * so memory holds one chunk however long the file is.
+ *
+ * An import chunk counts as committed when the server acknowledges it. Offline, the
+ * first chunk shows up on this device right away, but the import doesn't move on until
+ * the device reconnects. {@link Listener#onWaiting} reports when that happens.
+ *
+ * Closing the returned subscription cancels after the chunk in flight; what committed
+ * before stays.
+ */
+public final class ItemTransfer {
+    /** Items per import batch; the batch's last slot carries the list's counters. */
+    public static final int CHUNK = BatchWriter.MAX_OPS_PER_BATCH - 1;
+    /** A chunk unacknowledged this long is reported as waiting for the server. */
+    static final long WAITING_MS = 3_000;
+
+    /** Opens the input or output; called on the background thread. */
+    public interface Opener<T> {
+        T open() throws IOException;
+    }
+
+    /** Called on the main thread. */
+    public interface Listener {
+        void onProgress(int items);
+
+        /**
+         * The chunk ending at {@code items} is saved on this device but not yet acknowledged,
+         * e.g. while offline. The import continues once it is.
+         */
+        default void onWaiting(int items) {}
+
+        /** {@code error} is null on success and a {@link CancellationException} if cancelled. */
+        void onComplete(int items, Exception error);
+    }
+
+    private ItemTransfer() {}
+
+    /** Adds every parsed item to the end of the list, in input order, owned by {@code uid}. */
+    public static Subscription importItems(ItemStore items, String listId, String uid,
+                                           Format format, Opener<Reader> input, Listener listener) {
+        Import run = new Import(items, listId, uid, listener);
+        run.io.execute(() -> {
+            try {
+                run.reader = ItemReader.open(format, input.open());
+            } catch (IOException e) {
+                run.finishOnMain(e);
+                return;
+            }
+            run.readChunk();
+        });
+        return run;
+    }
+
+    public static Subscription exportItems(ItemStore items, String listId, Format format,
+                                           Opener<Writer> output, Listener listener) {
+        Export run = new Export(listener);
+        run.io.execute(() -> {
+            try {
+                run.writer = ItemWriter.open(format, output.open());
+            } catch (IOException e) {
+                run.finishOnMain(e);
+                return;
+            }
+            run.main.post(() -> {
+                if (run.closed) run.finish(new CancellationException());
+                else items.fetchPages(listId, CHUNK, run);
+            });
+        });
+        return run;
+    }
+
+    private abstract static class Run implements Subscription {
+        final ExecutorService io = Executors.newSingleThreadExecutor();
+        final Handler main = new Handler(Looper.getMainLooper());
+        final Listener listener;
+        volatile boolean closed;
+        boolean finished;
+        int done; // main thread
+
+        Run(Listener listener) { this.listener = listener; }
+
+        abstract void closeStream() throws IOException;
+
+        void finishOnMain(Exception error) {
+            main.post(() -> finish(error));
+        }
+
+        // Main thread. The stream closes on the IO thread, after any write still queued there
+        void finish(Exception error) {
+            if (finished) return;
+            finished = true;
+            io.execute(() -> {
+                Exception e = error;
+                try {
+                    closeStream();
+                } catch (IOException closing) {
+                    if (e == null) e = closing;
+                }
+                Exception result = e;
+                main.post(() -> listener.onComplete(done, result));
+            });
+            io.shutdown();
+        }
+
+        @Override public void close() { closed = true; }
+    }
+
+    private static final class Import extends Run {
+        final ItemStore items;
+        final String listId, uid;
+        final long startedAt = System.currentTimeMillis();
+        ItemReader reader; // IO thread
+
+        Import(ItemStore items, String listId, String uid, Listener listener) {
+            super(listener);
+            this.items = items;
+            this.listId = listId;
+            this.uid = uid;
+        }
+
+        // IO thread
+        void readChunk() {
+            List<ItemReader.Row> rows = new ArrayList<>(CHUNK);
+            try {
+                for (ItemReader.Row r; rows.size() < CHUNK && !closed && (r = reader.next()) != null; ) rows.add(r);
+            } catch (IOException e) {
+                // Rows parsed before the bad one still go in; the error ends the run after them
+                main.post(() -> write(rows, e));
+                return;
+            }
+            main.post(() -> write(rows, null));
+        }
+
+        // Main thread. Creation times count up from the start, so the list keeps the file's order
+        void write(List<ItemReader.Row> rows, Exception parseError) {
+            if (closed) { finish(new CancellationException()); return; }
+            if (rows.isEmpty()) { finish(parseError); return; }
+            List<ItemSummary> chunk = new ArrayList<>(rows.size());
+            for (ItemReader.Row r : rows) {
+                chunk.add(new ItemSummary(items.newItemId(listId), r.text, uid, startedAt + done + chunk.size(),
+                        r.checked, r.quantity, r.category));
+            }
+            Runnable waiting = () -> listener.onWaiting(done + rows.size());
+            main.postDelayed(waiting, WAITING_MS);
+            items.restoreAll(listId, chunk, new BulkListener() {
+                @Override public void onProgress(int d, int total) {}
+                @Override public void onComplete(int d, Exception error) {
+                    main.removeCallbacks(waiting);
+                    done += d;
+                    listener.onProgress(done);
+                    if (error != null || parseError != null) finish(error != null ? error : parseError);
+                    else if (rows.size() < CHUNK && !closed) finish(null);
+                    else io.execute(Import.this::readChunk);
+                }
+            });
+        }
+
+        @Override void closeStream() throws IOException {
+            if (reader != null) reader.close();
+        }
+    }
+
+    private static final class Export extends Run implements PageSink {
+        ItemWriter writer; // IO thread
+
+        Export(Listener listener) { super(listener); }
+
+        // Main thread; the page is written out before the next one is fetched
+        @Override public void onPage(List<ItemSummary> page, boolean last, Runnable next) {
+            io.execute(() -> {
+                try {
+                    for (ItemSummary i : page) writer.write(i);
+                } catch (IOException e) {
+                    finishOnMain(e);
+                    return;
+                }
+                main.post(() -> {
+                    done += page.size();
+                    listener.onProgress(done);
+                    if (last) finish(null);
+                    else if (closed) finish(new CancellationException());
+                    else next.run();
+                });
+            });
+        }
+
+        @Override public void onError(Exception e) { finish(e); }
+
+        @Override void closeStream() throws IOException {
+            if (writer != null) writer.close();
+        }
+    }
+}
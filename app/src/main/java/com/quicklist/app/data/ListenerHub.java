@@ -0,0 +1,151 @@
+package com.quicklist.app.data;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One live listener per query key, shared by every observer of that key.
+ *
+ * The first observer attaches the listener; later observers get the last value right
+ * away and share it. When the last observer leaves, the listener stays up for a grace
+ * period so a quick reopen (rotation, back-and-forth navigation) reuses it, then it is
+ * removed. An error ends the listener and forgets the key, so the next observer
+ * attaches again. {@link #clear()} drops everything, e.g. on sign-out.
+ *
+ * Plain Java so it can be tested on the JVM; not thread-safe, callers stay on one thread.
+ */
+public final class ListenerHub {
+    public static final long DEFAULT_GRACE_MS = 10_000;
+
+    public interface Registration { void remove(); }
+
+    public interface Callback<T> {
+        void onValue(T value);
+        void onError(Exception e);
+    }
+
+    /** Attaches the underlying listener, e.g. Query.addSnapshotListener. */
+    public interface Source<T> { Registration listen(Callback<T> callback); }
+
+    /** Runs {@code task} after {@code delayMs}; the returned runnable cancels it. */
+    public interface Scheduler { Runnable schedule(Runnable task, long delayMs); }
+
+    public interface Subscription { void close(); }
+
+    private final class Entry<T> implements Callback<T> {
+        final String key;
+        final List<Callback<T>> observers = new ArrayList<>();
+        Registration reg;
+        T last;
+        Runnable cancelDetach;
+
+        Entry(String key) { this.key = key; }
+
+        @Override public void onValue(T value) {
+            last = value;
+            for (Callback<T> o : new ArrayList<>(observers)) o.onValue(value);
+        }
+
+        // A listener error is terminal: the entry is dropped, so the next observe() attaches afresh
+        @Override public void onError(Exception e) {
+            if (entries.get(key) == this) detach(this);
+            if (cancelDetach != null) cancelDetach.run();
+            cancelDetach = null;
+            for (Callback<T> o : new ArrayList<>(observers)) o.onError(e);
+        }
+    }
+
+    private final Map<String, Entry<?>> entries = new HashMap<>();
+    private final Scheduler scheduler;
+    private final long graceMs;
+    private long attaches = 0;
+
+    public ListenerHub(Scheduler scheduler, long graceMs) {
+        this.scheduler = scheduler;
+        this.graceMs = graceMs;
+    }
+
+    /**
+     * Adds an observer for {@code key}. {@code source} is only used when no listener for
+     * the key is alive, so every caller must pass an equivalent source for the same key.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Subscription observe(String key, Source<T> source, Callback<T> observer) {
+        Entry<T> entry = (Entry<T>) entries.get(key);
+        if (entry == null) {
+            entry = new Entry<>(key);
+            entries.put(key, entry);
+        }
+        if (entry.cancelDetach != null) {
+            entry.cancelDetach.run();
+            entry.cancelDetach = null;
+        }
+        entry.observers.add(observer);
+        if (entry.reg == null) {
+            attaches++;
+            entry.reg = source.listen(entry);
+        } else if (entry.last != null) {
+            observer.onValue(entry.last);
+        }
+        final Entry<T> e = entry;
+        return new Subscription() {
+            boolean closed;
+            @Override public void close() {
+                if (closed) return;
+                closed = true;
+                release(e, observer);
+            }
+        };
+    }
+
+    /** Last value seen for {@code key}, if a listener for it is (or was recently) alive. */
+    @SuppressWarnings("unchecked")
+    public <T> T peek(String key) {
+        Entry<T> e = (Entry<T>) entries.get(key);
+        return e == null ? null : e.last;
+    }
+
+    /** Removes every listener right away and forgets all cached values. */
+    public void clear() {
+        for (Entry<?> e : entries.values()) {
+            if (e.cancelDetach != null) e.cancelDetach.run();
+            if (e.reg != null) e.reg.remove();
+            e.reg = null;
+            e.observers.clear();
+        }
+        entries.clear();
+    }
+
+    /** Listeners currently attached, including ones waiting out their grace period. */
+    public int activeListenerCount() {
+        int n = 0;
+        for (Entry<?> e : entries.values()) if (e.reg != null) n++;
+        return n;
+    }
+
+    public int observerCount(String key) {
+        Entry<?> e = entries.get(key);
+        return e == null ? 0 : e.observers.size();
+    }
+
+    /** Total listeners ever attached; the gap to observe() calls is what sharing saved. */
+    public long attachCount() { return attaches; }
+
+    private <T> void release(Entry<T> entry, Callback<T> observer) {
+        entry.observers.remove(observer);
+        if (!entry.observers.isEmpty() || entries.get(entry.key) != entry) return;
+        if (graceMs <= 0) { detach(entry); return; }
+        entry.cancelDetach = scheduler.schedule(() -> {
+            entry.cancelDetach = null;
+            if (entry.observers.isEmpty()) detach(entry);
+        }, graceMs);
+    }
+
+    private void detach(Entry<?> entry) {
+        if (entry.reg != null) entry.reg.remove();
+        entry.reg = null;
+        entries.remove(entry.key);
+    }
+}
@@ -0,0 +1,99 @@
+package com.quicklist.app.data;
+
+import android.content.Context;
+
+import androidx.work.BackoffPolicy;
+import androidx.work.Constraints;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.WorkManager;
+
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.quicklist.app.outbox.Outbox;
+import com.quicklist.app.perf.Metrics;
+
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The process-wide {@link Outbox} and the WorkManager job that replays it. The outbox
+ * loads on a background thread at startup; writes made before it is ready aren't
+ * recorded. Every recorded write (re)arms one job, delayed long enough that the live path
+ * normally settles the write first; the job runs once the device is online, so writes left
+ * by a process that died go out without the app being open.
+ */
+public final class OutboxSync {
+    static final String WORK_NAME = "outbox-replay";
+    static final long REPLAY_DELAY_S = 30;
+    static final long BACKOFF_S = 10;
+
+    private static final ExecutorService loader = Executors.newSingleThreadExecutor();
+
+    private static volatile Context app;
+    private static volatile Outbox outbox;
+    private static Outbox.Backend backend;
+
+    private OutboxSync() {}
+
+    /**
+     * Loads what a previous process left, off the main thread, and schedules its replay.
+     * Call from Application.onCreate.
+     */
+    public static void start(Context context) {
+        Context appContext = context.getApplicationContext();
+        app = appContext;
+        loader.execute(() -> {
+            if (load(appContext).pending() > 0) schedule(appContext);
+        });
+    }
+
+    /** The outbox, loading it first if it isn't yet. Blocks; never on the main thread. */
+    static synchronized Outbox load(Context context) {
+        if (outbox == null) {
+            app = context.getApplicationContext();
+            Outbox o = new Outbox(new SqliteOutboxStorage(app));
+            Metrics.gauge("outbox_pending", o::pending);
+            Metrics.gauge("outbox_replayed", o::replayedCount);
+            Metrics.gauge("outbox_dropped", o::droppedCount);
+            outbox = o;
+        }
+        return outbox;
+    }
+
+    /** The outbox, or null while it loads (or in JVM tests). Never blocks. */
+    static Outbox peek() { return outbox; }
+
+    static synchronized Outbox.Backend backend() {
+        if (backend == null) {
+            backend = new FirestoreOutboxBackend(FirebaseFirestore.getInstance(), load(app).writerId());
+        }
+        return backend;
+    }
+
+    /** For tests: the outbox and backend the worker uses from now on. */
+    static synchronized void install(Context context, Outbox o, Outbox.Backend b) {
+        app = context.getApplicationContext();
+        outbox = o;
+        backend = b;
+    }
+
+    /** A write was recorded; makes sure a replay is pending. */
+    static void recorded() {
+        Context context = app;
+        if (context != null) schedule(context);
+    }
+
+    // KEEP: one queued job covers every write recorded before it runs
+    static UUID schedule(Context context) {
+        OneTimeWorkRequest request = new OneTimeWorkRequest.Builder(OutboxWorker.class)
+                .setConstraints(new Constraints.Builder().setRequiredNetworkType(NetworkType.CONNECTED).build())
+                .setInitialDelay(REPLAY_DELAY_S, TimeUnit.SECONDS)
+                .setBackoffCriteria(BackoffPolicy.EXPONENTIAL, BACKOFF_S, TimeUnit.SECONDS)
+                .build();
+        WorkManager.getInstance(context).enqueueUniqueWork(WORK_NAME, ExistingWorkPolicy.KEEP, request);
+        return request.getId();
+    }
+}
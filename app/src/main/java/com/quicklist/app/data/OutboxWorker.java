@@ -0,0 +1,30 @@
+package com.quicklist.app.data;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.quicklist.app.outbox.Outbox;
+
+/** Replays the {@link Outbox}; WorkManager backs off exponentially between failed runs. */
+public final class OutboxWorker extends Worker {
+    private static final String TAG = "OutboxWorker";
+
+    public OutboxWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    @NonNull @Override public Result doWork() {
+        Outbox outbox = OutboxSync.load(getApplicationContext());
+        long droppedBefore = outbox.droppedCount();
+        Outbox.Replay result = outbox.replay(OutboxSync.backend());
+        if (outbox.droppedCount() > droppedBefore) {
+            Log.w(TAG, (outbox.droppedCount() - droppedBefore) + " rejected writes dropped");
+        }
+        Log.i(TAG, "replay " + result + ", attempt " + getRunAttemptCount() + ", " + outbox.pending() + " pending");
+        return result == Outbox.Replay.DONE ? Result.success() : Result.retry();
+    }
+}
@@ -0,0 +1,162 @@
+package com.quicklist.app.data;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseUser;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.MetadataChanges;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.quicklist.app.outbox.Outbox;
+import com.quicklist.app.perf.Metrics;
+import com.quicklist.app.search.SearchIndex;
+import com.quicklist.app.store.ItemStore;
+import com.quicklist.app.store.ListStore;
+import com.quicklist.app.store.StoreFactory;
+
+import java.util.function.Consumer;
+
+/**
+ * Process-wide entry point for list and item queries. Live queries go through one
+ * {@link ListenerHub}, so screens that watch the same query share a single Firestore
+ * listener and nothing outlives its grace period after the last screen goes away.
+ * Screens reach it as the Firestore {@link StoreFactory}.
+ */
+public final class QuickListRepository implements StoreFactory {
+    private static QuickListRepository instance;
+
+    private final FirebaseFirestore db;
+    private final ListenerHub hub;
+    private final InviteService invites;
+    private final ItemPrefetcher<QuerySnapshot> prefetcher;
+
+    public static synchronized QuickListRepository get() {
+        if (instance == null) {
+            Handler main = new Handler(Looper.getMainLooper());
+            ListenerHub hub = new ListenerHub((task, delayMs) -> {
+                main.postDelayed(task, delayMs);
+                return () -> main.removeCallbacks(task);
+            }, ListenerHub.DEFAULT_GRACE_MS);
+            instance = new QuickListRepository(FirebaseFirestore.getInstance(), hub);
+        }
+        return instance;
+    }
+
+    QuickListRepository(FirebaseFirestore db, ListenerHub hub) {
+        this.db = db;
+        this.hub = hub;
+        this.invites = new InviteService(db);
+        this.prefetcher = new ItemPrefetcher<>(hub, new ItemPrefetcher.Warmer<QuerySnapshot>() {
+            @Override public String keyFor(String listId) {
+                return ItemPager.firstPageKey(itemsKey(listId));
+            }
+            @Override public ListenerHub.Source<QuerySnapshot> sourceFor(String listId) {
+                return itemsSource(ItemPager.firstPageQuery(itemsQuery(listId)));
+            }
+            @Override public long sizeOf(QuerySnapshot snap) { return estimateBytes(snap); }
+        }, ItemPrefetcher.DEFAULT_MAX_LISTENERS, ItemPrefetcher.DEFAULT_MAX_BYTES);
+        Metrics.gauge(Metrics.LISTENERS, hub::activeListenerCount);
+        Metrics.gauge("prefetch_warm", prefetcher::warmCount);
+    }
+
+    @Override public ListStore lists(Consumer<Exception> onWriteError) {
+        return new FirestoreListStore(this, db, onWriteError);
+    }
+
+    @Override public ItemStore items(Consumer<Exception> onWriteError) {
+        return new FirestoreItemStore(this, db, onWriteError);
+    }
+
+    @Override public String uid() {
+        FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
+        return user == null ? null : user.getUid();
+    }
+
+    public ListenerHub hub() { return hub; }
+
+    public InviteService invites() { return invites; }
+
+    public ItemPrefetcher<QuerySnapshot> prefetcher() { return prefetcher; }
+
+    public DocumentReference listRef(String listId) {
+        return db.collection("lists").document(listId);
+    }
+
+    /**
+     * {@code uid}'s lists with the given archived flag, newest first. Served by the
+     * composite index in firestore.indexes.json; a list without the field matches neither.
+     */
+    public Query listsQuery(String uid, boolean archived) {
+        return db.collection("lists")
+                .whereArrayContains("members", uid)
+                .whereEqualTo("archived", archived)
+                .orderBy("createdAt", Query.Direction.DESCENDING);
+    }
+
+    public Query itemsQuery(String listId) {
+        return listRef(listId).collection("items").orderBy("createdAt", Query.Direction.ASCENDING);
+    }
+
+    /** Hub key prefix for a list's item pages; see {@link ItemPager}. */
+    public static String itemsKey(String listId) {
+        return "items/" + listId;
+    }
+
+    /** Hub key of the active lists query for {@code uid}. */
+    static String listsKey(String uid) {
+        return "lists?member=" + uid;
+    }
+
+    /** Hub key of the first {@code limit} archived lists of {@code uid}. */
+    static String archivedKey(String uid, int limit) {
+        return "lists?member=" + uid + "&archived#" + limit;
+    }
+
+    /** Drops every live listener and cached result, then signs out. */
+    @Override public void signOut() {
+        prefetcher.clear();
+        hub.clear();
+        invites.clearCache();
+        SearchIndex.get().clear();
+        Outbox outbox = OutboxSync.peek();
+        if (outbox != null) outbox.clear(); // unsent writes would go out as the next user
+        FirebaseAuth.getInstance().signOut();
+    }
+
+    // Item text dominates; the per-doc constant covers ids, metadata and the other fields
+    private static long estimateBytes(QuerySnapshot snap) {
+        long bytes = 0;
+        for (DocumentSnapshot d : snap.getDocuments()) {
+            String text = d.getString("text");
+            bytes += 160 + (text == null ? 0 : 2L * text.length());
+        }
+        return bytes;
+    }
+
+    public static ListenerHub.Source<QuerySnapshot> source(Query query) {
+        return source(query, MetadataChanges.EXCLUDE);
+    }
+
+    /**
+     * Item pages also hear when their pending writes are acknowledged, which is when the
+     * item screen lets go of its optimistic edits. Those deliveries carry no row changes.
+     */
+    public static ListenerHub.Source<QuerySnapshot> itemsSource(Query query) {
+        return source(query, MetadataChanges.INCLUDE);
+    }
+
+    private static ListenerHub.Source<QuerySnapshot> source(Query query, MetadataChanges metadata) {
+        return cb -> {
+            ListenerRegistration reg = query.addSnapshotListener(metadata, (snap, e) -> {
+                if (e != null) cb.onError(e);
+                else if (snap != null) cb.onValue(snap);
+            });
+            return reg::remove;
+        };
+    }
+}
@@ -0,0 +1,99 @@
+package com.quicklist.app.data;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+
+import com.quicklist.app.outbox.Mutation;
+import com.quicklist.app.outbox.OutboxStorage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * {@link OutboxStorage} in a small SQLite table, one row per pending mutation, plus the
+ * installation's writer id. Writes go out on a background thread in call order, so
+ * recording a tap never waits on disk; the table holds only unsettled writes, so
+ * {@link #load} is a few rows.
+ */
+final class SqliteOutboxStorage extends SQLiteOpenHelper implements OutboxStorage {
+    private static final String DB = "outbox.db";
+    private static final int VERSION = 2;
+    private static final String TABLE = "outbox";
+    private static final String META = "meta";
+
+    private final ExecutorService disk = Executors.newSingleThreadExecutor();
+
+    SqliteOutboxStorage(Context context) {
+        super(context.getApplicationContext(), DB, null, VERSION);
+    }
+
+    @Override public void onCreate(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE + " ("
+                + "id INTEGER PRIMARY KEY, kind TEXT NOT NULL, list_id TEXT NOT NULL, "
+                + "item_id TEXT NOT NULL, checked INTEGER NOT NULL, delta INTEGER NOT NULL)");
+        db.execSQL("CREATE TABLE " + META + " (key TEXT PRIMARY KEY, value TEXT NOT NULL)");
+    }
+
+    // Version 1 rows held whole items and absolute quantities, which don't replay safely
+    @Override public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE);
+        db.execSQL("DROP TABLE IF EXISTS " + META);
+        onCreate(db);
+    }
+
+    @Override public List<Mutation> load() {
+        List<Mutation> out = new ArrayList<>();
+        try (Cursor c = getReadableDatabase().query(TABLE, null, null, null, null, null, "id")) {
+            while (c.moveToNext()) {
+                out.add(new Mutation(c.getLong(c.getColumnIndexOrThrow("id")),
+                        Mutation.Kind.valueOf(str(c, "kind")), str(c, "list_id"), str(c, "item_id"),
+                        c.getInt(c.getColumnIndexOrThrow("checked")) != 0,
+                        c.getInt(c.getColumnIndexOrThrow("delta"))));
+            }
+        }
+        return out;
+    }
+
+    // Made and stored in place, once, while the outbox loads
+    @Override public String writerId() {
+        SQLiteDatabase db = getWritableDatabase();
+        try (Cursor c = db.query(META, new String[]{"value"}, "key = ?", new String[]{"writer"}, null, null, null)) {
+            if (c.moveToNext()) return c.getString(0);
+        }
+        String id = UUID.randomUUID().toString();
+        ContentValues v = new ContentValues();
+        v.put("key", "writer");
+        v.put("value", id);
+        db.insertWithOnConflict(META, null, v, SQLiteDatabase.CONFLICT_REPLACE);
+        return id;
+    }
+
+    @Override public void put(Mutation m) {
+        ContentValues v = new ContentValues();
+        v.put("id", m.id);
+        v.put("kind", m.kind.name());
+        v.put("list_id", m.listId);
+        v.put("item_id", m.itemId);
+        v.put("checked", m.checked ? 1 : 0);
+        v.put("delta", m.delta);
+        disk.execute(() -> getWritableDatabase().insertWithOnConflict(TABLE, null, v, SQLiteDatabase.CONFLICT_REPLACE));
+    }
+
+    @Override public void remove(long id) {
+        disk.execute(() -> getWritableDatabase().delete(TABLE, "id = ?", new String[]{Long.toString(id)}));
+    }
+
+    @Override public void clear() {
+        disk.execute(() -> getWritableDatabase().delete(TABLE, null, null));
+    }
+
+    private static String str(Cursor c, String column) {
+        return c.getString(c.getColumnIndexOrThrow(column));
+    }
+}
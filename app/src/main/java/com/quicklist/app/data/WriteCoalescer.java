@@ -0,0 +1,237 @@
+package com.quicklist.app.data;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import androidx.annotation.Nullable;
+
+import com.google.android.gms.tasks.OnCompleteListener;
+import com.google.android.gms.tasks.OnFailureListener;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.WriteBatch;
+import com.quicklist.app.perf.Metrics;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Merges rapid field writes per document into one update per window.
+ * Absolute values (checked, pinned, color, emoji) keep the last value set;
+ * counters accumulate and go out as {@link FieldValue#increment}, so concurrent
+ * taps from two members add up instead of overwriting each other.
+ *
+ * A flush commits each pending document in a WriteBatch of its own, together with
+ * the counter changes queued for it through {@link #count} (e.g. its list's
+ * checkedCount), so an item edit and its counter land together or not at all. A
+ * document deleted meanwhile fails only its own batch, not the other edits. Batches are
+ * applied to the local cache at once and queued while offline, so an edit shows in
+ * snapshots (with pending writes) before the server has it.
+ *
+ * Callers that track their own edits pass an {@link EditListener}: it hears when the
+ * edit is handed to Firestore and the outcome of the write it went out in. Failures of
+ * edits queued without one go to the coalescer's failure listener.
+ *
+ * Main thread only. Owners call {@link #flush()} from onStop.
+ */
+public final class WriteCoalescer {
+    public static final long DEFAULT_WINDOW_MS = 400;
+
+    /** Hears how one queued edit went; {@link #onComplete} gets the write it went out in. */
+    public interface EditListener extends OnCompleteListener<Void> {
+        /**
+         * The edit left the coalescer: its batch is in Firestore's write queue, so it goes
+         * out from there even if this process dies.
+         */
+        default void onSent() {}
+    }
+
+    private static final class Pending {
+        final DocumentReference ref;
+        final Map<String, Object> sets = new HashMap<>();
+        final Map<String, Long> increments = new HashMap<>();
+        final Map<String, Object> stamps = new HashMap<>();
+        // Counter changes on other documents that go out in this document's batch
+        final Map<String, Map<String, Long>> counters = new LinkedHashMap<>();
+        final Map<String, DocumentReference> counterDocs = new HashMap<>();
+        final List<EditListener> listeners = new ArrayList<>();
+        boolean unobserved;             // some edit was queued without a listener
+        int mutations;
+        Pending(DocumentReference ref) { this.ref = ref; }
+    }
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Map<String, Pending> pending = new LinkedHashMap<>();
+    private final Runnable flushTask = this::flush;
+    private final long windowMs;
+    private final OnFailureListener onFailure;
+
+    private boolean flushScheduled = false;
+    private long mutationsRequested = 0;
+    private long writesIssued = 0;
+    private long writesCoalesced = 0;
+
+    public WriteCoalescer(@Nullable OnFailureListener onFailure) {
+        this(DEFAULT_WINDOW_MS, onFailure);
+    }
+
+    public WriteCoalescer(long windowMs, @Nullable OnFailureListener onFailure) {
+        this.windowMs = windowMs;
+        this.onFailure = onFailure;
+    }
+
+    /** Queues {@code field = value}; replaces any earlier pending set or increment of that field. */
+    public void set(DocumentReference ref, String field, Object value) {
+        set(ref, field, value, null);
+    }
+
+    public void set(DocumentReference ref, String field, Object value, @Nullable EditListener listener) {
+        Pending p = pendingFor(ref, listener);
+        p.increments.remove(field);
+        p.sets.put(field, value);
+        mutationsRequested++;
+        p.mutations++;
+        schedule();
+    }
+
+    /** Queues {@code field += delta}, merged with other pending deltas for the same field. */
+    public void increment(DocumentReference ref, String field, long delta) {
+        increment(ref, field, delta, null);
+    }
+
+    public void increment(DocumentReference ref, String field, long delta, @Nullable EditListener listener) {
+        Pending p = pendingFor(ref, listener);
+        Object base = p.sets.get(field);
+        if (base instanceof Number) {
+            p.sets.put(field, ((Number) base).longValue() + delta);
+        } else {
+            Long prev = p.increments.get(field);
+            p.increments.put(field, (prev == null ? 0 : prev) + delta);
+        }
+        mutationsRequested++;
+        p.mutations++;
+        schedule();
+    }
+
+    /**
+     * Queues {@code field += delta} on {@code counterDoc}, committed in the same batch as
+     * {@code ref}'s pending edits and dropped with them if they cancel out.
+     */
+    public void count(DocumentReference ref, DocumentReference counterDoc, String field, long delta) {
+        Pending p = pending.get(ref.getPath());
+        if (p == null) { p = new Pending(ref); pending.put(ref.getPath(), p); }
+        String path = counterDoc.getPath();
+        Map<String, Long> fields = p.counters.get(path);
+        if (fields == null) {
+            fields = new HashMap<>();
+            p.counters.put(path, fields);
+            p.counterDocs.put(path, counterDoc);
+        }
+        Long prev = fields.get(field);
+        fields.put(field, (prev == null ? 0 : prev) + delta);
+        schedule();
+    }
+
+    /**
+     * Writes {@code field = value} along with the document's other queued edits, e.g. a
+     * marker of the last edit sent. Not an edit itself: alone it sends nothing.
+     */
+    public void stamp(DocumentReference ref, String field, Object value) {
+        Pending p = pending.get(ref.getPath());
+        if (p != null) p.stamps.put(field, value);
+    }
+
+    /** The value a queued set will write, or {@code fallback} if none is queued. */
+    @SuppressWarnings("unchecked")
+    public <T> T pendingValue(DocumentReference ref, String field, T fallback) {
+        Pending p = pending.get(ref.getPath());
+        if (p == null || !p.sets.containsKey(field)) return fallback;
+        return (T) p.sets.get(field);
+    }
+
+    /** Sum of queued increments for a counter field (0 if none). */
+    public long pendingDelta(DocumentReference ref, String field) {
+        Pending p = pending.get(ref.getPath());
+        Long d = p == null ? null : p.increments.get(field);
+        return d == null ? 0 : d;
+    }
+
+    /** Sends everything queued now, one batch per document. */
+    public void flush() {
+        handler.removeCallbacks(flushTask);
+        flushScheduled = false;
+        for (Pending p : pending.values()) {
+            Map<String, Object> update = new HashMap<>(p.sets);
+            for (Map.Entry<String, Long> e : p.increments.entrySet()) {
+                if (e.getValue() != 0) update.put(e.getKey(), FieldValue.increment(e.getValue()));
+            }
+            if (update.isEmpty()) { // e.g. +1 then -1: nothing to send
+                for (EditListener l : p.listeners) {
+                    l.onSent();
+                    l.onComplete(Tasks.forResult(null));
+                }
+                writesCoalesced += p.mutations;
+                continue;
+            }
+            update.putAll(p.stamps);
+            WriteBatch batch = p.ref.getFirestore().batch();
+            batch.update(p.ref, update);
+            for (Map.Entry<String, Map<String, Long>> c : p.counters.entrySet()) {
+                Map<String, Object> counts = new HashMap<>();
+                for (Map.Entry<String, Long> f : c.getValue().entrySet()) {
+                    if (f.getValue() != 0) counts.put(f.getKey(), FieldValue.increment(f.getValue()));
+                }
+                if (!counts.isEmpty()) batch.update(p.counterDocs.get(c.getKey()), counts);
+            }
+            commit(batch, p);
+            writesIssued++;
+            writesCoalesced += p.mutations - 1;
+        }
+        pending.clear();
+    }
+
+    public long getMutationsRequested() { return mutationsRequested; }
+
+    public long getWritesIssued() { return writesIssued; }
+
+    /** Mutations that were folded into another write (or cancelled out) instead of sent on their own. */
+    public long getWritesCoalesced() { return writesCoalesced; }
+
+    @Override public String toString() {
+        return "writes issued=" + writesIssued + " coalesced=" + getWritesCoalesced()
+                + " requested=" + mutationsRequested;
+    }
+
+    // Once commit() returns the batch is in Firestore's write queue, online or not
+    private void commit(WriteBatch batch, Pending p) {
+        long sent = SystemClock.elapsedRealtimeNanos();
+        Task<Void> task = batch.commit()
+                .addOnSuccessListener(v -> Metrics.record(Metrics.WRITE_RTT, SystemClock.elapsedRealtimeNanos() - sent));
+        for (EditListener l : p.listeners) {
+            l.onSent();
+            task.addOnCompleteListener(l);
+        }
+        if (onFailure != null && p.unobserved) task.addOnFailureListener(onFailure);
+    }
+
+    private Pending pendingFor(DocumentReference ref, @Nullable EditListener listener) {
+        Pending p = pending.get(ref.getPath());
+        if (p == null) { p = new Pending(ref); pending.put(ref.getPath(), p); }
+        if (listener != null) p.listeners.add(listener);
+        else p.unobserved = true;
+        return p;
+    }
+
+    private void schedule() {
+        // Fixed window from the first queued mutation, so a steady stream still flushes
+        if (flushScheduled) return;
+        flushScheduled = true;
+        handler.postDelayed(flushTask, windowMs);
+    }
+}
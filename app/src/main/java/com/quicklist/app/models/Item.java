@@ -8,6 +8,7 @@ public class Item {
     public Timestamp createdAt;
     public boolean checked;
     public int quantity;
+    public String category; // optional store aisle or category
 
     // Firestore needs a no-arg constructor
     public Item() {}
@@ -0,0 +1,127 @@
+package com.quicklist.app.models;
+
+import android.graphics.Color;
+
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.DocumentChange;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.quicklist.app.core.SnapshotMerge;
+import com.quicklist.app.core.StringPool;
+import com.quicklist.app.store.Change;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Snapshot -> projection decoding. The only place that reads raw list/item fields.
+ * Decoding runs on the main thread, where every listener delivers.
+ */
+public final class Projections {
+    public static final int DEFAULT_COLOR = Color.parseColor("#16A34A");
+
+    private static final int MAX_CACHED_COLORS = 64;
+    private static final Map<String, Integer> colors = new ConcurrentHashMap<>();
+    // Creator uids and aisles come from a handful of values; 50k rows share them instead of copying
+    private static final StringPool shared = new StringPool();
+
+    private Projections() {}
+
+    public static ListSummary list(DocumentSnapshot d) {
+        return new ListSummary(
+                d.getId(),
+                d.getString("name"),
+                d.getString("emoji"),
+                parseColor(d.getString("color")),
+                Boolean.TRUE.equals(d.getBoolean("pinned")),
+                Boolean.TRUE.equals(d.getBoolean("archived")),
+                shared.intern(d.getString("createdBy")),
+                millis(d.getTimestamp("createdAt")),
+                count(d, "itemCount", -1),
+                count(d, "checkedCount", 0));
+    }
+
+    public static ItemSummary item(DocumentSnapshot d) {
+        Long q = d.getLong("quantity");
+        return new ItemSummary(
+                d.getId(),
+                d.getString("text"),
+                shared.intern(d.getString("createdBy")),
+                millis(d.getTimestamp("createdAt")),
+                Boolean.TRUE.equals(d.getBoolean("checked")),
+                q == null ? 1 : q.intValue(),
+                shared.intern(d.getString("category")));
+    }
+
+    /** Back to the write model, e.g. to restore a deleted item on UNDO. */
+    public static Item toItem(ItemSummary s) {
+        Item item = new Item();
+        item.text = s.text;
+        item.createdBy = s.createdBy;
+        item.createdAt = new Timestamp(new Date(s.createdAtMillis));
+        item.checked = s.checked;
+        item.quantity = s.quantity;
+        item.category = s.category.isEmpty() ? null : s.category;
+        return item;
+    }
+
+    /**
+     * Projects a snapshot in query order, reusing the previous projection for every
+     * document the snapshot did not add or modify.
+     */
+    public static <T> List<T> decode(QuerySnapshot snap, List<T> previous,
+                                     Function<T, String> idOf,
+                                     Function<DocumentSnapshot, T> decoder) {
+        Set<String> changed = new HashSet<>();
+        for (DocumentChange c : snap.getDocumentChanges()) {
+            if (c.getType() != DocumentChange.Type.REMOVED) changed.add(c.getDocument().getId());
+        }
+        return SnapshotMerge.merge(previous, idOf, snap.getDocuments(), DocumentSnapshot::getId, changed, decoder);
+    }
+
+    /**
+     * The snapshot's document changes as store {@link Change}s. {@code decoded} is the
+     * snapshot's {@link #decode} result, so added and modified rows are not decoded twice.
+     */
+    public static <T> List<Change<T>> changes(QuerySnapshot snap, List<T> decoded,
+                                              Function<DocumentSnapshot, T> decoder) {
+        List<DocumentChange> raw = snap.getDocumentChanges();
+        List<Change<T>> out = new ArrayList<>(raw.size());
+        for (DocumentChange c : raw) {
+            String id = c.getDocument().getId();
+            switch (c.getType()) {
+                case ADDED: out.add(Change.added(id, decoded.get(c.getNewIndex()))); break;
+                case MODIFIED: out.add(Change.modified(id, decoded.get(c.getNewIndex()))); break;
+                default: out.add(Change.removed(id, decoder.apply(c.getDocument())));
+            }
+        }
+        return out;
+    }
+
+    // Lists share a small palette, so each hex is parsed once; the cap guards against odd data
+    static int parseColor(String hex) {
+        if (hex == null) return DEFAULT_COLOR;
+        Integer cached = colors.get(hex);
+        if (cached != null) return cached;
+        int color;
+        try { color = Color.parseColor(hex); }
+        catch (IllegalArgumentException ignored) { color = DEFAULT_COLOR; }
+        if (colors.size() < MAX_CACHED_COLORS) colors.put(hex, color);
+        return color;
+    }
+
+    private static int count(DocumentSnapshot d, String field, int missing) {
+        Long v = d.getLong(field);
+        return v == null ? missing : (int) Math.max(0, v);
+    }
+
+    private static long millis(Timestamp t) {
+        return t == null ? 0L : t.toDate().getTime();
+    }
+}
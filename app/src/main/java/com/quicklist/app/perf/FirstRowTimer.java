@@ -0,0 +1,55 @@
+package com.quicklist.app.perf;
+
+import android.os.Process;
+import android.os.SystemClock;
+import android.util.Log;
+
+/**
+ * Time-to-first-rendered-row for one screen, tagged with whether the local cache
+ * could serve the first paint. One instance per activity; logs once under "QL.startup".
+ * Screens opened from a tap also report tap-to-first-row and whether a prefetched
+ * listener was waiting for them.
+ */
+public final class FirstRowTimer {
+    private static final String TAG = "QL.startup";
+
+    private final String screen;
+    private final long startMs = SystemClock.elapsedRealtime();
+    private Boolean cacheHit; // null until the cache read finishes
+    private long tapMs = -1;
+    private Boolean warm;     // null when nothing could have been prefetched
+    private boolean reported;
+
+    public FirstRowTimer(String screen) {
+        this.screen = screen;
+    }
+
+    /** Outcome of the Source.CACHE read: hit means it returned at least one document. */
+    public void onCacheRead(boolean hit) {
+        if (cacheHit == null) cacheHit = hit;
+    }
+
+    /** elapsedRealtime() of the tap that opened this screen. */
+    public void onOpenTapped(long tapElapsedMs) {
+        tapMs = tapElapsedMs;
+    }
+
+    /** Whether the screen's query was already live (prefetched) when it started. */
+    public void onWarm(boolean warmHit) {
+        warm = warmHit;
+    }
+
+    /** Call after rows were handed to the RecyclerView; only the first non-empty call counts. */
+    public void onRowsShown(int rowCount, boolean fromCache) {
+        if (reported || rowCount == 0) return;
+        reported = true;
+        long now = SystemClock.elapsedRealtime();
+        Log.i(TAG, screen + " first row: " + (now - startMs) + "ms since create, "
+                + (now - Process.getStartElapsedRealtime()) + "ms since process start, "
+                + "painted from " + (fromCache ? "cache" : "server")
+                + ", cache " + (Boolean.TRUE.equals(cacheHit) ? "hit" : "miss")
+                + (tapMs >= 0 ? ", " + (now - tapMs) + "ms since tap" : "")
+                + (warm != null ? ", prefetch " + (warm ? "warm" : "cold") : "")
+                + ", rows=" + rowCount);
+    }
+}
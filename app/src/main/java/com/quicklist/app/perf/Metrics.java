@@ -0,0 +1,126 @@
+package com.quicklist.app.perf;
+
+import android.content.Context;
+import android.content.pm.PackageInfo;
+import android.content.pm.PackageManager;
+import android.os.Build;
+import android.os.SystemClock;
+import android.os.Trace;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Process-wide timing registry. {@link #begin}/{@link #end} wrap a synchronous block in
+ * an {@link Trace} section (visible in Perfetto/systrace) and record its duration into a
+ * named {@link Histogram}; async spans such as write round-trips use {@link #record}.
+ * Gauges are sampled when read. Shown by {@link MetricsOverlay} and exported as JSON.
+ */
+public final class Metrics {
+    public static final String SNAPSHOT_TO_RENDER = "snapshot_to_render";
+    public static final String FILTER = "home_filter";
+    public static final String SORT = "item_sort";
+    public static final String ITEMS_SNAPSHOT = "items_snapshot";
+    public static final String BIND_LIST = "bind_list_row";
+    public static final String BIND_ITEM = "bind_item_row";
+    public static final String CONFETTI_DRAW = "confetti_draw";
+    public static final String CONFETTI_FRAME = "confetti_frame_interval";
+    public static final String WRITE_RTT = "write_rtt";
+    public static final String LISTENERS = "listeners";
+
+    private static final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+    private static final Map<String, LongSupplier> gauges = new ConcurrentHashMap<>();
+
+    private Metrics() {}
+
+    /** Opens a trace section on this thread; pass the result to {@link #end} on the same thread. */
+    public static long begin(String section) {
+        Trace.beginSection(section);
+        return SystemClock.elapsedRealtimeNanos();
+    }
+
+    public static void end(String section, long startNanos) {
+        Trace.endSection();
+        record(section, SystemClock.elapsedRealtimeNanos() - startNanos);
+    }
+
+    public static void record(String name, long nanos) {
+        histogram(name).record(nanos);
+    }
+
+    public static Histogram histogram(String name) {
+        return histograms.computeIfAbsent(name, n -> new Histogram());
+    }
+
+    public static void gauge(String name, LongSupplier value) {
+        gauges.put(name, value);
+    }
+
+    public static void reset() {
+        for (Histogram h : histograms.values()) h.reset();
+    }
+
+    /** Compact multi-line text for the overlay: one line per histogram, then gauges. */
+    public static String summary() {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, Histogram> e : new TreeMap<>(histograms).entrySet()) {
+            Histogram.Snapshot s = e.getValue().snapshot();
+            sb.append(String.format(Locale.US, "%-18s n=%-5d p50 %s p90 %s max %s%n",
+                    e.getKey(), s.count, ms(s.p50), ms(s.p90), ms(s.max)));
+        }
+        for (Map.Entry<String, LongSupplier> e : new TreeMap<>(gauges).entrySet()) {
+            sb.append(e.getKey()).append(" = ").append(e.getValue().getAsLong()).append('\n');
+        }
+        return sb.toString().trim();
+    }
+
+    /** Everything needed to compare two builds on the same device. */
+    public static JSONObject toJson(Context context) throws JSONException {
+        JSONObject root = new JSONObject();
+        root.put("app", versionName(context));
+        root.put("device", Build.MANUFACTURER + " " + Build.MODEL);
+        root.put("sdk", Build.VERSION.SDK_INT);
+        root.put("capturedAt", System.currentTimeMillis());
+
+        JSONObject hist = new JSONObject();
+        for (Map.Entry<String, Histogram> e : new TreeMap<>(histograms).entrySet()) {
+            Histogram.Snapshot s = e.getValue().snapshot();
+            JSONObject h = new JSONObject();
+            h.put("count", s.count);
+            h.put("meanUs", s.mean / 1000);
+            h.put("p50Us", s.p50 / 1000);
+            h.put("p90Us", s.p90 / 1000);
+            h.put("p99Us", s.p99 / 1000);
+            h.put("maxUs", s.max / 1000);
+            hist.put(e.getKey(), h);
+        }
+        root.put("histograms", hist);
+
+        JSONObject g = new JSONObject();
+        for (Map.Entry<String, LongSupplier> e : new TreeMap<>(gauges).entrySet()) {
+            g.put(e.getKey(), e.getValue().getAsLong());
+        }
+        root.put("gauges", g);
+        root.put("startupMs", new JSONObject(StartupPhases.snapshot()));
+        return root;
+    }
+
+    private static String ms(long nanos) {
+        return String.format(Locale.US, "%.2fms", nanos / 1e6);
+    }
+
+    private static String versionName(Context context) {
+        try {
+            PackageInfo pi = context.getPackageManager().getPackageInfo(context.getPackageName(), 0);
+            return pi.versionName;
+        } catch (PackageManager.NameNotFoundException e) {
+            return "unknown";
+        }
+    }
+}
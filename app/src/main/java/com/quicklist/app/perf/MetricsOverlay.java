@@ -0,0 +1,72 @@
+package com.quicklist.app.perf;
+
+import android.app.Activity;
+import android.content.Context;
+import android.content.pm.ApplicationInfo;
+import android.graphics.Color;
+import android.graphics.Typeface;
+import android.view.Gravity;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+import android.widget.TextView;
+
+/**
+ * Debug-only text overlay that shows {@link Metrics#summary()} over the current screen,
+ * refreshed once a second. Toggled from the Home menu; the setting is kept in prefs so
+ * every screen that calls {@link #sync} in onResume follows it. Touches pass through.
+ */
+public final class MetricsOverlay {
+    private static final String PREFS = "ql.debug";
+    private static final String KEY_ENABLED = "metrics_overlay";
+    private static final long REFRESH_MS = 1000;
+
+    private MetricsOverlay() {}
+
+    /** True for debuggable builds, the only ones that offer the overlay. */
+    public static boolean isAvailable(Context context) {
+        return (context.getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0;
+    }
+
+    public static boolean isEnabled(Context context) {
+        return isAvailable(context) && context.getSharedPreferences(PREFS, Context.MODE_PRIVATE)
+                .getBoolean(KEY_ENABLED, false);
+    }
+
+    public static void setEnabled(Activity activity, boolean enabled) {
+        activity.getSharedPreferences(PREFS, Context.MODE_PRIVATE)
+                .edit().putBoolean(KEY_ENABLED, enabled).apply();
+        sync(activity);
+    }
+
+    /** Adds or removes this activity's overlay to match the setting. */
+    public static void sync(Activity activity) {
+        ViewGroup root = activity.findViewById(android.R.id.content);
+        TextView existing = root.findViewWithTag(KEY_ENABLED);
+        boolean enabled = isEnabled(activity);
+        if (!enabled) {
+            if (existing != null) root.removeView(existing);
+            return;
+        }
+        if (existing != null) return;
+
+        final TextView view = new TextView(activity);
+        view.setTag(KEY_ENABLED);
+        view.setTypeface(Typeface.MONOSPACE);
+        view.setTextSize(9);
+        view.setTextColor(Color.WHITE);
+        view.setBackgroundColor(0xB3000000);
+        view.setPadding(12, 8, 12, 8);
+        view.setClickable(false);
+        view.setFocusable(false);
+        root.addView(view, new FrameLayout.LayoutParams(
+                ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT,
+                Gravity.BOTTOM));
+        view.post(new Runnable() {
+            @Override public void run() {
+                if (!view.isAttachedToWindow()) return;
+                view.setText(Metrics.summary());
+                view.postDelayed(this, REFRESH_MS);
+            }
+        });
+    }
+}
@@ -0,0 +1,45 @@
+package com.quicklist.app.perf;
+
+import android.os.Process;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cold-start phase markers, all measured from process start and logged under
+ * "QL.startup". Each phase is recorded once per process, so a warm re-entry into
+ * Home doesn't overwrite the cold-start numbers. Main thread only.
+ */
+public final class StartupPhases {
+    public static final String APP_CREATE = "app_create";
+    public static final String AUTH_RESOLVED = "auth_resolved";
+    public static final String HOME_CREATE = "home_create";
+    public static final String HOME_FIRST_FRAME = "home_first_frame";
+    public static final String HOME_FIRST_ROWS = "home_first_rows";
+
+    private static final String TAG = "QL.startup";
+    private static final Map<String, Long> marks = new LinkedHashMap<>();
+
+    private StartupPhases() {}
+
+    /** Records {@code phase} the first time it is reached; returns false if it already was. */
+    public static boolean mark(String phase) {
+        if (marks.containsKey(phase)) return false;
+        long ms = SystemClock.elapsedRealtime() - Process.getStartElapsedRealtime();
+        marks.put(phase, ms);
+        Log.i(TAG, phase + " at " + ms + "ms");
+        return true;
+    }
+
+    /** Milliseconds from process start to {@code phase}, or -1 if it hasn't been reached. */
+    public static long at(String phase) {
+        Long ms = marks.get(phase);
+        return ms == null ? -1 : ms;
+    }
+
+    public static Map<String, Long> snapshot() {
+        return new LinkedHashMap<>(marks);
+    }
+}
@@ -0,0 +1,19 @@
+package com.quicklist.app.ui;
+
+import android.view.Choreographer;
+
+import com.quicklist.app.store.SnapshotDispatcher;
+
+/** Frame callbacks on the main thread's Choreographer, for {@link SnapshotDispatcher}. */
+final class ChoreographerFrames implements SnapshotDispatcher.Frames {
+    static final ChoreographerFrames INSTANCE = new ChoreographerFrames();
+
+    private ChoreographerFrames() {}
+
+    @Override public Runnable post(Runnable task) {
+        Choreographer choreographer = Choreographer.getInstance();
+        Choreographer.FrameCallback callback = frameTimeNanos -> task.run();
+        choreographer.postFrameCallback(callback);
+        return () -> choreographer.removeFrameCallback(callback);
+    }
+}
@@ -0,0 +1,107 @@
+package com.quicklist.app.ui;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.util.TypedValue;
+import android.view.View;
+
+import com.quicklist.app.perf.Metrics;
+
+import java.util.Random;
+
+/**
+ * Full-screen overlay that draws the completion confetti itself: emoji glyphs are
+ * rasterized to bitmaps once, particles live in fixed-size arrays, and each frame
+ * is one pass of drawBitmap calls, so a burst adds no views, layouts or per-frame
+ * allocations. Not clickable, so touches fall through to the list underneath.
+ */
+public class ConfettiView extends View {
+    public static final int DEFAULT_PARTICLES = 24;
+    private static final String[] GLYPHS = {"🎉", "🎊", "✨"};
+    private static final long DURATION_MS = 1600;
+
+    private final Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG | Paint.FILTER_BITMAP_FLAG);
+    private final Matrix matrix = new Matrix();
+    private final Random random = new Random();
+    private Bitmap[] glyphs;
+
+    // Particle state, one slot per particle; sized by setParticleCount
+    private int count;
+    private float[] startX, fall, spin;
+    private int[] glyph;
+
+    private boolean running;
+    private long startNanos, lastFrameNanos;
+
+    public ConfettiView(Context context) {
+        super(context);
+        setParticleCount(DEFAULT_PARTICLES);
+    }
+
+    public void setParticleCount(int n) {
+        count = Math.max(1, n);
+        startX = new float[count];
+        fall = new float[count];
+        spin = new float[count];
+        glyph = new int[count];
+    }
+
+    public void burst() {
+        if (glyphs == null) rasterizeGlyphs();
+        int w = getWidth() > 0 ? getWidth() : 800;
+        int h = getHeight() > 0 ? getHeight() : 1200;
+        for (int i = 0; i < count; i++) {
+            startX[i] = (float) w * i / count + random.nextFloat() * 20f;
+            fall[i] = h + 100 + random.nextFloat() * 200f;
+            spin[i] = (random.nextBoolean() ? 1 : -1) * (270f + random.nextFloat() * 180f);
+            glyph[i] = random.nextInt(glyphs.length);
+        }
+        startNanos = lastFrameNanos = System.nanoTime();
+        running = true;
+        postInvalidateOnAnimation();
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        if (!running) return;
+        long t0 = System.nanoTime();
+        float t = (t0 - startNanos) / 1e6f / DURATION_MS;
+        if (t >= 1f) {
+            running = false;
+            return;
+        }
+        paint.setAlpha((int) (255 * Math.min(1f, t * 4f)));
+        for (int i = 0; i < count; i++) {
+            Bitmap b = glyphs[glyph[i]];
+            float half = b.getWidth() / 2f;
+            matrix.setRotate(spin[i] * t, half, half);
+            matrix.postTranslate(startX[i], -50f + fall[i] * t);
+            canvas.drawBitmap(b, matrix, paint);
+        }
+
+        // Per frame into the metrics overlay: draw cost, and the gap since the last frame for jank
+        Metrics.record(Metrics.CONFETTI_DRAW, System.nanoTime() - t0);
+        if (lastFrameNanos != startNanos) Metrics.record(Metrics.CONFETTI_FRAME, t0 - lastFrameNanos);
+        lastFrameNanos = t0;
+        postInvalidateOnAnimation();
+    }
+
+    private void rasterizeGlyphs() {
+        float px = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_SP, 22, getResources().getDisplayMetrics());
+        Paint text = new Paint(Paint.ANTI_ALIAS_FLAG);
+        text.setTextSize(px);
+        Paint.FontMetrics fm = text.getFontMetrics();
+        int size = (int) Math.ceil(Math.max(fm.descent - fm.ascent, px * 1.2f));
+        glyphs = new Bitmap[GLYPHS.length];
+        for (int i = 0; i < GLYPHS.length; i++) {
+            Bitmap b = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+            Canvas c = new Canvas(b);
+            float w = text.measureText(GLYPHS[i]);
+            c.drawText(GLYPHS[i], (size - w) / 2f, -fm.ascent + (size - (fm.descent - fm.ascent)) / 2f, text);
+            glyphs[i] = b;
+        }
+    }
+}
@@ -2,18 +2,22 @@ package com.quicklist.app.ui;
 
 import android.app.AlertDialog;
 import android.content.Intent;
-import android.graphics.Color;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
 import android.text.Editable;
 import android.text.TextWatcher;
-import android.text.TextUtils;
+import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.Menu;
 import android.view.MenuItem;
 import android.view.View;
 import android.view.ViewGroup;
+import android.view.ViewTreeObserver;
 import android.widget.EditText;
 import android.widget.ImageButton;
+import android.widget.ProgressBar;
 import android.widget.TextView;
 import android.widget.Toast;
 
@@ -21,39 +25,89 @@ import androidx.annotation.NonNull;
 import androidx.appcompat.app.ActionBar;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.widget.PopupMenu;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.google.android.material.appbar.MaterialToolbar;
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
 import com.google.android.material.snackbar.Snackbar;
-import com.google.firebase.auth.FirebaseAuth;
-import com.google.firebase.firestore.DocumentSnapshot;
-import com.google.firebase.firestore.FirebaseFirestore;
-import com.google.firebase.firestore.Query;
 import com.quicklist.app.R;
+import com.quicklist.app.core.CountText;
+import com.quicklist.app.core.ListFilter;
+import com.quicklist.app.core.StableIds;
+import com.quicklist.app.data.QuickListRepository;
+import com.quicklist.app.models.ItemSummary;
+import com.quicklist.app.models.ListSummary;
+import com.quicklist.app.perf.FirstRowTimer;
+import com.quicklist.app.perf.Metrics;
+import com.quicklist.app.perf.MetricsOverlay;
+import com.quicklist.app.perf.StartupPhases;
+import com.quicklist.app.search.SearchIndex;
+import com.quicklist.app.store.Change;
+import com.quicklist.app.store.ItemStore;
+import com.quicklist.app.store.ListStore;
+import com.quicklist.app.store.PagedFeed;
+import com.quicklist.app.store.SnapshotDispatcher;
+import com.quicklist.app.store.StoreFactory;
+import com.quicklist.app.store.StoreObserver;
+import com.quicklist.app.store.StoreSnapshot;
+import com.quicklist.app.store.Subscription;
+
+import org.json.JSONException;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class HomeActivity extends AppCompatActivity {
-    private FirebaseAuth auth;
-    private FirebaseFirestore db;
+    private static final String TAG = "HomeActivity";
+    private static final long SEARCH_DEBOUNCE_MS = 150;
+
+    private StoreFactory stores;
+    private ListStore lists;
+    private ItemStore items;   // only for one-off reads and prefetch hints
+    private Subscription listsSub;
+    // Fold bursts (a member's bulk edit, a reconnect) into one rebuild per frame
+    private SnapshotDispatcher<ListSummary> listsFrames, archivedFrames;
+    private String uid;
     private RecyclerView recycler;
     private View emptyState;
     private EditText searchInput;
     private ListsAdapter adapter;
 
-    // Raw docs from Firestore (unfiltered)
-    private final List<DocumentSnapshot> docs = new ArrayList<>();
-    // Visible list after filters/sort
-    private final List<DocumentSnapshot> visible = new ArrayList<>();
+    // Decoded lists from the store (unfiltered). Replaced wholesale per snapshot, never mutated,
+    // so the filter thread can read it without copying.
+    private List<ListSummary> docs = Collections.emptyList();
+    private boolean docsFromCache = true;
+    private boolean serverSeen = false; // a snapshot the server confirmed has been shown
+    // Archived lists, observed only while "Show archived" is on and shown after the active ones
+    private PagedFeed archivedFeed;
+    private List<ListSummary> archivedDocs = Collections.emptyList();
+    private final FirstRowTimer firstRow = new FirstRowTimer("Home");
+    private long snapshotAt = 0; // arrival of the oldest snapshot not yet on screen
+
+    // Filter/sort runs off the main thread; a newer request bumps the generation and
+    // stale work drops out at the next check.
+    private final ExecutorService filterExecutor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final AtomicInteger filterGeneration = new AtomicInteger();
+    private final Runnable debouncedRebuild = this::rebuildVisible;
+
+    // listId -> best matching itemId for the current search, so opening jumps to it
+    private Map<String, String> searchItemHits = Collections.emptyMap();
+    private final Set<String> itemIndexRequested = new HashSet<>();
+    // Item fetches still out for the index; closed in onDestroy so a late one can't rebuild
+    private final List<Subscription> itemFetches = new ArrayList<>();
 
     private boolean sortAZ = false;          // false = recent
     private boolean showArchived = false;    // hide archived by default
@@ -61,7 +115,9 @@ public class HomeActivity extends AppCompatActivity {
     @Override
     protected void onCreate(Bundle b) {
         super.onCreate(b);
+        StartupPhases.mark(StartupPhases.HOME_CREATE);
         setContentView(R.layout.activity_home);
+        markFirstFrame();
 
         MaterialToolbar toolbar = findViewById(R.id.toolbar);
         setSupportActionBar(toolbar);
@@ -75,52 +131,108 @@ public class HomeActivity extends AppCompatActivity {
         emptyState = findViewById(R.id.emptyState);
         searchInput = findViewById(R.id.searchInput);
 
-        auth = FirebaseAuth.getInstance();
-        db = FirebaseFirestore.getInstance();
+        stores = QuickListRepository.get();
+        uid = stores.uid();
+        lists = stores.lists(e -> Toast.makeText(this, e.getMessage(), Toast.LENGTH_LONG).show());
+        items = stores.items(null);
 
         recycler = findViewById(R.id.listsRecycler);
         recycler.setLayoutManager(new LinearLayoutManager(this));
-        adapter = new ListsAdapter(visible, new ListsAdapter.Events() {
-            @Override public void onOpen(DocumentSnapshot doc)  { openList(doc.getId()); }
-            @Override public void onShare(DocumentSnapshot doc) { showShareDialog(doc.getId()); }
-            @Override public void onPinToggle(DocumentSnapshot doc) { togglePin(doc); }
-            @Override public void onArchiveToggle(DocumentSnapshot doc) { toggleArchiveWithUndo(doc); }
-            @Override public void onColor(DocumentSnapshot doc) { pickColor(doc); }
-            @Override public void onEmoji(DocumentSnapshot doc) { pickEmoji(doc); }
+        RowPools.size(recycler);
+        adapter = new ListsAdapter(new ListsAdapter.Events() {
+            @Override public void onOpen(ListSummary list)  { openList(list.id, searchItemHits.get(list.id)); }
+            @Override public void onShare(ListSummary list) { ShareDialog.show(HomeActivity.this, list.id); }
+            @Override public void onPinToggle(ListSummary list) { togglePin(list); }
+            @Override public void onArchiveToggle(ListSummary list) { toggleArchiveWithUndo(list); }
+            @Override public void onColor(ListSummary list) { pickColor(list); }
+            @Override public void onEmoji(ListSummary list) { pickEmoji(list); }
+            @Override public void onMenuOpened(ListSummary list) { items.prefetcher().hint(list.id); }
         });
         recycler.setAdapter(adapter);
+        recycler.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override public void onScrolled(@NonNull RecyclerView rv, int dx, int dy) { loadMoreArchivedNearEnd(); }
+        });
 
         FloatingActionButton fab = findViewById(R.id.fabAddList);
         fab.setOnClickListener(v -> showNewListDialog());
 
-        String uid = auth.getCurrentUser().getUid();
-        db.collection("lists")
-                .whereArrayContains("members", uid)
-                .orderBy("createdAt", Query.Direction.DESCENDING)
-                .addSnapshotListener((snap, e) -> {
-                    if (e != null) {
-                        Toast.makeText(this, e.getMessage(), Toast.LENGTH_LONG).show();
-                        return;
-                    }
-                    if (snap == null) return;
-                    docs.clear();
-                    docs.addAll(snap.getDocuments());
-                    rebuildVisible();
-                });
-
         searchInput.addTextChangedListener(new TextWatcher() {
             @Override public void beforeTextChanged(CharSequence s, int start, int count, int after) {}
-            @Override public void onTextChanged(CharSequence s, int start, int before, int count) { rebuildVisible(); }
+            @Override public void onTextChanged(CharSequence s, int start, int before, int count) {
+                mainHandler.removeCallbacks(debouncedRebuild);
+                mainHandler.postDelayed(debouncedRebuild, SEARCH_DEBOUNCE_MS);
+            }
             @Override public void afterTextChanged(Editable s) {}
         });
+        searchInput.setOnFocusChangeListener((v, hasFocus) -> { if (hasFocus) warmItemIndex(); });
 
         rebuildVisible();
     }
 
+    private void markFirstFrame() {
+        final View decor = getWindow().getDecorView();
+        decor.getViewTreeObserver().addOnPreDrawListener(new ViewTreeObserver.OnPreDrawListener() {
+            @Override public boolean onPreDraw() {
+                decor.getViewTreeObserver().removeOnPreDrawListener(this);
+                StartupPhases.mark(StartupPhases.HOME_FIRST_FRAME);
+                return true;
+            }
+        });
+    }
+
+    @Override
+    protected void onStart() {
+        super.onStart();
+        // Subscribed while visible; the store paints from its cache first, and a Firestore
+        // listener outlives onStop by the hub's grace period so a quick return reuses it
+        listsFrames = new SnapshotDispatcher<>(new StoreObserver<ListSummary>() {
+            @Override public void onSnapshot(StoreSnapshot<ListSummary> snapshot) { onListsSnapshot(snapshot); }
+            @Override public void onError(Exception e) {
+                Toast.makeText(HomeActivity.this, e.getMessage(), Toast.LENGTH_LONG).show();
+            }
+            @Override public void onCacheRead(boolean hit) { firstRow.onCacheRead(hit); }
+        }, ChoreographerFrames.INSTANCE);
+        listsSub = lists.observe(uid, listsFrames);
+        if (showArchived) openArchived();
+        items.prefetcher().resume();
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        MetricsOverlay.sync(this);
+    }
+
+    @Override
+    protected void onStop() {
+        lists.flush();
+        listsSub.close();
+        listsFrames.close();
+        Log.i(TAG, "lists " + listsFrames);
+        closeArchived();
+        // Warm listeners only pay off while a tap on Home is possible; an opened list
+        // already holds its own subscription, and the hub's grace period covers the rest
+        items.prefetcher().pause();
+        super.onStop();
+    }
+
+    @Override
+    protected void onDestroy() {
+        for (Subscription f : itemFetches) f.close();
+        itemFetches.clear();
+        mainHandler.removeCallbacks(debouncedRebuild);
+        filterGeneration.incrementAndGet();
+        filterExecutor.shutdownNow();
+        super.onDestroy();
+    }
+
     // ===== Toolbar menu =====
     @Override
     public boolean onCreateOptionsMenu(Menu menu) {
         getMenuInflater().inflate(R.menu.menu_home, menu);
+        boolean debug = MetricsOverlay.isAvailable(this);
+        menu.findItem(R.id.action_perf_overlay).setVisible(debug).setChecked(MetricsOverlay.isEnabled(this));
+        menu.findItem(R.id.action_export_metrics).setVisible(debug);
         menu.findItem(R.id.action_show_archived).setChecked(showArchived);
         return true;
     }
@@ -138,20 +250,45 @@ public class HomeActivity extends AppCompatActivity {
         } else if (id == R.id.action_show_archived) {
             showArchived = !item.isChecked();
             item.setChecked(showArchived);
+            if (showArchived) {
+                openArchived();
+            } else {
+                closeArchived();
+                archivedDocs = Collections.emptyList();
+            }
             rebuildVisible();
             return true;
         } else if (id == R.id.action_sign_out) {
             confirmSignOut(); return true;
+        } else if (id == R.id.action_perf_overlay) {
+            item.setChecked(!item.isChecked());
+            MetricsOverlay.setEnabled(this, item.isChecked());
+            return true;
+        } else if (id == R.id.action_export_metrics) {
+            exportMetrics(); return true;
         }
         return super.onOptionsItemSelected(item);
     }
 
+    // Shares the metrics JSON as text, e.g. to a laptop for comparing builds on one device
+    private void exportMetrics() {
+        try {
+            Intent send = new Intent(Intent.ACTION_SEND);
+            send.setType("application/json");
+            send.putExtra(Intent.EXTRA_SUBJECT, "QuickList metrics");
+            send.putExtra(Intent.EXTRA_TEXT, Metrics.toJson(this).toString(2));
+            startActivity(Intent.createChooser(send, "Export metrics"));
+        } catch (JSONException e) {
+            Toast.makeText(this, e.getMessage(), Toast.LENGTH_SHORT).show();
+        }
+    }
+
     private void confirmSignOut() {
         new AlertDialog.Builder(this)
                 .setTitle("Sign out?")
                 .setMessage("You’ll be returned to the login screen.")
                 .setPositiveButton("Sign out", (d, w) -> {
-                    FirebaseAuth.getInstance().signOut();
+                    stores.signOut();
                     Intent i = new Intent(this, LoginActivity.class);
                     i.addFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
                     startActivity(i);
@@ -160,50 +297,176 @@ public class HomeActivity extends AppCompatActivity {
                 .show();
     }
 
-    // ===== Filtering + Sorting + Pin first =====
-    private void rebuildVisible() {
-        String q = searchInput.getText() != null ? searchInput.getText().toString().trim().toLowerCase() : "";
-        visible.clear();
+    private void onListsSnapshot(StoreSnapshot<ListSummary> snap) {
+        docs = snap.items;
+        docsFromCache = snap.fromCache;
+        // Only fromCache/hasPendingWrites moved: the rows on screen are already right. Until
+        // the server has confirmed them once, though, the flip to !fromCache is what lets an
+        // empty Home count as drawn.
+        if (snap.isMetadataOnly() && serverSeen) return;
+        if (!snap.fromCache) serverSeen = true;
+        if (snapshotAt == 0) snapshotAt = SystemClock.elapsedRealtimeNanos();
+        indexListChanges(snap.changes);
+        rebuildVisible();
+        prefetchPinned();
+    }
 
-        for (DocumentSnapshot d : docs) {
-            Boolean archived = d.getBoolean("archived");
-            if (!showArchived && archived != null && archived) continue;
+    // ===== Archived lists =====
+    // Nothing archived is downloaded until asked for; then a page at a time as Home scrolls
+    private void openArchived() {
+        if (archivedFeed != null) return;
+        archivedFrames = new SnapshotDispatcher<>(new StoreObserver<ListSummary>() {
+            @Override public void onSnapshot(StoreSnapshot<ListSummary> snapshot) { onArchivedSnapshot(snapshot); }
+            @Override public void onError(Exception e) {
+                Toast.makeText(HomeActivity.this, e.getMessage(), Toast.LENGTH_LONG).show();
+            }
+        }, ChoreographerFrames.INSTANCE);
+        archivedFeed = lists.observeArchived(uid, archivedFrames);
+    }
+
+    private void closeArchived() {
+        if (archivedFeed == null) return;
+        archivedFeed.close();
+        archivedFrames.close();
+        archivedFeed = null;
+        archivedFrames = null;
+    }
 
-            String name = String.valueOf(d.getString("name")).toLowerCase();
-            if (!q.isEmpty() && (name == null || !name.contains(q))) continue;
+    private void onArchivedSnapshot(StoreSnapshot<ListSummary> snap) {
+        archivedDocs = snap.items;
+        if (snap.isMetadataOnly()) return;
+        indexListChanges(snap.changes);
+        rebuildVisible();
+    }
 
-            visible.add(d);
+    private void loadMoreArchivedNearEnd() {
+        if (archivedFeed == null || archivedFeed.isFullyLoaded()) return;
+        LinearLayoutManager lm = (LinearLayoutManager) recycler.getLayoutManager();
+        if (lm != null && lm.findLastVisibleItemPosition() >= adapter.getItemCount() - PagedFeed.PAGE_SIZE / 2) {
+            archivedFeed.loadMore();
         }
+    }
 
-        // Pin first
-        Collections.sort(visible, (a, b) -> {
-            boolean ap = Boolean.TRUE.equals(a.getBoolean("pinned"));
-            boolean bp = Boolean.TRUE.equals(b.getBoolean("pinned"));
-            if (ap != bp) return ap ? -1 : 1;
-            if (sortAZ) {
-                String an = a.getString("name"); if (an == null) an = "";
-                String bn = b.getString("name"); if (bn == null) bn = "";
-                return an.compareToIgnoreCase(bn);
-            } else {
-                // Recent first by createdAt (already by query order); keep stable
-                return 0;
+    // Pinned lists are the likeliest next open; the prefetcher keeps their first page warm
+    private void prefetchPinned() {
+        List<String> pinned = new ArrayList<>();
+        for (ListSummary l : docs) if (l.pinned && !l.archived) pinned.add(l.id);
+        items.prefetcher().setPinned(pinned);
+    }
+
+    // ===== Filtering + Sorting + Pin first =====
+    // Main thread only captures the inputs and schedules; per keystroke that is O(1)
+    // plus the AsyncListDiffer dispatch of whatever rows actually changed.
+    private void rebuildVisible() {
+        mainHandler.removeCallbacks(debouncedRebuild);
+        final String q = searchInput.getText() != null ? searchInput.getText().toString().trim().toLowerCase() : "";
+        final List<ListSummary> active = docs;
+        final List<ListSummary> archived = showArchived ? archivedDocs : Collections.emptyList();
+        final boolean archivedToo = showArchived;
+        final boolean az = sortAZ;
+        final boolean fromCache = docsFromCache;
+        final int gen = filterGeneration.incrementAndGet();
+        final long arrivedAt = snapshotAt;
+
+        filterExecutor.execute(() -> {
+            Map<String, String> itemHits = new HashMap<>();
+            long t0 = Metrics.begin(Metrics.FILTER);
+            List<ListSummary> source = active;
+            if (!archived.isEmpty()) {
+                source = new ArrayList<>(active.size() + archived.size());
+                source.addAll(active);
+                source.addAll(archived);
             }
+            List<ListSummary> out = filterAndSort(source, q, archivedToo, az, gen, itemHits);
+            Metrics.end(Metrics.FILTER, t0);
+            if (out == null) return; // superseded
+            mainHandler.post(() -> {
+                if (gen != filterGeneration.get()) return;
+                searchItemHits = itemHits;
+                adapter.submitList(out, () -> {
+                    toggleEmpty();
+                    loadMoreArchivedNearEnd(); // a short first page may not fill the screen
+                    firstRow.onRowsShown(adapter.getItemCount(), fromCache);
+                    if (arrivedAt != 0 && arrivedAt == snapshotAt) {
+                        Metrics.record(Metrics.SNAPSHOT_TO_RENDER, SystemClock.elapsedRealtimeNanos() - arrivedAt);
+                        snapshotAt = 0;
+                    }
+                    // Interactive once real rows (or a server-confirmed empty state) are up
+                    if ((adapter.getItemCount() > 0 || !fromCache)
+                            && StartupPhases.mark(StartupPhases.HOME_FIRST_ROWS)) reportFullyDrawn();
+                });
+            });
         });
+    }
 
-        adapter.notifyDataSetChanged();
-        toggleEmpty();
+    // Runs on filterExecutor. Returns null as soon as a newer request has been queued.
+    // The matching and ordering rules live in ListFilter (plain JVM, benchmarked in :benchmarks).
+    private List<ListSummary> filterAndSort(List<ListSummary> source, String q,
+                                            boolean archivedToo, boolean az, int gen,
+                                            Map<String, String> itemHitsOut) {
+        return ListFilter.apply(source, q, archivedToo, az, SearchIndex.get(), itemHitsOut,
+                () -> gen != filterGeneration.get());
+    }
+
+    // ===== Search index =====
+    private void indexListChanges(List<Change<ListSummary>> changes) {
+        SearchIndex index = SearchIndex.get();
+        for (Change<ListSummary> c : changes) {
+            if (c.type == Change.Type.REMOVED) {
+                if (isLoaded(c.id)) continue; // moved between the active and archived queries
+                index.removeList(c.id);
+                itemIndexRequested.remove(c.id);
+            } else {
+                index.putList(c.id, c.value.name);
+            }
+        }
+    }
+
+    private boolean isLoaded(String listId) {
+        for (ListSummary l : docs) if (l.id.equals(listId)) return true;
+        for (ListSummary l : archivedDocs) if (l.id.equals(listId)) return true;
+        return false;
+    }
+
+    // One-shot item fetch per list that has never been opened this process; open lists
+    // keep their items current through ListActivity's listener.
+    private void warmItemIndex() {
+        SearchIndex index = SearchIndex.get();
+        for (ListSummary l : docs) {
+            if (index.hasItems(l.id) || !itemIndexRequested.add(l.id)) continue;
+            final String listId = l.id;
+            final Subscription[] fetch = new Subscription[1];
+            fetch[0] = items.fetchAll(listId, (rows, e) -> {
+                itemFetches.remove(fetch[0]);
+                if (isDestroyed()) return; // filterExecutor is already shut down
+                if (e != null) { itemIndexRequested.remove(listId); return; }
+                for (ItemSummary i : rows) index.putItem(listId, i.id, i.text);
+                index.markItemsIndexed(listId);
+                // Coalesce the burst of fetches into one rebuild
+                mainHandler.removeCallbacks(debouncedRebuild);
+                mainHandler.postDelayed(debouncedRebuild, SEARCH_DEBOUNCE_MS);
+            });
+            itemFetches.add(fetch[0]);
+        }
     }
 
     private void toggleEmpty() {
-        boolean isEmpty = visible.isEmpty();
+        boolean isEmpty = adapter.getItemCount() == 0;
         recycler.setVisibility(isEmpty ? View.GONE : View.VISIBLE);
         emptyState.setVisibility(isEmpty ? View.VISIBLE : View.GONE);
     }
 
     // ===== Row actions =====
     private void openList(String listId) {
+        openList(listId, null);
+    }
+
+    private void openList(String listId, String itemId) {
         Intent i = new Intent(this, ListActivity.class);
         i.putExtra("LIST_ID", listId);
+        i.putExtra("OPENED_AT", SystemClock.elapsedRealtime());
+        items.prefetcher().noteOpened(listId);
+        if (itemId != null) i.putExtra("ITEM_ID", itemId);
         startActivity(i);
     }
 
@@ -219,143 +482,155 @@ public class HomeActivity extends AppCompatActivity {
     }
 
     private void createList(String name) {
-        if (auth.getCurrentUser() == null) {
+        if (uid == null) {
             Toast.makeText(this, "Please sign in again", Toast.LENGTH_SHORT).show();
             startActivity(new Intent(this, LoginActivity.class));
             finish();
             return;
         }
 
-        String uid = auth.getCurrentUser().getUid();
-        Map<String, Object> data = new HashMap<>();
-        data.put("name", name.isEmpty() ? "Untitled List" : name);
-        data.put("createdBy", uid);
-        data.put("members", Arrays.asList(uid));
-        data.put("createdAt", com.google.firebase.Timestamp.now());
-        data.put("pinned", false);
-        data.put("archived", false);
-        data.put("color", "#16A34A");
-        data.put("emoji", "✅");
-
-        db.collection("lists").add(data)
-                .addOnSuccessListener(ref -> {
-                    Toast.makeText(this, "List created", Toast.LENGTH_SHORT).show();
-                    openList(ref.getId());
-                })
-                .addOnFailureListener(e ->
-                        Toast.makeText(this, e.getMessage(), Toast.LENGTH_LONG).show()
-                );
-    }
-
-    private void showShareDialog(String listId) {
-        EditText emailInput = new EditText(this);
-        emailInput.setHint("Friend's email");
-        new AlertDialog.Builder(this)
-                .setTitle("Share by email")
-                .setView(emailInput)
-                .setPositiveButton("Invite", (d, w) -> {
-                    String email = emailInput.getText().toString().trim();
-                    inviteByEmail(listId, email);
-                })
-                .setNegativeButton("Cancel", null)
-                .show();
-    }
-
-    private void inviteByEmail(String listId, String email) {
-        if (TextUtils.isEmpty(email)) {
-            Toast.makeText(this, "Email required", Toast.LENGTH_SHORT).show();
-            return;
-        }
-        db.collection("users").whereEqualTo("email", email).limit(1).get()
-                .addOnSuccessListener(q -> {
-                    if (q.isEmpty()) {
-                        Toast.makeText(this, "No user with that email.", Toast.LENGTH_LONG).show();
-                        return;
-                    }
-                    String inviteeUid = q.getDocuments().get(0).getId();
-                    db.collection("lists").document(listId)
-                            .update("members", com.google.firebase.firestore.FieldValue.arrayUnion(inviteeUid))
-                            .addOnSuccessListener(v ->
-                                    Toast.makeText(this, "Shared!", Toast.LENGTH_SHORT).show()
-                            )
-                            .addOnFailureListener(e ->
-                                    Toast.makeText(this, e.getMessage(), Toast.LENGTH_LONG).show()
-                            );
-                })
-                .addOnFailureListener(e ->
-                        Toast.makeText(this, e.getMessage(), Toast.LENGTH_LONG).show()
-                );
+        lists.create(uid, name.isEmpty() ? "Untitled List" : name, (listId, e) -> {
+            if (e != null) {
+                Toast.makeText(this, e.getMessage(), Toast.LENGTH_LONG).show();
+                return;
+            }
+            Toast.makeText(this, "List created", Toast.LENGTH_SHORT).show();
+            openList(listId);
+        });
     }
 
-    private void togglePin(DocumentSnapshot doc) {
-        boolean pinned = Boolean.TRUE.equals(doc.getBoolean("pinned"));
-        doc.getReference().update("pinned", !pinned);
+    private void togglePin(ListSummary list) {
+        lists.setPinned(list.id, !lists.isPinned(list));
     }
 
-    private void toggleArchiveWithUndo(DocumentSnapshot doc) {
-        boolean archived = Boolean.TRUE.equals(doc.getBoolean("archived"));
-        doc.getReference().update("archived", !archived)
-                .addOnSuccessListener(v -> {
-                    String msg = archived ? "Unarchived" : "Archived";
-                    Snackbar.make(recycler, msg, Snackbar.LENGTH_LONG)
-                            .setAction("UNDO", a ->
-                                    doc.getReference().update("archived", archived))
-                            .show();
-                })
-                .addOnFailureListener(e ->
-                        Toast.makeText(this, e.getMessage(), Toast.LENGTH_LONG).show()
-                );
+    private void toggleArchiveWithUndo(ListSummary list) {
+        boolean archived = list.archived;
+        lists.setArchived(list.id, !archived, (v, e) -> {
+            if (e != null) {
+                Toast.makeText(this, e.getMessage(), Toast.LENGTH_LONG).show();
+                return;
+            }
+            String msg = archived ? "Unarchived" : "Archived";
+            Snackbar.make(recycler, msg, Snackbar.LENGTH_LONG)
+                    .setAction("UNDO", a -> lists.setArchived(list.id, archived, (v2, e2) -> {
+                        if (e2 != null) Toast.makeText(this, e2.getMessage(), Toast.LENGTH_LONG).show();
+                    }))
+                    .show();
+        });
     }
 
-    private void pickColor(DocumentSnapshot doc) {
+    private void pickColor(ListSummary list) {
         // Simple palette
         final String[] names = {"Green","Blue","Purple","Orange","Red","Teal"};
         final String[] hexes = {"#16A34A","#2563EB","#7C3AED","#F97316","#DC2626","#14B8A6"};
         new AlertDialog.Builder(this)
                 .setTitle("Pick a color")
                 .setItems(names, (d, which) ->
-                        doc.getReference().update("color", hexes[which]))
+                        lists.setColor(list.id, hexes[which]))
                 .show();
     }
 
-    private void pickEmoji(DocumentSnapshot doc) {
+    private void pickEmoji(ListSummary list) {
         final String[] emojis = {"✅","📝","🛒","🎒","✈️","🏫","🧹","💼","📦","🎯"};
         new AlertDialog.Builder(this)
                 .setTitle("Pick an emoji")
                 .setItems(emojis, (d, which) ->
-                        doc.getReference().update("emoji", emojis[which]))
+                        lists.setEmoji(list.id, emojis[which]))
                 .show();
     }
 
     // ===== Adapter =====
-    static class ListsAdapter extends RecyclerView.Adapter<ListsAdapter.VH> {
+    static class ListsAdapter extends ListAdapter<ListSummary, ListsAdapter.VH> {
         interface Events {
-            void onOpen(DocumentSnapshot doc);
-            void onShare(DocumentSnapshot doc);
-            void onPinToggle(DocumentSnapshot doc);
-            void onArchiveToggle(DocumentSnapshot doc);
-            void onColor(DocumentSnapshot doc);
-            void onEmoji(DocumentSnapshot doc);
+            void onOpen(ListSummary list);
+            void onShare(ListSummary list);
+            void onPinToggle(ListSummary list);
+            void onArchiveToggle(ListSummary list);
+            void onColor(ListSummary list);
+            void onEmoji(ListSummary list);
+            void onMenuOpened(ListSummary list);
         }
 
-        private final List<DocumentSnapshot> data;
+        static final DiffUtil.ItemCallback<ListSummary> DIFF = new DiffUtil.ItemCallback<ListSummary>() {
+            @Override public boolean areItemsTheSame(@NonNull ListSummary a, @NonNull ListSummary b) {
+                return a.id.equals(b.id);
+            }
+            @Override public boolean areContentsTheSame(@NonNull ListSummary a, @NonNull ListSummary b) {
+                return a.equals(b);
+            }
+        };
+
         private final Events events;
 
-        ListsAdapter(List<DocumentSnapshot> data, Events events) {
-            this.data = data;
+        ListsAdapter(Events events) {
+            super(DIFF);
             this.events = events;
+            setHasStableIds(true);
+        }
+
+        @Override public long getItemId(int position) {
+            return StableIds.of(getItem(position).id);
         }
 
-        static class VH extends RecyclerView.ViewHolder {
-            TextView title, emoji;
-            View colorStripe;
-            ImageButton more;
+        // Listeners are set once per holder; a click looks up the row bound at that moment,
+        // so binding allocates nothing
+        class VH extends RecyclerView.ViewHolder implements View.OnClickListener, PopupMenu.OnMenuItemClickListener {
+            final TextView title, emoji, progressText;
+            final View colorStripe;
+            final ImageButton more;
+            final ProgressBar progress;
+            final char[] progressChars = new char[CountText.MAX_CHARS];
+            PopupMenu menu; // inflated on the first tap, reused after
+
             VH(@NonNull View itemView) {
                 super(itemView);
                 title = itemView.findViewById(R.id.listTitle);
+                progressText = itemView.findViewById(R.id.listProgressText);
+                progress = itemView.findViewById(R.id.listProgress);
                 emoji = itemView.findViewById(R.id.emoji);
                 colorStripe = itemView.findViewById(R.id.colorStripe);
                 more  = itemView.findViewById(R.id.moreBtn);
+                // Whole row opens when not archived; archived still opens
+                itemView.setOnClickListener(this);
+                more.setOnClickListener(this);
+            }
+
+            ListSummary bound() {
+                int pos = getAdapterPosition();
+                return pos == RecyclerView.NO_POSITION ? null : getItem(pos);
+            }
+
+            @Override public void onClick(View v) {
+                ListSummary doc = bound();
+                if (doc == null) return;
+                if (v == more) showMenu(doc);
+                else events.onOpen(doc);
+            }
+
+            private void showMenu(ListSummary doc) {
+                if (menu == null) {
+                    menu = new PopupMenu(more.getContext(), more);
+                    menu.getMenuInflater().inflate(R.menu.menu_row_list, menu.getMenu());
+                    menu.setOnMenuItemClickListener(this);
+                }
+                // Toggle titles dynamically
+                menu.getMenu().findItem(R.id.action_pin).setTitle(doc.pinned ? "Unpin" : "Pin");
+                menu.getMenu().findItem(R.id.action_archive).setTitle(doc.archived ? "Unarchive" : "Archive");
+                events.onMenuOpened(doc);
+                menu.show();
+            }
+
+            @Override public boolean onMenuItemClick(MenuItem mi) {
+                ListSummary doc = bound();
+                if (doc == null) return true;
+                int id = mi.getItemId();
+                if (id == R.id.action_open)   events.onOpen(doc);
+                if (id == R.id.action_share)  events.onShare(doc);
+                if (id == R.id.action_pin)    events.onPinToggle(doc);
+                if (id == R.id.action_archive)events.onArchiveToggle(doc);
+                if (id == R.id.action_color)  events.onColor(doc);
+                if (id == R.id.action_emoji)  events.onEmoji(doc);
+                return true;
             }
         }
 
@@ -368,41 +643,24 @@ public class HomeActivity extends AppCompatActivity {
 
         @Override
         public void onBindViewHolder(@NonNull VH h, int pos) {
-            DocumentSnapshot doc = data.get(pos);
-            String name = doc.getString("name");
-            String emoji = doc.getString("emoji");
-            String color = doc.getString("color");
-            boolean archived = Boolean.TRUE.equals(doc.getBoolean("archived"));
-            boolean pinned = Boolean.TRUE.equals(doc.getBoolean("pinned"));
-
-            h.title.setText(name != null ? name : "(Untitled)");
-            h.emoji.setText(!TextUtils.isEmpty(emoji) ? emoji : "✅");
-            try { h.colorStripe.setBackgroundColor(Color.parseColor(color != null ? color : "#16A34A")); }
-            catch (Exception ignored) { h.colorStripe.setBackgroundColor(Color.parseColor("#16A34A")); }
-
-            // Whole row opens when not archived; archived still opens
-            h.itemView.setOnClickListener(v -> events.onOpen(doc));
-
-            h.more.setOnClickListener(v -> {
-                PopupMenu pm = new PopupMenu(h.more.getContext(), h.more);
-                pm.getMenuInflater().inflate(R.menu.menu_row_list, pm.getMenu());
-                // Toggle titles dynamically
-                pm.getMenu().findItem(R.id.action_pin).setTitle(pinned ? "Unpin" : "Pin");
-                pm.getMenu().findItem(R.id.action_archive).setTitle(archived ? "Unarchive" : "Archive");
-                pm.setOnMenuItemClickListener(mi -> {
-                    int id = mi.getItemId();
-                    if (id == R.id.action_open)   events.onOpen(doc);
-                    if (id == R.id.action_share)  events.onShare(doc);
-                    if (id == R.id.action_pin)    events.onPinToggle(doc);
-                    if (id == R.id.action_archive)events.onArchiveToggle(doc);
-                    if (id == R.id.action_color)  events.onColor(doc);
-                    if (id == R.id.action_emoji)  events.onEmoji(doc);
-                    return true;
-                });
-                pm.show();
-            });
+            long t0 = Metrics.begin(Metrics.BIND_LIST);
+            ListSummary doc = getItem(pos);
+
+            h.title.setText(doc.name);
+            h.emoji.setText(doc.emoji);
+            h.colorStripe.setBackgroundColor(doc.color); // the stripe's ColorDrawable is recoloured in place
+
+            // Counters live on the list doc, so progress needs no items query
+            int vis = doc.hasCounts() && doc.itemCount > 0 ? View.VISIBLE : View.GONE;
+            h.progress.setVisibility(vis);
+            h.progressText.setVisibility(vis);
+            if (vis == View.VISIBLE) {
+                h.progress.setMax(doc.itemCount);
+                h.progress.setProgress(doc.checkedCount);
+                h.progressText.setText(h.progressChars, 0,
+                        CountText.ratio(doc.checkedCount, doc.itemCount, h.progressChars));
+            }
+            Metrics.end(Metrics.BIND_LIST, t0);
         }
-
-        @Override public int getItemCount() { return data.size(); }
     }
 }
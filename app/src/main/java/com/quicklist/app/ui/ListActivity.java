@@ -1,8 +1,14 @@
 package com.quicklist.app.ui;
 
 import android.app.AlertDialog;
+import android.content.ContentResolver;
+import android.graphics.Color;
+import android.net.Uri;
 import android.os.Bundle;
+import android.os.SystemClock;
+import android.text.InputType;
 import android.text.TextUtils;
+import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.Menu;
 import android.view.MenuItem;
@@ -10,44 +16,108 @@ import android.view.View;
 import android.view.ViewGroup;
 import android.widget.Button;
 import android.widget.CheckBox;
+import android.widget.CompoundButton;
 import android.widget.EditText;
 import android.widget.TextView;
 import android.widget.Toast;
 
+import androidx.activity.result.ActivityResultLauncher;
+import androidx.activity.result.contract.ActivityResultContracts;
 import androidx.annotation.NonNull;
 import androidx.appcompat.app.ActionBar;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.appcompat.view.ActionMode;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.ItemTouchHelper;
 import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.google.android.material.appbar.MaterialToolbar;
 import com.google.android.material.snackbar.Snackbar;
-import com.google.firebase.auth.FirebaseAuth;
-import com.google.firebase.firestore.DocumentSnapshot;
-import com.google.firebase.firestore.FieldValue;
-import com.google.firebase.firestore.FirebaseFirestore;
-import com.google.firebase.firestore.Query;
 import com.quicklist.app.R;
-import com.quicklist.app.models.Item;
-
+import com.quicklist.app.core.CheckedTally;
+import com.quicklist.app.core.CountText;
+import com.quicklist.app.core.ItemOrder;
+import com.quicklist.app.core.ItemSort;
+import com.quicklist.app.core.PendingOverlay;
+import com.quicklist.app.core.StableIds;
+import com.quicklist.app.data.ItemTransfer;
+import com.quicklist.app.data.QuickListRepository;
+import com.quicklist.app.models.ItemSummary;
+import com.quicklist.app.perf.FirstRowTimer;
+import com.quicklist.app.perf.Metrics;
+import com.quicklist.app.perf.MetricsOverlay;
+import com.quicklist.app.search.SearchIndex;
+import com.quicklist.app.store.BulkListener;
+import com.quicklist.app.store.Change;
+import com.quicklist.app.store.ItemFeed;
+import com.quicklist.app.store.ItemStore;
+import com.quicklist.app.store.SnapshotDispatcher;
+import com.quicklist.app.store.StoreFactory;
+import com.quicklist.app.store.StoreObserver;
+import com.quicklist.app.store.StoreSnapshot;
+import com.quicklist.app.store.Subscription;
+import com.quicklist.app.transfer.Format;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileNotFoundException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
 
 public class ListActivity extends AppCompatActivity {
+    private static final String TAG = "ListActivity";
+
     private String listId;
-    private FirebaseAuth auth;
-    private FirebaseFirestore db;
+    private StoreFactory stores;
+    private ItemStore items;
     private RecyclerView recycler;
     private ItemsAdapter adapter;
-    private final List<DocumentSnapshot> docs = new ArrayList<>();
+    // Latest snapshot in server order (createdAt ASC); display order lives in the adapter
+    private List<ItemSummary> docs = new ArrayList<>();
+    private boolean docsFromCache = true;
+    private boolean docsPending = false;
+    // This device's edits, shown on top of docs until a snapshot confirms them
+    private final PendingOverlay overlay = new PendingOverlay();
+    private boolean listShown = false;
+    private ItemFeed feed;
+    // At most one snapshot per frame reaches onItemsLoaded, however fast pages deliver
+    private SnapshotDispatcher<ItemSummary> itemFrames;
+    private final FirstRowTimer firstRow = new FirstRowTimer("List");
+    private long snapshotAt = 0; // arrival of the oldest snapshot not yet on screen
     private EditText newItemInput, qtyInput;
 
+    private String scrollToItemId; // set when opened from a search hit
+    private ActionMode selectionMode;
+    private ConfettiView confetti; // added on first use, reused for later bursts
+    private boolean holdRefresh = false; // a bulk op is committing; refresh once at the end
     private boolean lastAllDone = false;
-    private boolean sortItemsAZ = false; // false = by createdAt (recent)
+    // Checked/total over loaded items, kept current from document changes so counts never need a rescan
+    private final CheckedTally tally = new CheckedTally();
+    private boolean countsVerified = false;
+    // Display order; keeps collation keys per row and re-inserts only rows that changed
+    private final ItemOrder order = new ItemOrder(Locale.getDefault());
+
+    private Subscription transfer; // import or export in progress
+    private final ActivityResultLauncher<String[]> pickImport =
+            registerForActivityResult(new ActivityResultContracts.OpenDocument(), this::importFile);
+    private final ActivityResultLauncher<String> createCsv =
+            registerForActivityResult(new ActivityResultContracts.CreateDocument(Format.CSV.mimeType),
+                    uri -> exportFile(uri, Format.CSV));
+    private final ActivityResultLauncher<String> createJson =
+            registerForActivityResult(new ActivityResultContracts.CreateDocument(Format.JSON.mimeType),
+                    uri -> exportFile(uri, Format.JSON));
 
     @Override protected void onCreate(Bundle b) {
         super.onCreate(b);
@@ -63,21 +133,31 @@ public class ListActivity extends AppCompatActivity {
         }
 
         listId = getIntent().getStringExtra("LIST_ID");
-        auth = FirebaseAuth.getInstance();
-        db = FirebaseFirestore.getInstance();
+        scrollToItemId = getIntent().getStringExtra("ITEM_ID");
+        stores = QuickListRepository.get();
+        items = stores.items(e -> toast(e.getMessage()));
 
         recycler = findViewById(R.id.itemsRecycler);
         recycler.setLayoutManager(new LinearLayoutManager(this));
-        adapter = new ItemsAdapter(docs, new ItemsAdapter.Events() {
-            @Override public void onToggle(DocumentSnapshot doc, boolean checked) {
-                doc.getReference().update("checked", checked);
+        RowPools.size(recycler);
+        adapter = new ItemsAdapter(new ItemsAdapter.Events() {
+            @Override public void onToggle(ItemSummary item, boolean checked) {
+                setChecked(item, checked);
+            }
+            @Override public void onDelete(ItemSummary item) {
+                deleteItemWithUndo(item);
+            }
+            @Override public int onQtyStep(ItemSummary item, int delta) {
+                return stepQuantity(item, delta);
             }
-            @Override public void onDelete(DocumentSnapshot doc) {
-                deleteItemWithUndo(doc);
+            @Override public void onLongPress(ItemSummary item) {
+                startSelection();
+                adapter.toggleSelected(item.id);
+                updateSelectionTitle();
             }
-            @Override public void onQtyChange(DocumentSnapshot doc, int newQty) {
-                int q = Math.max(1, newQty);
-                doc.getReference().update("quantity", q);
+            @Override public void onSelectToggle(ItemSummary item) {
+                adapter.toggleSelected(item.id);
+                updateSelectionTitle();
             }
         });
         recycler.setAdapter(adapter);
@@ -90,21 +170,82 @@ public class ListActivity extends AppCompatActivity {
         addBtn.setOnClickListener(v -> addItem());
 
         Button shareBtn = findViewById(R.id.shareBtn);
-        shareBtn.setOnClickListener(v -> showShareDialog());
+        shareBtn.setOnClickListener(v -> ShareDialog.show(this, listId));
 
-        db.collection("lists").document(listId)
-                .collection("items").orderBy("createdAt", Query.Direction.ASCENDING)
-                .addSnapshotListener((snap, e) -> {
-                    if (e != null || snap == null) return;
-                    docs.clear();
-                    docs.addAll(snap.getDocuments());
-                    applyItemSort();
-                    adapter.notifyDataSetChanged();
-                    checkForConfetti();
-                });
+        firstRow.onOpenTapped(getIntent().getLongExtra("OPENED_AT", -1));
+        recycler.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override public void onScrolled(@NonNull RecyclerView rv, int dx, int dy) { onViewportChanged(); }
+        });
+    }
+
+    @Override
+    protected void onStart() {
+        super.onStart();
+        // Subscribed while visible. With Firestore this pages in as the list scrolls and only
+        // pages near the viewport stay live; listeners are shared through the repository hub
+        // and outlive onStop by its grace period, so a quick return reuses them
+        itemFrames = new SnapshotDispatcher<>(new StoreObserver<ItemSummary>() {
+            @Override public void onSnapshot(StoreSnapshot<ItemSummary> snapshot) { onItemsLoaded(snapshot); }
+            @Override public void onError(Exception e) { Log.w(TAG, "items listener", e); }
+            @Override public void onCacheRead(boolean hit) { firstRow.onCacheRead(hit); }
+        }, ChoreographerFrames.INSTANCE);
+        feed = items.observe(listId, itemFrames);
+        firstRow.onWarm(feed.startedWarm());
     }
 
-    // ===== Toolbar menu (A–Z / Recent) =====
+    @Override
+    protected void onDestroy() {
+        if (transfer != null) transfer.close();
+        super.onDestroy();
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        MetricsOverlay.sync(this);
+    }
+
+    @Override
+    protected void onStop() {
+        items.flush();
+        feed.close();
+        itemFrames.close();
+        Log.i(TAG, items.toString());
+        Log.i(TAG, itemFrames.toString());
+        super.onStop();
+    }
+
+    private void onItemsLoaded(StoreSnapshot<ItemSummary> snap) {
+        long t0 = SystemClock.elapsedRealtimeNanos();
+        docs = snap.items;
+        docsFromCache = snap.fromCache;
+        docsPending = snap.hasPendingWrites;
+        indexItemChanges(snap.changes);
+        countItemChanges(snap.changes);
+        boolean overlayMoved = overlay.reconcile(docs, docsPending);
+        // Only fromCache/hasPendingWrites moved (e.g. our write was acked): every bound row is already right
+        if (snap.isMetadataOnly() && !overlayMoved && listShown) return;
+        if (snapshotAt == 0) snapshotAt = t0;
+        if (holdRefresh) return;
+        submitItems();
+        checkForConfetti();
+        // Main-thread cost per snapshot; the diff itself runs on AsyncListDiffer's executor
+        Metrics.record(Metrics.ITEMS_SNAPSHOT, SystemClock.elapsedRealtimeNanos() - t0);
+    }
+
+    // Re-aims the feed's live window and pages in more rows near the end
+    private void onViewportChanged() {
+        LinearLayoutManager lm = (LinearLayoutManager) recycler.getLayoutManager();
+        List<ItemSummary> shown = adapter.getCurrentList();
+        if (lm == null || shown.isEmpty()) return;
+        int first = lm.findFirstVisibleItemPosition(), last = lm.findLastVisibleItemPosition();
+        if (first < 0 || last < 0) return;
+        last = Math.min(last, shown.size() - 1);
+        feed.onViewport(shown.get(first).id, shown.get(last).id);
+        if (last >= shown.size() - ItemFeed.PREFETCH_DISTANCE) feed.loadMore();
+    }
+
+    // ===== Toolbar menu (sort modes, bulk actions) =====
     @Override
     public boolean onCreateOptionsMenu(Menu menu) {
         getMenuInflater().inflate(R.menu.menu_list, menu);
@@ -118,31 +259,145 @@ public class ListActivity extends AppCompatActivity {
             getOnBackPressedDispatcher().onBackPressed();
             return true;
         } else if (id == R.id.sort_items_recent) {
-            sortItemsAZ = false;
-            applyItemSort();
-            adapter.notifyDataSetChanged();
-            return true;
+            sortItems(ItemSort.Mode.RECENT); return true;
         } else if (id == R.id.sort_items_az) {
-            sortItemsAZ = true;
-            applyItemSort();
-            adapter.notifyDataSetChanged();
+            sortItems(ItemSort.Mode.AZ); return true;
+        } else if (id == R.id.sort_items_unchecked) {
+            sortItems(ItemSort.Mode.UNCHECKED_FIRST); return true;
+        } else if (id == R.id.sort_items_quantity) {
+            sortItems(ItemSort.Mode.QUANTITY); return true;
+        } else if (id == R.id.sort_items_creator) {
+            sortItems(ItemSort.Mode.CREATOR); return true;
+        } else if (id == R.id.sort_items_aisle) {
+            sortItems(ItemSort.Mode.AISLE); return true;
+        } else if (id == R.id.action_check_all) {
+            bulkSetChecked(overlay.apply(docs), true);
             return true;
+        } else if (id == R.id.action_uncheck_all) {
+            bulkSetChecked(overlay.apply(docs), false);
+            return true;
+        } else if (id == R.id.action_clear_checked) {
+            List<ItemSummary> done = new ArrayList<>();
+            for (ItemSummary i : overlay.apply(docs)) if (i.checked) done.add(i);
+            bulkDelete(done);
+            return true;
+        } else if (id == R.id.action_select) {
+            startSelection();
+            return true;
+        } else if (id == R.id.action_paste_items) {
+            showPasteDialog(); return true;
+        } else if (id == R.id.action_import_items) {
+            pickImport.launch(new String[]{"text/*", "application/json"}); return true;
+        } else if (id == R.id.action_export_csv) {
+            createCsv.launch("items" + Format.CSV.extension); return true;
+        } else if (id == R.id.action_export_json) {
+            createJson.launch("items" + Format.JSON.extension); return true;
         }
         return super.onOptionsItemSelected(item);
     }
 
-    private void applyItemSort() {
-        if (!sortItemsAZ) return; // Firestore already gives createdAt ASC
-        // Local sort by text A–Z (null-safe)
-        Collections.sort(docs, new Comparator<DocumentSnapshot>() {
-            @Override public int compare(DocumentSnapshot a, DocumentSnapshot b) {
-                String at = a.getString("text"); if (at == null) at = "";
-                String bt = b.getString("text"); if (bt == null) bt = "";
-                return at.compareToIgnoreCase(bt);
+    // Hands a fresh display list to the adapter; DiffUtil rebinds only the rows that changed
+    private void submitItems() {
+        long t0 = Metrics.begin(Metrics.SORT);
+        List<ItemSummary> display = order.update(overlay.apply(docs));
+        Metrics.end(Metrics.SORT, t0);
+        listShown = true;
+        final boolean fromCache = docsFromCache;
+        final long arrivedAt = snapshotAt;
+        adapter.submitList(display, () -> {
+            if (arrivedAt != 0 && arrivedAt == snapshotAt) {
+                Metrics.record(Metrics.SNAPSHOT_TO_RENDER, SystemClock.elapsedRealtimeNanos() - arrivedAt);
+                snapshotAt = 0;
+            }
+            scrollToSearchHit();
+            firstRow.onRowsShown(adapter.getItemCount(), fromCache);
+            recycler.post(this::onViewportChanged);
+        });
+    }
+
+    private void scrollToSearchHit() {
+        if (scrollToItemId == null) return;
+        List<ItemSummary> shown = adapter.getCurrentList();
+        for (int i = 0; i < shown.size(); i++) {
+            if (shown.get(i).id.equals(scrollToItemId)) {
+                recycler.scrollToPosition(i);
+                scrollToItemId = null;
+                return;
             }
+        }
+        feed.loadMore(); // hit lives on a page we haven't loaded yet
+    }
+
+    // Keeps Home's search index current for this list while it is open
+    private void indexItemChanges(List<Change<ItemSummary>> changes) {
+        SearchIndex index = SearchIndex.get();
+        for (Change<ItemSummary> c : changes) {
+            if (c.type == Change.Type.REMOVED) index.removeItem(listId, c.id);
+            else index.putItem(listId, c.id, c.value.text);
+        }
+        if (feed.isFullyLoaded()) index.markItemsIndexed(listId);
+    }
+
+    private void countItemChanges(List<Change<ItemSummary>> changes) {
+        for (Change<ItemSummary> c : changes) {
+            if (c.type == Change.Type.REMOVED) tally.remove(c.id);
+            else tally.put(c.id, c.value.checked);
+        }
+        // A page that was detached can miss a REMOVED; fall back to one rescan if the tallies drift
+        if (tally.size() != docs.size()) tally.recount(docs);
+        if (feed.isFullyLoaded() && !docsFromCache) verifyListCounts();
+    }
+
+    // Once per open, with every row loaded from the server: backfill lists created before the
+    // counters existed and repair any drift
+    private void verifyListCounts() {
+        if (countsVerified) return;
+        countsVerified = true;
+        items.verifyCounts(listId, tally.size(), tally.checked(), (done, e) -> {
+            if (Boolean.FALSE.equals(done)) countsVerified = false; // retry on a later snapshot
         });
     }
 
+    private void sortItems(ItemSort.Mode mode) {
+        long t0 = Metrics.begin(Metrics.SORT);
+        order.setMode(mode);
+        Metrics.end(Metrics.SORT, t0);
+        submitItems();
+    }
+
+    // ===== Single-row writes =====
+    // Each shows at once through the overlay; the store keeps the list's counters in step
+
+    private void setChecked(ItemSummary item, boolean checked) {
+        long write = overlay.setChecked(item.id, checked);
+        items.setChecked(listId, item, checked, (v, e) -> onWriteDone(write, e, item.text));
+        submitItems();
+    }
+
+    // Returns the quantity to show right away; item may be stale if taps outrun the rebind
+    private int stepQuantity(ItemSummary item, int delta) {
+        ItemSummary shown = overlay.shown(item);
+        if (shown == null) return item.quantity;
+        int qty = shown.quantity + delta;
+        if (qty < 1) return shown.quantity;
+        long write = overlay.setQuantity(item.id, qty);
+        items.stepQuantity(listId, item, delta, (v, e) -> onWriteDone(write, e, item.text));
+        submitItems();
+        return qty;
+    }
+
+    // An ack lets the snapshot take over the row; a failure rolls it back to what the store has
+    private void onWriteDone(long write, Exception e, String text) {
+        if (e == null) {
+            overlay.acked(write);
+            if (overlay.reconcile(docs, docsPending)) submitItems();
+            return;
+        }
+        if (overlay.failed(write) == null) return; // another write to the row already failed
+        submitItems();
+        toast("Couldn't save \"" + text + "\": " + e.getMessage());
+    }
+
     private void addItem() {
         String text = newItemInput.getText().toString().trim();
         if (text.isEmpty()) return;
@@ -153,53 +408,176 @@ public class ListActivity extends AppCompatActivity {
                 qty = Math.max(1, Integer.parseInt(qtyInput.getText().toString().trim()));
         } catch (NumberFormatException ignore) { qty = 1; }
 
-        String uid = auth.getCurrentUser().getUid();
-        Item item = new Item(text, uid, qty);
-        db.collection("lists").document(listId).collection("items").add(item);
+        ItemSummary row = new ItemSummary(items.newItemId(listId), text, stores.uid(),
+                System.currentTimeMillis(), false, qty);
+        long write = overlay.add(row);
+        items.add(listId, row, (v, e) -> onWriteDone(write, e, row.text));
+        submitItems();
         newItemInput.setText("");
         if (qtyInput != null) qtyInput.setText("");
     }
 
-    private void showShareDialog() {
-        EditText emailInput = new EditText(this);
-        emailInput.setHint("Friend's email");
+    private void deleteItemWithUndo(ItemSummary item) {
+        // Restore it as the user last saw it, including a toggle that hadn't been sent yet
+        final ItemSummary old = item.withChecked(items.isChecked(listId, item));
+        long write = overlay.delete(item.id);
+        items.delete(listId, item, (v, e) -> onWriteDone(write, e, item.text));
+        submitItems();
+        Snackbar.make(recycler, "Item deleted", Snackbar.LENGTH_LONG)
+                .setAction("UNDO", a -> {
+                    long undo = overlay.add(old);
+                    items.restore(listId, old, (v, e) -> onWriteDone(undo, e, old.text));
+                    submitItems();
+                })
+                .show();
+    }
+
+    // ===== Bulk actions =====
+    /** One bulk edit, or its undo, started against the store with a progress listener. */
+    private interface BulkOp {
+        void run(List<ItemSummary> targets, BulkListener listener);
+    }
+
+    private void bulkSetChecked(List<ItemSummary> picked, boolean checked) {
+        List<ItemSummary> targets = new ArrayList<>();
+        for (ItemSummary i : picked) if (items.isChecked(listId, i) != checked) targets.add(i);
+        runBulk(targets, (t, l) -> items.setCheckedAll(listId, t, checked, l),
+                (t, l) -> items.setCheckedAll(listId, t, !checked, l),
+                (checked ? "Checked " : "Unchecked ") + targets.size() + " items");
+    }
+
+    private void bulkDelete(List<ItemSummary> picked) {
+        List<ItemSummary> targets = new ArrayList<>();
+        for (ItemSummary i : picked) targets.add(i.withChecked(items.isChecked(listId, i)));
+        runBulk(targets, (t, l) -> items.deleteAll(listId, t, l),
+                (t, l) -> items.restoreAll(listId, t, l),
+                "Deleted " + targets.size() + " items");
+    }
+
+    // Commits in chunks with progress; the list refreshes once when the last chunk lands.
+    // undo == null means this run is itself an undo.
+    private void runBulk(List<ItemSummary> targets, BulkOp op, BulkOp undo, String doneMsg) {
+        if (targets.isEmpty()) return;
+        holdRefresh = true;
+        final Snackbar progress = Snackbar.make(recycler, "Updating 0/" + targets.size() + "…", Snackbar.LENGTH_INDEFINITE);
+        progress.show();
+        op.run(targets, new BulkListener() {
+            @Override public void onProgress(int done, int total) {
+                progress.setText("Updating " + done + "/" + total + "…");
+            }
+            @Override public void onComplete(int done, Exception error) {
+                holdRefresh = false;
+                submitItems();
+                checkForConfetti();
+                progress.dismiss();
+                if (error != null) toast(error.getMessage());
+                if (done == 0 || undo == null) return;
+                // Undo covers every op; re-applying it to items the failed chunks never touched is a no-op
+                Snackbar.make(recycler, error == null ? doneMsg : "Partly done (" + done + "/" + targets.size() + ")",
+                                Snackbar.LENGTH_LONG)
+                        .setAction("UNDO", a -> runBulk(targets, undo, null, null))
+                        .show();
+            }
+        });
+    }
+
+    // ===== Import / export =====
+    // Streamed a chunk at a time through ItemTransfer; one runs at a time, with progress and Cancel
+
+    private void showPasteDialog() {
+        EditText input = new EditText(this);
+        input.setHint("One item per line, e.g. 2 x Milk");
+        input.setInputType(InputType.TYPE_CLASS_TEXT | InputType.TYPE_TEXT_FLAG_MULTI_LINE);
+        input.setMinLines(4);
         new AlertDialog.Builder(this)
-                .setTitle("Share by email")
-                .setView(emailInput)
-                .setPositiveButton("Invite", (d, w) -> inviteByEmail(emailInput.getText().toString().trim()))
+                .setTitle("Paste items")
+                .setView(input)
+                .setPositiveButton("Add", (d, w) -> {
+                    String text = input.getText().toString();
+                    startTransfer("Importing", "Imported", l -> ItemTransfer.importItems(items, listId, stores.uid(),
+                            Format.TEXT, () -> new StringReader(text), l));
+                })
                 .setNegativeButton("Cancel", null)
                 .show();
     }
 
-    private void inviteByEmail(String email) {
-        if (TextUtils.isEmpty(email)) return;
-        db.collection("users").whereEqualTo("email", email).limit(1).get()
-                .addOnSuccessListener(q -> {
-                    if (q.isEmpty()) { toast("No user with that email."); return; }
-                    String inviteeUid = q.getDocuments().get(0).getId();
-                    db.collection("lists").document(listId)
-                            .update("members", FieldValue.arrayUnion(inviteeUid))
-                            .addOnSuccessListener(v -> toast("Shared!"))
-                            .addOnFailureListener(e -> toast(e.getMessage()));
-                })
-                .addOnFailureListener(e -> toast(e.getMessage()));
-    }
-
-    private void deleteItemWithUndo(DocumentSnapshot doc) {
-        final Map<String,Object> oldData = doc.getData();
-        final String docId = doc.getId();
-        if (oldData == null) { doc.getReference().delete(); return; }
-
-        doc.getReference().delete()
-                .addOnSuccessListener(v -> {
-                    Snackbar.make(recycler, "Item deleted", Snackbar.LENGTH_LONG)
-                            .setAction("UNDO", a ->
-                                    db.collection("lists").document(listId)
-                                            .collection("items").document(docId)
-                                            .set(oldData)
-                            ).show();
-                })
-                .addOnFailureListener(e -> toast(e.getMessage()));
+    private void importFile(Uri uri) {
+        if (uri == null) return;
+        ContentResolver resolver = getContentResolver();
+        Format format = Format.of(resolver.getType(uri), uri.getLastPathSegment());
+        startTransfer("Importing", "Imported", l -> ItemTransfer.importItems(items, listId, stores.uid(), format, () -> {
+            InputStream in = resolver.openInputStream(uri);
+            if (in == null) throw new FileNotFoundException(uri.toString());
+            return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        }, l));
+    }
+
+    private void exportFile(Uri uri, Format format) {
+        if (uri == null) return;
+        ContentResolver resolver = getContentResolver();
+        startTransfer("Exporting", "Exported", l -> ItemTransfer.exportItems(items, listId, format, () -> {
+            OutputStream out = resolver.openOutputStream(uri, "wt");
+            if (out == null) throw new FileNotFoundException(uri.toString());
+            return new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        }, l));
+    }
+
+    private interface TransferStart {
+        Subscription start(ItemTransfer.Listener listener);
+    }
+
+    private void startTransfer(String verb, String doneVerb, TransferStart start) {
+        if (transfer != null) { toast("An import or export is already running"); return; }
+        final Snackbar progress = Snackbar.make(recycler, verb + "…", Snackbar.LENGTH_INDEFINITE);
+        progress.setAction("Cancel", a -> { if (transfer != null) transfer.close(); });
+        progress.show();
+        transfer = start.start(new ItemTransfer.Listener() {
+            @Override public void onProgress(int n) {
+                progress.setText(verb + " " + n + " items…");
+            }
+            @Override public void onWaiting(int n) {
+                progress.setText(n + " items saved on this device. Waiting for a connection to continue…");
+            }
+            @Override public void onComplete(int n, Exception error) {
+                transfer = null;
+                progress.dismiss();
+                if (error == null) toast(doneVerb + " " + n + " items");
+                else if (error instanceof CancellationException) toast("Stopped after " + n + " items");
+                else Toast.makeText(ListActivity.this, "Stopped after " + n + " items: " + error.getMessage(),
+                            Toast.LENGTH_LONG).show();
+            }
+        });
+    }
+
+    // ===== Multi-select =====
+    private void startSelection() {
+        if (selectionMode != null) return;
+        adapter.setSelecting(true);
+        selectionMode = startSupportActionMode(new ActionMode.Callback() {
+            @Override public boolean onCreateActionMode(ActionMode mode, Menu menu) {
+                mode.getMenuInflater().inflate(R.menu.menu_item_selection, menu);
+                return true;
+            }
+            @Override public boolean onPrepareActionMode(ActionMode mode, Menu menu) { return false; }
+            @Override public boolean onActionItemClicked(ActionMode mode, MenuItem mi) {
+                List<ItemSummary> picked = adapter.getSelectedItems();
+                int id = mi.getItemId();
+                if (id == R.id.action_delete_selected) bulkDelete(picked);
+                else if (id == R.id.action_check_selected) bulkSetChecked(picked, true);
+                else return false;
+                mode.finish();
+                return true;
+            }
+            @Override public void onDestroyActionMode(ActionMode mode) {
+                adapter.setSelecting(false);
+                selectionMode = null;
+            }
+        });
+        updateSelectionTitle();
+    }
+
+    private void updateSelectionTitle() {
+        if (selectionMode != null) selectionMode.setTitle(adapter.getSelectedCount() + " selected");
     }
 
     private void attachSwipeGestures() {
@@ -209,14 +587,13 @@ public class ListActivity extends AppCompatActivity {
                     @Override public boolean onMove(@NonNull RecyclerView rv, @NonNull RecyclerView.ViewHolder vh, @NonNull RecyclerView.ViewHolder t) { return false; }
                     @Override public void onSwiped(@NonNull RecyclerView.ViewHolder vh, int dir) {
                         int pos = vh.getAdapterPosition();
-                        if (pos < 0 || pos >= docs.size()) return;
-                        DocumentSnapshot doc = docs.get(pos);
+                        List<ItemSummary> shown = adapter.getCurrentList();
+                        if (pos < 0 || pos >= shown.size()) return;
+                        ItemSummary item = shown.get(pos);
                         if (dir == ItemTouchHelper.LEFT) {
-                            Boolean checkedVal = doc.getBoolean("checked");
-                            boolean checked = checkedVal != null && checkedVal;
-                            doc.getReference().update("checked", !checked);
+                            setChecked(item, !items.isChecked(listId, item));
                         } else if (dir == ItemTouchHelper.RIGHT) {
-                            deleteItemWithUndo(doc);
+                            deleteItemWithUndo(item);
                         }
                         adapter.notifyItemChanged(pos);
                     }
@@ -225,12 +602,8 @@ public class ListActivity extends AppCompatActivity {
     }
 
     private void checkForConfetti() {
-        int total = docs.size();
-        int checked = 0;
-        for (DocumentSnapshot d : docs) {
-            if (Boolean.TRUE.equals(d.getBoolean("checked"))) checked++;
-        }
-        boolean allDone = total > 0 && checked == total;
+        if (!feed.isFullyLoaded()) return; // unloaded pages may still hold open items
+        boolean allDone = tally.allDone();
         if (allDone && !lastAllDone) {
             showConfetti();
         }
@@ -238,43 +611,79 @@ public class ListActivity extends AppCompatActivity {
     }
 
     private void showConfetti() {
-        final View root = findViewById(android.R.id.content);
-        final int count = 24;
-        for (int i = 0; i < count; i++) {
-            final TextView t = new TextView(this);
-            t.setText("🎉");
-            t.setTextSize(22);
-            t.setAlpha(0f);
-            ((ViewGroup) root).addView(t);
-            int startX = (root.getWidth() > 0 ? root.getWidth() : 800) * i / count;
-            t.setX(startX);
-            t.setY(-50);
-            t.animate()
-                    .alpha(1f)
-                    .translationYBy((root.getHeight() > 0 ? root.getHeight() : 1200) + 100)
-                    .rotationBy(360f)
-                    .setDuration(1600)
-                    .withEndAction(() -> ((ViewGroup) root).removeView(t))
-                    .start();
+        if (confetti == null) {
+            confetti = new ConfettiView(this);
+            ((ViewGroup) findViewById(android.R.id.content)).addView(confetti,
+                    new ViewGroup.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT));
         }
+        confetti.burst();
         Snackbar.make(recycler, "All done—nice!", Snackbar.LENGTH_SHORT).show();
     }
 
     private void toast(String s){ Toast.makeText(this, s, Toast.LENGTH_SHORT).show(); }
 
     // ----- Adapter with quantity controls -----
-    static class ItemsAdapter extends RecyclerView.Adapter<ItemsAdapter.VH> {
+    static class ItemsAdapter extends ListAdapter<ItemSummary, ItemsAdapter.VH> {
         interface Events {
-            void onToggle(DocumentSnapshot doc, boolean checked);
-            void onDelete(DocumentSnapshot doc);
-            void onQtyChange(DocumentSnapshot doc, int newQty);
+            void onToggle(ItemSummary item, boolean checked);
+            void onDelete(ItemSummary item);
+            /** Applies a +/- step and returns the quantity to show until the snapshot catches up. */
+            int onQtyStep(ItemSummary item, int delta);
+            void onLongPress(ItemSummary item);
+            void onSelectToggle(ItemSummary item);
         }
-        private final List<DocumentSnapshot> data; private final Events events;
-        ItemsAdapter(List<DocumentSnapshot> data, Events events){ this.data=data; this.events=events; }
 
-        static class VH extends RecyclerView.ViewHolder {
-            CheckBox box; TextView text; Button del;
-            TextView qtyText; View btnMinus; View btnPlus;
+        private static final int SELECTED_BG = 0x3316A34A;
+
+        // Same doc id = same row; equal projection = nothing to rebind
+        static final DiffUtil.ItemCallback<ItemSummary> DIFF = new DiffUtil.ItemCallback<ItemSummary>() {
+            @Override public boolean areItemsTheSame(@NonNull ItemSummary a, @NonNull ItemSummary b) {
+                return a.id.equals(b.id);
+            }
+            @Override public boolean areContentsTheSame(@NonNull ItemSummary a, @NonNull ItemSummary b) {
+                return a.equals(b);
+            }
+        };
+
+        private final Events events;
+        private final Set<String> selected = new HashSet<>();
+        private boolean selecting = false;
+        ItemsAdapter(Events events){ super(DIFF); this.events=events; setHasStableIds(true); }
+
+        @Override public long getItemId(int position) {
+            return StableIds.of(getItem(position).id);
+        }
+
+        void setSelecting(boolean on) {
+            selecting = on;
+            selected.clear();
+            notifyItemRangeChanged(0, getItemCount());
+        }
+
+        void toggleSelected(String id) {
+            if (!selected.remove(id)) selected.add(id);
+            List<ItemSummary> shown = getCurrentList();
+            for (int i = 0; i < shown.size(); i++) {
+                if (shown.get(i).id.equals(id)) { notifyItemChanged(i); return; }
+            }
+        }
+
+        int getSelectedCount() { return selected.size(); }
+
+        List<ItemSummary> getSelectedItems() {
+            List<ItemSummary> out = new ArrayList<>();
+            for (ItemSummary i : getCurrentList()) if (selected.contains(i.id)) out.add(i);
+            return out;
+        }
+
+        // The holder is its own listener, wired in the constructor; bind only sets view state
+        class VH extends RecyclerView.ViewHolder
+                implements View.OnClickListener, View.OnLongClickListener, CompoundButton.OnCheckedChangeListener {
+            final CheckBox box; final TextView text; final Button del;
+            final TextView qtyText; final View btnMinus; final View btnPlus;
+            final char[] qtyChars = new char[CountText.MAX_CHARS];
+            boolean binding; // box.setChecked from a bind is not a tap
+
             VH(View v){ super(v);
                 box = v.findViewById(R.id.checkBox);
                 text = v.findViewById(R.id.itemText);
@@ -282,6 +691,41 @@ public class ListActivity extends AppCompatActivity {
                 qtyText = v.findViewById(R.id.qtyText);
                 btnMinus = v.findViewById(R.id.btnMinus);
                 btnPlus = v.findViewById(R.id.btnPlus);
+                box.setOnCheckedChangeListener(this);
+                btnMinus.setOnClickListener(this);
+                btnPlus.setOnClickListener(this);
+                del.setOnClickListener(this);
+                v.setOnClickListener(this);
+                v.setOnLongClickListener(this);
+            }
+
+            ItemSummary bound() {
+                int pos = getAdapterPosition();
+                return pos == RecyclerView.NO_POSITION ? null : getItem(pos);
+            }
+
+            void showQty(int qty) {
+                qtyText.setText(qtyChars, 0, CountText.of(qty, qtyChars));
+            }
+
+            @Override public void onCheckedChanged(CompoundButton btn, boolean isChecked) {
+                ItemSummary doc = binding ? null : bound();
+                if (doc != null) events.onToggle(doc, isChecked);
+            }
+
+            @Override public void onClick(View v) {
+                ItemSummary doc = bound();
+                if (doc == null) return;
+                if (v == btnMinus) showQty(events.onQtyStep(doc, -1));
+                else if (v == btnPlus) showQty(events.onQtyStep(doc, +1));
+                else if (v == del) events.onDelete(doc);
+                else if (selecting) events.onSelectToggle(doc);
+            }
+
+            @Override public boolean onLongClick(View v) {
+                ItemSummary doc = bound();
+                if (doc != null) events.onLongPress(doc);
+                return true;
             }
         }
 
@@ -291,32 +735,17 @@ public class ListActivity extends AppCompatActivity {
         }
 
         @Override public void onBindViewHolder(@NonNull VH h, int pos) {
-            DocumentSnapshot doc = data.get(pos);
-            String label = doc.getString("text");
-            Boolean checkedVal = doc.getBoolean("checked");
-            boolean checked = checkedVal != null && checkedVal;
-
-            Long qLong = doc.getLong("quantity");
-            int qty = qLong == null ? 1 : Math.max(1, qLong.intValue());
-
-            h.text.setText(label);
-            h.box.setOnCheckedChangeListener(null);
-            h.box.setChecked(checked);
-            h.box.setOnCheckedChangeListener((btn, isChecked) -> events.onToggle(doc, isChecked));
-
-            h.qtyText.setText(String.valueOf(qty));
-            h.btnMinus.setOnClickListener(v -> {
-                int newQty = Math.max(1, qty - 1);
-                events.onQtyChange(doc, newQty);
-            });
-            h.btnPlus.setOnClickListener(v -> {
-                int newQty = qty + 1;
-                events.onQtyChange(doc, newQty);
-            });
-
-            h.del.setOnClickListener(v -> events.onDelete(doc));
-        }
+            long t0 = Metrics.begin(Metrics.BIND_ITEM);
+            ItemSummary doc = getItem(pos);
+
+            h.text.setText(doc.text);
+            h.binding = true;
+            h.box.setChecked(doc.checked);
+            h.binding = false;
+            h.showQty(doc.quantity);
 
-        @Override public int getItemCount(){ return data.size(); }
+            h.itemView.setBackgroundColor(selecting && selected.contains(doc.id) ? SELECTED_BG : Color.TRANSPARENT);
+            Metrics.end(Metrics.BIND_ITEM, t0);
+        }
     }
 }
@@ -10,10 +10,13 @@ import androidx.appcompat.app.AppCompatActivity;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.AuthResult;
 import com.google.android.gms.tasks.OnSuccessListener;
+import com.google.firebase.firestore.DocumentReference;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.quicklist.app.R;
+import com.quicklist.app.perf.StartupPhases;
 
 import java.util.HashMap;
+import java.util.Locale;
 import java.util.Map;
 
 public class LoginActivity extends AppCompatActivity {
@@ -23,9 +26,19 @@ public class LoginActivity extends AppCompatActivity {
 
     @Override protected void onCreate(Bundle b) {
         super.onCreate(b);
-        setContentView(R.layout.activity_login);
 
+        // Fast path: the signed-in user is restored from local storage synchronously,
+        // so go straight to Home without inflating the login UI or touching Firestore
         auth = FirebaseAuth.getInstance();
+        boolean signedIn = auth.getCurrentUser() != null;
+        StartupPhases.mark(StartupPhases.AUTH_RESOLVED);
+        if (signedIn) {
+            goHome();
+            overridePendingTransition(0, 0);
+            return;
+        }
+
+        setContentView(R.layout.activity_login);
         db = FirebaseFirestore.getInstance();
 
         emailInput = findViewById(R.id.emailInput);
@@ -33,13 +46,11 @@ public class LoginActivity extends AppCompatActivity {
         Button loginBtn = findViewById(R.id.loginBtn);
         Button signupBtn = findViewById(R.id.signupBtn);
 
-        if (auth.getCurrentUser() != null) goHome();
-
         loginBtn.setOnClickListener(v -> {
             String email = emailInput.getText().toString().trim();
             String pass = passwordInput.getText().toString().trim();
             auth.signInWithEmailAndPassword(email, pass)
-                    .addOnSuccessListener(res -> { ensureUserDoc(); goHome(); })
+                    .addOnSuccessListener(res -> { ensureUserDoc(false); goHome(); })
                     .addOnFailureListener(e -> toast(e.getMessage()));
         });
 
@@ -48,20 +59,35 @@ public class LoginActivity extends AppCompatActivity {
             String pass = passwordInput.getText().toString().trim();
             auth.createUserWithEmailAndPassword(email, pass)
                     .addOnSuccessListener((OnSuccessListener<AuthResult>) res -> {
-                        ensureUserDoc();
+                        ensureUserDoc(true);
                         goHome();
                     })
                     .addOnFailureListener(e -> toast(e.getMessage()));
         });
     }
 
-    private void ensureUserDoc() {
+    // users/{uid} backs invite-by-email lookups. Write it only when it is missing or the
+    // email changed, so a login never rewrites createdAt or costs a write for nothing.
+    private void ensureUserDoc(boolean newAccount) {
         String uid = auth.getCurrentUser().getUid();
-        String email = auth.getCurrentUser().getEmail();
+        String raw = auth.getCurrentUser().getEmail();
+        String email = raw == null ? null : raw.toLowerCase(Locale.ROOT); // InviteService looks emails up lowercased
+        DocumentReference ref = db.collection("users").document(uid);
+        if (newAccount) {
+            createUserDoc(ref, email);
+            return;
+        }
+        ref.get().addOnSuccessListener(snap -> {
+            if (!snap.exists()) createUserDoc(ref, email);
+            else if (email != null && !email.equals(snap.getString("email"))) ref.update("email", email);
+        });
+    }
+
+    private void createUserDoc(DocumentReference ref, String email) {
         Map<String, Object> data = new HashMap<>();
         data.put("email", email);
         data.put("createdAt", com.google.firebase.Timestamp.now());
-        db.collection("users").document(uid).set(data);
+        ref.set(data);
     }
 
     private void goHome() {
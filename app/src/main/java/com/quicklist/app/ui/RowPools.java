@@ -0,0 +1,19 @@
+package com.quicklist.app.ui;
+
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * Recycled-view pool sizing for the row lists. Each screen keeps its own pool: the
+ * app never shows two row lists at once, and a pool shared across activities would
+ * hold a finished activity's views, and through them its Context.
+ */
+final class RowPools {
+    /** Roughly two screens of rows, so a fling reuses holders instead of inflating new ones. */
+    static final int MAX_RECYCLED_ROWS = 24;
+
+    private RowPools() {}
+
+    static void size(RecyclerView recycler) {
+        recycler.getRecycledViewPool().setMaxRecycledViews(0, MAX_RECYCLED_ROWS);
+    }
+}
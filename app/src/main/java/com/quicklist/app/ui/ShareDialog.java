@@ -0,0 +1,56 @@
+package com.quicklist.app.ui;
+
+import android.app.Activity;
+import android.app.AlertDialog;
+import android.content.Context;
+import android.text.InputType;
+import android.widget.EditText;
+import android.widget.Toast;
+
+import com.quicklist.app.data.InviteService;
+import com.quicklist.app.data.QuickListRepository;
+
+import java.util.Arrays;
+import java.util.List;
+
+/** "Share by email" dialog used by both Home and List; takes one or many emails. */
+final class ShareDialog {
+    private ShareDialog() {}
+
+    static void show(Context ctx, String listId) {
+        EditText emailInput = new EditText(ctx);
+        emailInput.setHint("Emails, separated by commas or new lines");
+        emailInput.setInputType(InputType.TYPE_CLASS_TEXT
+                | InputType.TYPE_TEXT_VARIATION_EMAIL_ADDRESS
+                | InputType.TYPE_TEXT_FLAG_MULTI_LINE);
+        new AlertDialog.Builder(ctx)
+                .setTitle("Share by email")
+                .setView(emailInput)
+                .setPositiveButton("Invite", (d, w) ->
+                        invite(ctx, listId, emailInput.getText().toString()))
+                .setNegativeButton("Cancel", null)
+                .show();
+    }
+
+    private static void invite(Context ctx, String listId, String input) {
+        List<String> emails = Arrays.asList(input.split("[,;\\s]+"));
+        if (input.trim().isEmpty()) {
+            Toast.makeText(ctx, "Email required", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        QuickListRepository.get().invites().invite(listId, emails, result -> {
+            // The lookup can outlive the screen; a dialog on a dead window throws BadTokenException
+            if (ctx instanceof Activity && (((Activity) ctx).isFinishing() || ((Activity) ctx).isDestroyed())) return;
+            if (result.allAdded()) {
+                Toast.makeText(ctx, "Shared!", Toast.LENGTH_SHORT).show();
+                return;
+            }
+            new AlertDialog.Builder(ctx)
+                    .setTitle("Shared with " + result.count(InviteService.Status.ADDED)
+                            + " of " + result.byEmail.size())
+                    .setMessage(result.summary())
+                    .setPositiveButton("OK", null)
+                    .show();
+        });
+    }
+}
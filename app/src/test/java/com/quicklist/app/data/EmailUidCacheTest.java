@@ -0,0 +1,38 @@
+package com.quicklist.app.data;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class EmailUidCacheTest {
+    private long now = 0;
+
+    @Test
+    public void expiresAfterTtl() {
+        EmailUidCache cache = new EmailUidCache(10, 1_000, () -> now);
+        cache.put("a@x.com", "uidA");
+        now = 999;
+        assertEquals("uidA", cache.get("a@x.com"));
+        now = 1_000;
+        assertNull(cache.get("a@x.com"));
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsed() {
+        EmailUidCache cache = new EmailUidCache(2, 60_000, () -> now);
+        cache.put("a@x.com", "uidA");
+        cache.put("b@x.com", "uidB");
+        cache.get("a@x.com");           // a is now most recent
+        cache.put("c@x.com", "uidC");   // evicts b
+        assertEquals(2, cache.size());
+        assertEquals("uidA", cache.get("a@x.com"));
+        assertNull(cache.get("b@x.com"));
+    }
+
+    @Test
+    public void remembersMisses() {
+        EmailUidCache cache = new EmailUidCache(10, 60_000, () -> now);
+        cache.put("typo@x.com", EmailUidCache.MISSING);
+        assertEquals(EmailUidCache.MISSING, cache.get("typo@x.com"));
+    }
+}
@@ -0,0 +1,103 @@
+package com.quicklist.app.data;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class ItemPrefetcherTest {
+
+    /** One fake source per list; sizeOf is the value's length. */
+    static class FakeWarmer implements ItemPrefetcher.Warmer<String> {
+        final Map<String, ListenerHubTest.FakeSource> sources = new HashMap<>();
+        @Override public String keyFor(String listId) { return "items/" + listId + "#first"; }
+        @Override public ListenerHub.Source<String> sourceFor(String listId) { return source(listId); }
+        @Override public long sizeOf(String value) { return value.length(); }
+        ListenerHubTest.FakeSource source(String listId) {
+            ListenerHubTest.FakeSource s = sources.get(listId);
+            if (s == null) { s = new ListenerHubTest.FakeSource(); sources.put(listId, s); }
+            return s;
+        }
+        int live(String listId) { return sources.containsKey(listId) ? sources.get(listId).live() : 0; }
+    }
+
+    private ListenerHubTest.FakeScheduler clock;
+    private ListenerHub hub;
+    private FakeWarmer warmer;
+    private ItemPrefetcher<String> prefetcher;
+
+    @Before public void setUp() {
+        clock = new ListenerHubTest.FakeScheduler();
+        hub = new ListenerHub(clock, 1_000);
+        warmer = new FakeWarmer();
+        prefetcher = new ItemPrefetcher<>(hub, warmer, 2, 10);
+        prefetcher.resume();
+    }
+
+    @Test
+    public void warmsPinnedListsUpToTheListenerBudget() {
+        prefetcher.setPinned(Arrays.asList("a", "b", "c"));
+        assertEquals(2, prefetcher.warmCount());
+        assertEquals(1, warmer.live("a"));
+        assertEquals(1, warmer.live("b"));
+        assertEquals(0, warmer.live("c"));
+        assertEquals(ItemPrefetcher.Reason.PINNED, prefetcher.reasonFor("a"));
+    }
+
+    @Test
+    public void menuHintAndRecentOutrankPinned() {
+        prefetcher.setPinned(Arrays.asList("a", "b"));
+        prefetcher.noteOpened("r");
+        prefetcher.hint("m");
+        assertEquals(ItemPrefetcher.Reason.MENU, prefetcher.reasonFor("m"));
+        assertEquals(ItemPrefetcher.Reason.RECENT, prefetcher.reasonFor("r"));
+        assertNull(prefetcher.reasonFor("a"));
+        clock.advance(1_000);
+        assertEquals(0, warmer.live("a"));
+        assertEquals(0, warmer.live("b"));
+    }
+
+    @Test
+    public void openedScreenGetsTheWarmedValueWithoutANewListener() {
+        prefetcher.setPinned(Arrays.asList("a"));
+        warmer.source("a").callback.onValue("rows");
+        assertTrue(prefetcher.isWarm("a"));
+
+        ListenerHubTest.Recorder screen = new ListenerHubTest.Recorder();
+        hub.observe(warmer.keyFor("a"), warmer.sourceFor("a"), screen);
+        assertEquals(Arrays.asList("rows"), screen.values);
+        assertEquals(1, warmer.source("a").listens);
+    }
+
+    @Test
+    public void byteBudgetDropsTheLowestRankedPage() {
+        prefetcher.setPinned(Arrays.asList("a", "b"));
+        warmer.source("a").callback.onValue("123456");
+        warmer.source("b").callback.onValue("123456");
+        assertEquals(1, prefetcher.warmCount());
+        assertNotNull(prefetcher.reasonFor("a"));
+        assertNull(prefetcher.reasonFor("b"));
+        assertTrue(prefetcher.warmBytes() <= 10);
+
+        // Stays out on later reconciles instead of flapping back in
+        prefetcher.setPinned(Arrays.asList("a", "b"));
+        assertNull(prefetcher.reasonFor("b"));
+    }
+
+    @Test
+    public void pauseReleasesWarmListenersAfterTheGracePeriod() {
+        prefetcher.setPinned(Arrays.asList("a"));
+        prefetcher.pause();
+        assertEquals(0, prefetcher.warmCount());
+        assertEquals(1, warmer.live("a"));
+        clock.advance(1_000);
+        assertEquals(0, warmer.live("a"));
+
+        prefetcher.setPinned(Arrays.asList("a", "b"));
+        assertEquals(0, prefetcher.warmCount()); // paused: nothing new attaches
+    }
+}
@@ -0,0 +1,157 @@
+package com.quicklist.app.data;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ListenerHubTest {
+
+    /** Counts listens/removes and lets the test push values. */
+    static class FakeSource implements ListenerHub.Source<String> {
+        int listens, removes;
+        ListenerHub.Callback<String> callback;
+        @Override public ListenerHub.Registration listen(ListenerHub.Callback<String> cb) {
+            listens++;
+            callback = cb;
+            return () -> removes++;
+        }
+        int live() { return listens - removes; }
+    }
+
+    /** Manual clock: tasks run when the test advances time. */
+    static class FakeScheduler implements ListenerHub.Scheduler {
+        final List<long[]> due = new ArrayList<>();
+        final List<Runnable> tasks = new ArrayList<>();
+        long now;
+        @Override public Runnable schedule(Runnable task, long delayMs) {
+            long[] at = {now + delayMs};
+            due.add(at);
+            tasks.add(task);
+            return () -> { int i = due.indexOf(at); if (i >= 0) { due.remove(i); tasks.remove(i); } };
+        }
+        void advance(long ms) {
+            now += ms;
+            for (int i = 0; i < due.size(); ) {
+                if (due.get(i)[0] <= now) { due.remove(i); tasks.remove(i).run(); }
+                else i++;
+            }
+        }
+    }
+
+    static class Recorder implements ListenerHub.Callback<String> {
+        final List<String> values = new ArrayList<>();
+        final List<Exception> errors = new ArrayList<>();
+        @Override public void onValue(String v) { values.add(v); }
+        @Override public void onError(Exception e) { errors.add(e); }
+    }
+
+    private FakeScheduler clock;
+    private ListenerHub hub;
+
+    @Before public void setUp() {
+        clock = new FakeScheduler();
+        hub = new ListenerHub(clock, 1_000);
+    }
+
+    @Test
+    public void observersOfOneKeyShareOneListener() {
+        FakeSource src = new FakeSource();
+        Recorder a = new Recorder(), b = new Recorder();
+        hub.observe("items/L1", src, a);
+        src.callback.onValue("v1");
+        hub.observe("items/L1", src, b);
+
+        assertEquals(1, src.listens);
+        assertEquals("v1", b.values.get(0)); // late observer gets the last value
+        src.callback.onValue("v2");
+        assertEquals(2, a.values.size());
+        assertEquals(2, b.values.size());
+    }
+
+    @Test
+    public void detachesOnlyAfterGracePeriod() {
+        FakeSource src = new FakeSource();
+        ListenerHub.Subscription s = hub.observe("k", src, new Recorder());
+        s.close();
+        assertEquals(1, src.live());
+        clock.advance(999);
+        assertEquals(1, src.live());
+        clock.advance(1);
+        assertEquals(0, src.live());
+        assertEquals(0, hub.activeListenerCount());
+    }
+
+    @Test
+    public void reopenWithinGraceReusesListener() {
+        FakeSource src = new FakeSource();
+        hub.observe("k", src, new Recorder()).close();
+        clock.advance(500);
+        ListenerHub.Subscription again = hub.observe("k", src, new Recorder());
+        clock.advance(5_000);
+        assertEquals(1, src.listens);
+        assertEquals(1, src.live());
+        again.close();
+        clock.advance(1_000);
+        assertEquals(0, src.live());
+    }
+
+    @Test
+    public void repeatedOpenCloseCyclesDoNotLeak() {
+        FakeSource src = new FakeSource();
+        for (int i = 0; i < 500; i++) {
+            ListenerHub.Subscription s = hub.observe("items/L1", src, new Recorder());
+            assertTrue(src.live() <= 1);
+            s.close();
+            s.close(); // double close is harmless
+            clock.advance(i % 3 == 0 ? 2_000 : 10);
+        }
+        clock.advance(2_000);
+        assertEquals(0, src.live());
+        assertEquals(0, hub.activeListenerCount());
+        assertEquals(0, hub.observerCount("items/L1"));
+    }
+
+    @Test
+    public void clearTearsEverythingDown() {
+        FakeSource a = new FakeSource(), b = new FakeSource();
+        ListenerHub.Subscription sa = hub.observe("lists", a, new Recorder());
+        hub.observe("items/L1", b, new Recorder()).close();
+        hub.clear();
+        assertEquals(0, a.live());
+        assertEquals(0, b.live());
+        assertEquals(0, hub.activeListenerCount());
+
+        sa.close();            // stale subscription after clear is a no-op
+        clock.advance(5_000);  // and the cancelled grace timer never fires
+        assertEquals(1, a.removes);
+        assertEquals(1, b.removes);
+    }
+
+    @Test
+    public void errorDropsTheListenerSoTheNextObserverReattaches() {
+        FakeSource src = new FakeSource();
+        Recorder a = new Recorder();
+        ListenerHub.Subscription sa = hub.observe("items/L1", src, a);
+        src.callback.onValue("v1");
+        src.callback.onError(new Exception("PERMISSION_DENIED"));
+
+        assertEquals(1, a.errors.size());
+        assertEquals(0, src.live());
+        assertNull(hub.peek("items/L1"));
+
+        Recorder b = new Recorder();
+        hub.observe("items/L1", src, b);
+        assertEquals(2, src.listens);
+        assertTrue(b.values.isEmpty()); // no stale value from the dead listener
+        src.callback.onValue("v2");
+        assertEquals(List.of("v2"), b.values);
+
+        sa.close(); // the old observer leaving doesn't touch the new listener
+        clock.advance(5_000);
+        assertEquals(1, src.live());
+    }
+}
@@ -0,0 +1,98 @@
+package com.quicklist.app.data;
+
+import android.content.Context;
+
+import androidx.test.core.app.ApplicationProvider;
+import androidx.work.Configuration;
+import androidx.work.WorkInfo;
+import androidx.work.WorkManager;
+import androidx.work.testing.SynchronousExecutor;
+import androidx.work.testing.TestDriver;
+import androidx.work.testing.WorkManagerTestInitHelper;
+
+import com.quicklist.app.outbox.MemoryOutboxStorage;
+import com.quicklist.app.outbox.Mutation;
+import com.quicklist.app.outbox.Outbox;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class OutboxWorkerTest {
+
+    /** Records what it was sent; fails with {@code failure} while it is set. */
+    static class FakeBackend implements Outbox.Backend {
+        final List<String> sent = new ArrayList<>();
+        Exception failure;
+        @Override public void apply(Mutation m) throws Exception {
+            if (failure != null) throw failure;
+            sent.add(m.kind + " " + m.itemId);
+        }
+        @Override public boolean isPermanent(Exception e) { return e instanceof IllegalStateException; }
+    }
+
+    private Context context;
+    private Outbox outbox;
+    private FakeBackend backend;
+
+    @Before public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        WorkManagerTestInitHelper.initializeTestWorkManager(context,
+                new Configuration.Builder().setExecutor(new SynchronousExecutor()).build());
+        outbox = new Outbox(new MemoryOutboxStorage());
+        backend = new FakeBackend();
+        OutboxSync.install(context, outbox, backend);
+    }
+
+    // Runs the scheduled job as if its delay had passed and the device were online
+    private WorkInfo run() throws Exception {
+        UUID id = OutboxSync.schedule(context);
+        TestDriver driver = WorkManagerTestInitHelper.getTestDriver(context);
+        driver.setInitialDelayMet(id);
+        driver.setAllConstraintsMet(id);
+        return WorkManager.getInstance(context).getWorkInfoById(id).get();
+    }
+
+    @Test
+    public void replaysEverythingInOrder() throws Exception {
+        outbox.stepQuantity("L", "a", 1);
+        outbox.setChecked("L", "b", true);
+        outbox.recount("L");
+
+        assertEquals(WorkInfo.State.SUCCEEDED, run().getState());
+        assertEquals(List.of("STEP_QUANTITY a", "SET_CHECKED b", "RECOUNT "), backend.sent);
+        assertEquals(0, outbox.pending());
+    }
+
+    @Test
+    public void transientFailureRetriesAndKeepsTheWrite() throws Exception {
+        outbox.setChecked("L", "a", true);
+        backend.failure = new IOException("offline");
+
+        WorkInfo info = run();
+        assertEquals(WorkInfo.State.ENQUEUED, info.getState());
+        assertEquals(1, info.getRunAttemptCount());
+        assertEquals(1, outbox.pending());
+    }
+
+    @Test
+    public void rejectedWriteIsDropped() throws Exception {
+        outbox.stepQuantity("L", "a", 2);
+        backend.failure = new IllegalStateException("denied");
+
+        assertEquals(WorkInfo.State.SUCCEEDED, run().getState());
+        assertEquals(0, outbox.pending());
+        assertEquals(1, outbox.droppedCount());
+    }
+}
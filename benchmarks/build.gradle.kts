@@ -0,0 +1,32 @@
+// JMH harness for the :core hot paths. Run with ./gradlew :benchmarks:jmh; results land in
+// build/reports/jmh/results.json. Fixed forks, iterations, heap and GC keep runs comparable.
+plugins {
+    java
+    alias(libs.plugins.jmh)
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+dependencies {
+    jmhImplementation(project(":core"))
+    jmhImplementation(libs.jol.core) // retained-size walks for RowMemoryBenchmark
+}
+
+jmh {
+    jmhVersion.set(libs.versions.jmh.get())
+    fork.set(2)
+    warmupIterations.set(3)
+    warmup.set("1s")
+    iterations.set(5)
+    timeOnIteration.set("1s")
+    benchmarkMode.set(listOf("avgt"))
+    timeUnit.set("us")
+    jvmArgs.set(listOf("-Xms1g", "-Xmx1g", "-XX:+UseParallelGC"))
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file("reports/jmh/results.json"))
+    // e.g. -Pjmh.includes=ListFilter to run one group
+    (project.findProperty("jmh.includes") as String?)?.let { includes.set(listOf(it)) }
+}
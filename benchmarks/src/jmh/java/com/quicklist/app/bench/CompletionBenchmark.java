@@ -0,0 +1,45 @@
+package com.quicklist.app.bench;
+
+import com.quicklist.app.core.CheckedTally;
+import com.quicklist.app.models.ItemSummary;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+
+/** checkForConfetti per snapshot: the old full rescan against one CheckedTally update. */
+@State(Scope.Benchmark)
+public class CompletionBenchmark {
+    @Param({"100", "1000", "10000", "100000"})
+    public int size;
+
+    private List<ItemSummary> items;
+    private CheckedTally tally;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        items = Fixtures.items(size);
+        tally = new CheckedTally();
+        tally.recount(items);
+    }
+
+    @Benchmark
+    public boolean rescan() {
+        int checked = 0;
+        for (ItemSummary i : items) if (i.checked) checked++;
+        return !items.isEmpty() && checked == items.size();
+    }
+
+    @Benchmark
+    public boolean incremental() {
+        ItemSummary i = items.get(next);
+        next = (next + 1) % items.size();
+        tally.put(i.id, !i.checked);
+        return tally.allDone();
+    }
+}
@@ -0,0 +1,95 @@
+package com.quicklist.app.bench;
+
+import com.quicklist.app.core.StringPool;
+import com.quicklist.app.models.ItemSummary;
+import com.quicklist.app.models.ListSummary;
+import com.quicklist.app.search.SearchIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/** Seeded, shopping-list-shaped data so every run measures the same inputs. */
+final class Fixtures {
+    static final long SEED = 42;
+
+    private static final String[] WORDS = {
+            "milk", "bread", "eggs", "butter", "cheese", "apples", "bananas", "rice", "pasta",
+            "tomatoes", "onions", "garlic", "chicken", "beef", "salmon", "yogurt", "coffee",
+            "tea", "sugar", "flour", "salt", "pepper", "oil", "vinegar", "cereal", "oats",
+            "honey", "jam", "juice", "water", "soap", "shampoo", "towels", "batteries",
+            "weekly", "party", "camping", "hardware", "garden", "office"
+    };
+
+    // Firebase Auth uids are 28 characters
+    private static final String[] UIDS = {
+            "Xk3pQ9aLm2TzR7vB1cN8dE4fG5hJ", "Yb7WqN2sKd9LpR4tZ6xC1vM8gH3j", "Ma5TnQ8wEr2YuI7oP1aS4dF9gK6l"
+    };
+    private static final String[] AISLES = { "", "Dairy", "Produce", "Bakery", "Frozen", "Household" };
+
+    private Fixtures() {}
+
+    static List<ListSummary> lists(int n) {
+        Random r = new Random(SEED);
+        List<ListSummary> out = new ArrayList<>(n);
+        long now = 1_700_000_000_000L;
+        for (int i = 0; i < n; i++) {
+            out.add(new ListSummary("L" + i, phrase(r), "✅", 0xFF16A34A,
+                    r.nextInt(10) == 0, r.nextInt(7) == 0, "u" + r.nextInt(5),
+                    now - i * 60_000L, 20, r.nextInt(21)));
+        }
+        return out;
+    }
+
+    static List<ItemSummary> items(int n) {
+        Random r = new Random(SEED + 1);
+        List<ItemSummary> out = new ArrayList<>(n);
+        long now = 1_700_000_000_000L;
+        for (int i = 0; i < n; i++) {
+            out.add(new ItemSummary("I" + i, phrase(r), "u" + r.nextInt(5),
+                    now + i * 1_000L, r.nextInt(5) < 2, 1 + r.nextInt(4)));
+        }
+        return out;
+    }
+
+    /**
+     * Items as a snapshot decode produces them: every row carries its own creator uid and
+     * aisle strings, though only a few distinct values exist. {@code pool} shares them instead.
+     */
+    static List<ItemSummary> decodedItems(int n, StringPool pool) {
+        Random r = new Random(SEED + 2);
+        List<ItemSummary> out = new ArrayList<>(n);
+        long now = 1_700_000_000_000L;
+        for (int i = 0; i < n; i++) {
+            String uid = new String(UIDS[r.nextInt(UIDS.length)]);
+            String aisle = new String(AISLES[r.nextInt(AISLES.length)]);
+            out.add(new ItemSummary("item" + Long.toString(SEED * 1_000_003L + i, 36) + "x7Qv2kPz", phrase(r),
+                    pool == null ? uid : pool.intern(uid), now + i * 1_000L, r.nextInt(5) < 2,
+                    1 + r.nextInt(4), pool == null ? aisle : pool.intern(aisle)));
+        }
+        return out;
+    }
+
+    /** List names plus {@code itemCount} items spread round-robin over the lists. */
+    static SearchIndex index(List<ListSummary> lists, int itemCount) {
+        SearchIndex index = new SearchIndex();
+        for (ListSummary l : lists) index.putList(l.id, l.name);
+        List<ItemSummary> items = items(itemCount);
+        for (int i = 0; i < items.size(); i++) {
+            ItemSummary it = items.get(i);
+            index.putItem(lists.get(i % lists.size()).id, it.id, it.text);
+        }
+        return index;
+    }
+
+    private static String phrase(Random r) {
+        int words = 1 + r.nextInt(3);
+        StringBuilder sb = new StringBuilder();
+        for (int w = 0; w < words; w++) {
+            if (w > 0) sb.append(' ');
+            String word = WORDS[r.nextInt(WORDS.length)];
+            sb.append(w == 0 ? Character.toUpperCase(word.charAt(0)) + word.substring(1) : word);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,76 @@
+package com.quicklist.app.bench;
+
+import com.quicklist.app.models.ItemSummary;
+import com.quicklist.app.store.InMemoryStore;
+import com.quicklist.app.store.ItemFeed;
+import com.quicklist.app.store.ItemStore;
+import com.quicklist.app.store.ManualScheduler;
+import com.quicklist.app.store.StoreObserver;
+import com.quicklist.app.store.StoreSnapshot;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Collections;
+
+/**
+ * Opening a list's items feed on InMemoryStore, from observe() to the first snapshot (the
+ * cache read), with virtual time so only the work is measured. That store doesn't page, so
+ * this is the whole-list baseline: its first snapshot carries every row and the score grows
+ * with size, where ItemPager's carries one page. The firstRows and liveListeners counters
+ * report what the first snapshot held and how many listeners the feed kept for it.
+ */
+@State(Scope.Benchmark)
+public class ItemFeedBenchmark {
+    @Param({"1000", "10000"})
+    public int size;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Opened {
+        public long firstRows;
+        public long liveListeners;
+
+        @Setup(Level.Iteration)
+        public void reset() { firstRows = 0; liveListeners = 0; }
+    }
+
+    private static final class FirstSnapshot implements StoreObserver<ItemSummary> {
+        StoreSnapshot<ItemSummary> first;
+
+        @Override public void onSnapshot(StoreSnapshot<ItemSummary> snapshot) {
+            if (first == null) first = snapshot;
+        }
+
+        @Override public void onError(Exception e) { throw new IllegalStateException(e); }
+    }
+
+    private ManualScheduler clock;
+    private ItemStore items;
+
+    @Setup
+    public void setUp() {
+        clock = new ManualScheduler();
+        InMemoryStore store = new InMemoryStore(clock, "u0", Fixtures.SEED);
+        store.seedList("L", "Pick list", "u0", 1, Collections.singletonList("u0"));
+        for (ItemSummary item : Fixtures.items(size)) store.seedItem("L", item);
+        items = store.items(e -> { throw new IllegalStateException(e); });
+    }
+
+    @Benchmark
+    public StoreSnapshot<ItemSummary> firstRows(Opened o) {
+        FirstSnapshot r = new FirstSnapshot();
+        ItemFeed feed = items.observe("L", r);
+        clock.advance(InMemoryStore.DEFAULT_CACHE_MS);
+        o.firstRows = r.first.items.size();
+        o.liveListeners = feed.liveListenerCount();
+        feed.close();
+        clock.advance(InMemoryStore.DEFAULT_SERVER_MS); // the server read it had scheduled, now a no-op
+        return r.first;
+    }
+}
@@ -0,0 +1,61 @@
+package com.quicklist.app.bench;
+
+import com.quicklist.app.core.ItemOrder;
+import com.quicklist.app.core.ItemSort;
+import com.quicklist.app.models.ItemSummary;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * ListActivity.submitItems in A–Z: a fresh order (collation keys for every row, one sort)
+ * against a kept one that sees a single edited row per snapshot. copyOnly is the baseline.
+ */
+@State(Scope.Benchmark)
+public class ItemSortBenchmark {
+    @Param({"100", "1000", "10000", "100000"})
+    public int size;
+
+    private List<ItemSummary> items;
+    private List<ItemSummary> edited;
+    private ItemOrder kept;
+    private boolean flip;
+
+    @Setup
+    public void setUp() {
+        items = Fixtures.items(size);
+        edited = new ArrayList<>(items);
+        int mid = size / 2;
+        ItemSummary row = items.get(mid);
+        edited.set(mid, new ItemSummary(row.id, "zz " + row.text, row.createdBy,
+                row.createdAtMillis, row.checked, row.quantity));
+        kept = new ItemOrder(Locale.US);
+        kept.setMode(ItemSort.Mode.AZ);
+        kept.update(items);
+    }
+
+    @Benchmark
+    public List<ItemSummary> copyOnly() {
+        return new ArrayList<>(items);
+    }
+
+    @Benchmark
+    public List<ItemSummary> freshSortAz() {
+        ItemOrder order = new ItemOrder(Locale.US);
+        order.setMode(ItemSort.Mode.AZ);
+        return order.update(items);
+    }
+
+    @Benchmark
+    public List<ItemSummary> oneRowEditedAz() {
+        flip = !flip;
+        return kept.update(flip ? edited : items);
+    }
+}
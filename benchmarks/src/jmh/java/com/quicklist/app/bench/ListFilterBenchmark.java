@@ -0,0 +1,44 @@
+package com.quicklist.app.bench;
+
+import com.quicklist.app.core.ListFilter;
+import com.quicklist.app.models.ListSummary;
+import com.quicklist.app.search.SearchIndex;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.HashMap;
+import java.util.List;
+
+/** Home's rebuildVisible work per keystroke or snapshot: filter, rank, pin-first, sort. */
+@State(Scope.Benchmark)
+public class ListFilterBenchmark {
+    @Param({"100", "1000", "10000", "100000"})
+    public int size;
+
+    /** "" = no query (archived filter + pin/sort only); "mi" = prefix query hitting names and items. */
+    @Param({"", "mi"})
+    public String query;
+
+    private List<ListSummary> lists;
+    private SearchIndex index;
+
+    @Setup
+    public void setUp() {
+        lists = Fixtures.lists(size);
+        index = Fixtures.index(lists, size);
+    }
+
+    @Benchmark
+    public List<ListSummary> recent() {
+        return ListFilter.apply(lists, query, false, false, index, new HashMap<>(), () -> false);
+    }
+
+    @Benchmark
+    public List<ListSummary> az() {
+        return ListFilter.apply(lists, query, false, true, index, new HashMap<>(), () -> false);
+    }
+}
@@ -0,0 +1,80 @@
+package com.quicklist.app.bench;
+
+import com.quicklist.app.core.ItemOrder;
+import com.quicklist.app.core.ItemSort;
+import com.quicklist.app.core.StringPool;
+import com.quicklist.app.models.ItemSummary;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Retained heap of a huge list's rows, read from the retainedBytes counter (the time
+ * score is the heap walk and means nothing). decodedRows is how rows used to decode,
+ * each with private creator and aisle strings; pooledRows is what Projections decodes
+ * now. sortedIndex is what ItemOrder keeps per row on top of them, in A–Z with
+ * collation keys made, for scale.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+public class RowMemoryBenchmark {
+    @Param({"10000", "50000"})
+    public int size;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Retained {
+        public long retainedBytes;
+
+        @Setup(Level.Iteration)
+        public void reset() { retainedBytes = 0; }
+    }
+
+    private List<ItemSummary> decoded;
+    private List<ItemSummary> pooled;
+
+    @Setup
+    public void setUp() {
+        decoded = Fixtures.decodedItems(size, null);
+        pooled = Fixtures.decodedItems(size, new StringPool());
+    }
+
+    @Benchmark
+    public Object decodedRows(Retained r) {
+        List<ItemSummary> rows = new ArrayList<>(decoded);
+        r.retainedBytes = GraphLayout.parseInstance(rows).totalSize();
+        return rows;
+    }
+
+    @Benchmark
+    public Object pooledRows(Retained r) {
+        List<ItemSummary> rows = new ArrayList<>(pooled);
+        r.retainedBytes = GraphLayout.parseInstance(rows).totalSize();
+        return rows;
+    }
+
+    // Only what the order adds: minus the row strings it shares and the collator tables
+    @Benchmark
+    public Object sortedIndex(Retained r) {
+        ItemOrder order = new ItemOrder(Locale.US);
+        order.setMode(ItemSort.Mode.AZ);
+        order.update(pooled);
+        r.retainedBytes = GraphLayout.parseInstance(order)
+                .subtract(GraphLayout.parseInstance(pooled))
+                .subtract(GraphLayout.parseInstance(new ItemOrder(Locale.US)))
+                .totalSize();
+        return order;
+    }
+}
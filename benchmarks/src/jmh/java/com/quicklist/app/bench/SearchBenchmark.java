@@ -0,0 +1,40 @@
+package com.quicklist.app.bench;
+
+import com.quicklist.app.search.SearchIndex;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+
+/** SearchIndex queries over {@code size} list names plus {@code size} items. */
+@State(Scope.Benchmark)
+public class SearchBenchmark {
+    @Param({"100", "1000", "10000", "100000"})
+    public int size;
+
+    private SearchIndex index;
+
+    @Setup
+    public void setUp() {
+        index = Fixtures.index(Fixtures.lists(size), size);
+    }
+
+    @Benchmark
+    public List<SearchIndex.Hit> prefixPerList() {
+        return index.queryLists("mi", Integer.MAX_VALUE);
+    }
+
+    @Benchmark
+    public List<SearchIndex.Hit> twoTermsTop20() {
+        return index.query("milk br", 20);
+    }
+
+    @Benchmark
+    public List<SearchIndex.Hit> noMatch() {
+        return index.query("zzz", 20);
+    }
+}
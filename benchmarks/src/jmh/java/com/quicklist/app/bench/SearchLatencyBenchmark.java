@@ -0,0 +1,42 @@
+package com.quicklist.app.bench;
+
+import com.quicklist.app.search.SearchIndex;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.Random;
+
+/** Home search over 1,000 lists x 200 items, one queryLists per keystroke; the target is under 1ms. */
+@State(Scope.Benchmark)
+public class SearchLatencyBenchmark {
+    @Param({"batteries", "batt", "batteries 42"})
+    public String query;
+
+    private SearchIndex index;
+
+    @Setup
+    public void setUp() {
+        index = new SearchIndex();
+        Random r = new Random(42);
+        String[] words = new String[60];
+        for (int i = 0; i < words.length; i++) words[i] = "word" + (char) ('a' + i % 26) + i;
+        words[7] = "batteries";
+        for (int l = 0; l < 1000; l++) {
+            index.putList("L" + l, "List " + l + " " + words[r.nextInt(words.length)]);
+            for (int i = 0; i < 200; i++) {
+                index.putItem("L" + l, "I" + i, words[r.nextInt(words.length)] + " "
+                        + words[r.nextInt(words.length)] + " " + r.nextInt(1000));
+            }
+        }
+    }
+
+    @Benchmark
+    public List<SearchIndex.Hit> queryLists() {
+        return index.queryLists(query, 50);
+    }
+}
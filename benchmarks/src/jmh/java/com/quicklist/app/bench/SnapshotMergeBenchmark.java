@@ -0,0 +1,54 @@
+package com.quicklist.app.bench;
+
+import com.quicklist.app.core.SnapshotMerge;
+import com.quicklist.app.models.ItemSummary;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The diff step of snapshot decoding: reuse unchanged projections, decode only changed
+ * documents. Documents are stood in by the previous projections themselves; the decoder
+ * copies, which is what a real decode allocates.
+ */
+@State(Scope.Benchmark)
+public class SnapshotMergeBenchmark {
+    @Param({"100", "1000", "10000", "100000"})
+    public int size;
+
+    private List<ItemSummary> previous;
+    private Set<String> onePercent;
+    private Set<String> all;
+
+    @Setup
+    public void setUp() {
+        previous = Fixtures.items(size);
+        onePercent = new HashSet<>();
+        all = new HashSet<>();
+        for (int i = 0; i < size; i++) {
+            if (i % 100 == 0) onePercent.add(previous.get(i).id);
+            all.add(previous.get(i).id);
+        }
+    }
+
+    @Benchmark
+    public List<ItemSummary> onePercentChanged() {
+        return SnapshotMerge.merge(previous, i -> i.id, previous, i -> i.id, onePercent, SnapshotMergeBenchmark::decode);
+    }
+
+    @Benchmark
+    public List<ItemSummary> allChanged() {
+        return SnapshotMerge.merge(previous, i -> i.id, previous, i -> i.id, all, SnapshotMergeBenchmark::decode);
+    }
+
+    private static ItemSummary decode(ItemSummary d) {
+        return new ItemSummary(d.id, d.text, d.createdBy, d.createdAtMillis, !d.checked, d.quantity);
+    }
+}
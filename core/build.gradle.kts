@@ -0,0 +1,18 @@
+// Plain JVM logic shared by the app, its unit tests and the :benchmarks harness.
+// No Android or Firebase dependencies may be added here.
+plugins {
+    `java-library`
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+tasks.withType<JavaCompile>().configureEach {
+    options.encoding = "UTF-8"
+}
+
+dependencies {
+    testImplementation(libs.junit)
+}
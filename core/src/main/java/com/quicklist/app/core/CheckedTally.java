@@ -0,0 +1,40 @@
+package com.quicklist.app.core;
+
+import com.quicklist.app.models.ItemSummary;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Checked/total counts over the loaded items, updated per document change so the
+ * completion check is O(1) per snapshot instead of a rescan of every row.
+ */
+public final class CheckedTally {
+    private final Map<String, Boolean> checkedById = new HashMap<>();
+    private int checked;
+
+    /** Added or modified item. */
+    public void put(String id, boolean isChecked) {
+        Boolean was = checkedById.put(id, isChecked);
+        if (Boolean.TRUE.equals(was)) checked--;
+        if (isChecked) checked++;
+    }
+
+    public void remove(String id) {
+        if (Boolean.TRUE.equals(checkedById.remove(id))) checked--;
+    }
+
+    /** Rebuilds from scratch, for when changes may have been missed. */
+    public void recount(List<ItemSummary> items) {
+        checkedById.clear();
+        checked = 0;
+        for (ItemSummary i : items) put(i.id, i.checked);
+    }
+
+    public int size() { return checkedById.size(); }
+
+    public int checked() { return checked; }
+
+    public boolean allDone() { return !checkedById.isEmpty() && checked == checkedById.size(); }
+}
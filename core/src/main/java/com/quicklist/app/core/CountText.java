@@ -0,0 +1,38 @@
+package com.quicklist.app.core;
+
+/**
+ * Formats counts into a caller-owned char buffer, so a row bind can hand digits to
+ * {@code TextView.setText(char[], int, int)} without building a String per bind.
+ * Buffers of {@link #MAX_CHARS} fit any output.
+ */
+public final class CountText {
+    /** "-2147483648/-2147483648" */
+    public static final int MAX_CHARS = 23;
+
+    private CountText() {}
+
+    /** Writes {@code value} at the start of {@code out}; returns the length. */
+    public static int of(int value, char[] out) {
+        return write(value, out, 0);
+    }
+
+    /** Writes "done/total"; returns the length. */
+    public static int ratio(int done, int total, char[] out) {
+        int n = write(done, out, 0);
+        out[n++] = '/';
+        return write(total, out, n);
+    }
+
+    private static int write(int value, char[] out, int at) {
+        long v = value; // so Integer.MIN_VALUE negates
+        if (v < 0) { out[at++] = '-'; v = -v; }
+        int digits = 1;
+        for (long p = 10; p <= v; p *= 10) digits++;
+        int end = at + digits;
+        for (int i = end - 1; i >= at; i--) {
+            out[i] = (char) ('0' + v % 10);
+            v /= 10;
+        }
+        return end;
+    }
+}
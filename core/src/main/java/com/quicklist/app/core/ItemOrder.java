@@ -0,0 +1,136 @@
+package com.quicklist.app.core;
+
+import com.quicklist.app.models.ItemSummary;
+
+import java.text.CollationKey;
+import java.text.Collator;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The item screen's rows in an {@link ItemSort.Mode}, kept sorted between snapshots.
+ * {@link #update} re-inserts only the rows that changed, each by binary search; a mode
+ * switch or a snapshot that changes a large share of rows sorts once instead.
+ *
+ * Text and category compare by {@link CollationKey}, made the first time a mode needs
+ * one and kept until that row's text or category changes. Main thread only.
+ */
+public final class ItemOrder {
+    // Past one changed row in this many, a single sort beats shifting the array per insert
+    private static final int RESORT_SHARE = 8;
+
+    private static final class Entry {
+        ItemSummary row;
+        CollationKey text, category; // made on first use
+        int seen;                    // update() generation that last saw this row
+    }
+
+    private final Collator collator;
+    private final List<Entry> entries = new ArrayList<>();
+    private final Map<String, Entry> byId = new HashMap<>();
+    private ItemSort.Mode mode = ItemSort.Mode.RECENT;
+    private Comparator<Entry> order;
+    private int generation;
+
+    public ItemOrder(Locale locale) {
+        collator = Collator.getInstance(locale);
+        collator.setStrength(Collator.SECONDARY); // case-insensitive, accent-sensitive
+        order = comparator(mode);
+    }
+
+    public ItemSort.Mode mode() { return mode; }
+
+    public void setMode(ItemSort.Mode mode) {
+        if (mode == this.mode) return;
+        this.mode = mode;
+        order = comparator(mode);
+        entries.sort(order);
+    }
+
+    /**
+     * Brings the order in line with {@code rows}, in any order, and returns it as a new
+     * list. A row that is the same instance as last time, or equal to it, is not compared.
+     */
+    public List<ItemSummary> update(List<ItemSummary> rows) {
+        int gen = ++generation;
+        List<Entry> moved = new ArrayList<>();
+        for (ItemSummary row : rows) {
+            Entry e = byId.get(row.id);
+            if (e != null && (e.row == row || e.row.equals(row))) {
+                e.row = row;
+                e.seen = gen;
+                continue;
+            }
+            Entry fresh = new Entry();
+            fresh.row = row;
+            fresh.seen = gen;
+            if (e != null) {
+                if (e.row.text.equals(row.text)) fresh.text = e.text;
+                if (e.row.category.equals(row.category)) fresh.category = e.category;
+            }
+            byId.put(row.id, fresh);
+            moved.add(fresh);
+        }
+        if (!moved.isEmpty() || entries.size() + moved.size() != rows.size()) {
+            entries.removeIf(e -> {
+                if (e.seen == gen) return false;
+                if (byId.get(e.row.id) == e) byId.remove(e.row.id);
+                return true;
+            });
+        }
+        if (moved.size() * RESORT_SHARE > entries.size()) {
+            entries.addAll(moved);
+            entries.sort(order);
+        } else {
+            for (Entry e : moved) {
+                int at = Collections.binarySearch(entries, e, order);
+                entries.add(at < 0 ? -at - 1 : at, e);
+            }
+        }
+        List<ItemSummary> out = new ArrayList<>(entries.size());
+        for (Entry e : entries) out.add(e.row);
+        return out;
+    }
+
+    public int size() { return entries.size(); }
+
+    private CollationKey text(Entry e) {
+        if (e.text == null) e.text = collator.getCollationKey(e.row.text);
+        return e.text;
+    }
+
+    private CollationKey category(Entry e) {
+        if (e.category == null) e.category = collator.getCollationKey(e.row.category);
+        return e.category;
+    }
+
+    private Comparator<Entry> comparator(ItemSort.Mode mode) {
+        Comparator<Entry> created = (a, b) -> {
+            int c = Long.compare(a.row.createdAtMillis, b.row.createdAtMillis);
+            return c != 0 ? c : a.row.id.compareTo(b.row.id);
+        };
+        Comparator<Entry> az = (a, b) -> text(a).compareTo(text(b));
+        switch (mode) {
+            case AZ:
+                return az.thenComparing(created);
+            case UNCHECKED_FIRST:
+                return Comparator.<Entry>comparingInt(e -> e.row.checked ? 1 : 0).thenComparing(created);
+            case QUANTITY:
+                return Comparator.<Entry>comparingInt(e -> -e.row.quantity).thenComparing(az).thenComparing(created);
+            case CREATOR:
+                return Comparator.<Entry, String>comparing(e -> e.row.createdBy,
+                        Comparator.nullsLast(Comparator.naturalOrder())).thenComparing(created);
+            case AISLE:
+                return Comparator.<Entry>comparingInt(e -> e.row.category.isEmpty() ? 1 : 0)
+                        .thenComparing((a, b) -> category(a).compareTo(category(b)))
+                        .thenComparing(az).thenComparing(created);
+            default:
+                return created;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.quicklist.app.core;
+
+/**
+ * Display orders for the item screen; {@link ItemOrder} keeps the rows in one. Every mode
+ * ends on createdAt (the query's own order), then id, so no two rows ever tie.
+ */
+public final class ItemSort {
+    public enum Mode {
+        /** createdAt, as the query returns them. */
+        RECENT,
+        /** Text in the device locale's collation, ignoring case. */
+        AZ,
+        /** Unchecked rows first, each group in createdAt order. */
+        UNCHECKED_FIRST,
+        /** Largest quantity first, then A–Z. */
+        QUANTITY,
+        /** Grouped by who added the row, each group in createdAt order. */
+        CREATOR,
+        /** Grouped by store aisle or category A–Z, uncategorized last, then A–Z. */
+        AISLE
+    }
+
+    private ItemSort() {}
+}
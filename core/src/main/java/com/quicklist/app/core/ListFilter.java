@@ -0,0 +1,59 @@
+package com.quicklist.app.core;
+
+import com.quicklist.app.models.ListSummary;
+import com.quicklist.app.search.SearchIndex;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Home's visible lists: drop archived unless asked, match the query on the search index
+ * (list name or any item) or a plain name substring, then order by search rank, pinned
+ * first, and A–Z or query (recent) order.
+ */
+public final class ListFilter {
+    private ListFilter() {}
+
+    /**
+     * @param q           trimmed, lowercase query; empty for none
+     * @param itemHitsOut receives listId -> best matching itemId for item hits
+     * @param superseded  polled while scanning; once true the run is abandoned
+     * @return lists in display order, or null if superseded
+     */
+    public static List<ListSummary> apply(List<ListSummary> source, String q,
+                                          boolean archivedToo, boolean az, SearchIndex index,
+                                          Map<String, String> itemHitsOut, BooleanSupplier superseded) {
+        final Map<String, Integer> rank = new HashMap<>();
+        if (!q.isEmpty()) {
+            for (SearchIndex.Hit h : index.queryLists(q, Integer.MAX_VALUE)) {
+                rank.put(h.listId, h.score);
+                if (h.itemId != null) itemHitsOut.put(h.listId, h.itemId);
+            }
+        }
+        List<ListSummary> out = new ArrayList<>();
+        for (int i = 0; i < source.size(); i++) {
+            if ((i & 0xFF) == 0 && superseded.getAsBoolean()) return null;
+            ListSummary l = source.get(i);
+            if (!archivedToo && l.archived) continue;
+            if (!q.isEmpty() && !rank.containsKey(l.id) && !l.nameKey.contains(q)) continue;
+            out.add(l);
+        }
+        if (superseded.getAsBoolean()) return null;
+
+        // Search rank, then pin first; the sort is stable so "recent" keeps query order
+        Collections.sort(out, (a, b) -> {
+            if (!rank.isEmpty()) {
+                int ra = rank.containsKey(a.id) ? rank.get(a.id) : 0;
+                int rb = rank.containsKey(b.id) ? rank.get(b.id) : 0;
+                if (ra != rb) return rb - ra;
+            }
+            if (a.pinned != b.pinned) return a.pinned ? -1 : 1;
+            return az ? a.nameKey.compareTo(b.nameKey) : 0;
+        });
+        return superseded.getAsBoolean() ? null : out;
+    }
+}
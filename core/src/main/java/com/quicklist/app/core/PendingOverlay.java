@@ -0,0 +1,163 @@
+package com.quicklist.app.core;
+
+import com.quicklist.app.models.ItemSummary;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Item edits made on this device that the store hasn't confirmed yet, laid over each
+ * snapshot by {@link #apply} so a tap shows on the next frame instead of after the
+ * round trip. Every edit returns a write number; the caller reports it back through
+ * {@link #acked} or {@link #failed} when the store's callback fires.
+ *
+ * An acknowledged edit stays until a snapshot shows it: one without pending writes, or
+ * one whose row already matches. A failed write drops every edit of its row at once, so
+ * the row falls back to what the store has. Main thread only.
+ */
+public final class PendingOverlay {
+    private static final class Edit {
+        Boolean checked;
+        Integer quantity;
+        boolean deleted;
+        ItemSummary added;      // created on this device; shown until a snapshot has it
+        long lastWrite;
+        boolean acked;          // lastWrite was acknowledged
+
+        // null = hidden
+        ItemSummary over(ItemSummary row) {
+            if (deleted || row == null) return null;
+            if (checked != null && row.checked != checked) row = row.withChecked(checked);
+            if (quantity != null && row.quantity != quantity) row = row.withQuantity(quantity);
+            return row;
+        }
+
+        boolean shownAs(ItemSummary confirmed) {
+            ItemSummary mine = over(confirmed != null ? confirmed : added);
+            return mine == null ? confirmed == null : mine.equals(confirmed);
+        }
+    }
+
+    private final Map<String, Edit> edits = new LinkedHashMap<>();
+    private final Map<Long, String> inFlight = new HashMap<>(); // write -> item id
+    private long nextWrite = 1;
+
+    public long setChecked(String id, boolean checked) {
+        Edit e = edit(id);
+        e.checked = checked;
+        return stamp(id, e);
+    }
+
+    public long setQuantity(String id, int quantity) {
+        Edit e = edit(id);
+        e.quantity = quantity;
+        return stamp(id, e);
+    }
+
+    /** A new row, shown after the loaded rows until a snapshot carries it. */
+    public long add(ItemSummary item) {
+        Edit e = edit(item.id);
+        e.added = item;
+        e.deleted = false;
+        return stamp(item.id, e);
+    }
+
+    public long delete(String id) {
+        Edit e = edit(id);
+        e.deleted = true;
+        return stamp(id, e);
+    }
+
+    public void acked(long write) {
+        String id = inFlight.remove(write);
+        Edit e = id == null ? null : edits.get(id);
+        if (e != null && e.lastWrite == write) e.acked = true;
+    }
+
+    /** Rolls back every edit of the row the write touched; returns its id, or null if it was already gone. */
+    public String failed(long write) {
+        String id = inFlight.remove(write);
+        if (id == null || edits.remove(id) == null) return null;
+        inFlight.values().removeIf(id::equals);
+        return id;
+    }
+
+    /**
+     * Drops acknowledged edits the snapshot already reflects. Returns true if that changes
+     * what {@link #apply} would show, e.g. another member edited the row meanwhile.
+     */
+    public boolean reconcile(List<ItemSummary> confirmed, boolean hasPendingWrites) {
+        if (edits.isEmpty()) return false;
+        Map<String, ItemSummary> rows = rowsWithEdits(confirmed);
+        boolean changed = false;
+        for (Iterator<Map.Entry<String, Edit>> it = edits.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<String, Edit> entry = it.next();
+            Edit e = entry.getValue();
+            if (!e.acked) continue;
+            ItemSummary row = rows.get(entry.getKey());
+            boolean same = e.shownAs(row);
+            if (!same && hasPendingWrites) continue; // the snapshot may not include it yet
+            it.remove();
+            changed |= !same;
+        }
+        return changed;
+    }
+
+    /** The rows to show: {@code confirmed} in its order with local edits applied, then local adds. */
+    public List<ItemSummary> apply(List<ItemSummary> confirmed) {
+        if (edits.isEmpty()) return confirmed;
+        List<ItemSummary> out = new ArrayList<>(confirmed.size() + edits.size());
+        Set<String> present = new HashSet<>();
+        for (ItemSummary row : confirmed) {
+            Edit e = edits.get(row.id);
+            if (e == null) { out.add(row); continue; }
+            present.add(row.id);
+            ItemSummary shown = e.over(row);
+            if (shown != null) out.add(shown);
+        }
+        for (Map.Entry<String, Edit> entry : edits.entrySet()) {
+            Edit e = entry.getValue();
+            if (e.added == null || present.contains(entry.getKey())) continue;
+            ItemSummary shown = e.over(e.added);
+            if (shown != null) out.add(shown);
+        }
+        return out;
+    }
+
+    /** {@code row} as {@link #apply} shows it, or null if it was deleted locally. */
+    public ItemSummary shown(ItemSummary row) {
+        Edit e = edits.get(row.id);
+        return e == null ? row : e.over(row);
+    }
+
+    public boolean isEmpty() { return edits.isEmpty(); }
+
+    /** Rows with at least one edit not yet seen in a snapshot. */
+    public int size() { return edits.size(); }
+
+    private Edit edit(String id) {
+        Edit e = edits.get(id);
+        if (e == null) { e = new Edit(); edits.put(id, e); }
+        return e;
+    }
+
+    private long stamp(String id, Edit e) {
+        long write = nextWrite++;
+        e.lastWrite = write;
+        e.acked = false;
+        inFlight.put(write, id);
+        return write;
+    }
+
+    private Map<String, ItemSummary> rowsWithEdits(List<ItemSummary> confirmed) {
+        Map<String, ItemSummary> rows = new HashMap<>();
+        for (ItemSummary row : confirmed) if (edits.containsKey(row.id)) rows.put(row.id, row);
+        return rows;
+    }
+}
@@ -0,0 +1,52 @@
+package com.quicklist.app.core;
+
+import com.quicklist.app.store.Change;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/** The reuse step behind snapshot decoding, kept free of Firestore types. */
+public final class SnapshotMerge {
+    private SnapshotMerge() {}
+
+    /**
+     * Projects {@code docs} in order, reusing the previous projection for every id that is
+     * not in {@code changed}, so only added or modified documents are decoded.
+     */
+    public static <D, T> List<T> merge(List<T> previous, Function<T, String> idOf,
+                                       List<D> docs, Function<D, String> docId,
+                                       Set<String> changed, Function<D, T> decoder) {
+        Map<String, T> prev = new HashMap<>(previous.size() * 2);
+        for (T t : previous) prev.put(idOf.apply(t), t);
+        List<T> out = new ArrayList<>(docs.size());
+        for (D d : docs) {
+            String id = docId.apply(d);
+            T old = prev.get(id);
+            out.add(old != null && !changed.contains(id) ? old : decoder.apply(d));
+        }
+        return out;
+    }
+
+    /**
+     * The changes that turn {@code previous} into {@code next}. For deliveries whose own
+     * change list is relative to something else, e.g. a shared listener's last snapshot
+     * handed to a screen that just subscribed.
+     */
+    public static <T> List<Change<T>> diff(List<T> previous, List<T> next, Function<T, String> idOf) {
+        Map<String, T> prev = new HashMap<>(previous.size() * 2);
+        for (T t : previous) prev.put(idOf.apply(t), t);
+        List<Change<T>> out = new ArrayList<>();
+        for (T t : next) {
+            String id = idOf.apply(t);
+            T old = prev.remove(id);
+            if (old == null) out.add(Change.added(id, t));
+            else if (!old.equals(t)) out.add(Change.modified(id, t));
+        }
+        for (Map.Entry<String, T> e : prev.entrySet()) out.add(Change.removed(e.getKey(), e.getValue()));
+        return out;
+    }
+}
@@ -0,0 +1,22 @@
+package com.quicklist.app.core;
+
+/**
+ * RecyclerView stable ids from Firestore document ids. A 64-bit FNV-1a hash over the
+ * id's chars: no allocation, and for 20-char auto ids a collision within one list is
+ * vanishingly unlikely (about n²/2^65 for n rows).
+ */
+public final class StableIds {
+    private static final long OFFSET = 0xcbf29ce484222325L;
+    private static final long PRIME = 0x100000001b3L;
+
+    private StableIds() {}
+
+    public static long of(String id) {
+        long h = OFFSET;
+        for (int i = 0, n = id.length(); i < n; i++) {
+            h ^= id.charAt(i);
+            h *= PRIME;
+        }
+        return h;
+    }
+}
@@ -0,0 +1,23 @@
+package com.quicklist.app.core;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Interns strings that repeat across rows, such as creator uids and aisle names, which
+ * every decoded row would otherwise carry its own copy of. Entries are never evicted, so
+ * only pool values drawn from a small set. One thread only, like the store deliveries
+ * that decode rows.
+ */
+public final class StringPool {
+    private final Map<String, String> strings = new HashMap<>();
+
+    /** The pooled instance equal to {@code s}; null stays null. */
+    public String intern(String s) {
+        if (s == null) return null;
+        String pooled = strings.putIfAbsent(s, s);
+        return pooled != null ? pooled : s;
+    }
+
+    public int size() { return strings.size(); }
+}
@@ -0,0 +1,52 @@
+package com.quicklist.app.models;
+
+import java.util.Objects;
+
+/**
+ * Read-only projection of lists/{listId}/items/{itemId}. {@code Item} stays the
+ * write model; this is what the item screen binds, sorts and counts.
+ */
+public final class ItemSummary {
+    public final String id;
+    public final String text;        // "" when missing
+    public final String createdBy;
+    public final long createdAtMillis;
+    public final boolean checked;
+    public final int quantity;       // always >= 1
+    public final String category;    // store aisle or category; "" when missing
+
+    public ItemSummary(String id, String text, String createdBy, long createdAtMillis,
+                       boolean checked, int quantity) {
+        this(id, text, createdBy, createdAtMillis, checked, quantity, null);
+    }
+
+    public ItemSummary(String id, String text, String createdBy, long createdAtMillis,
+                       boolean checked, int quantity, String category) {
+        this.id = id;
+        this.text = text != null ? text : "";
+        this.createdBy = createdBy;
+        this.createdAtMillis = createdAtMillis;
+        this.checked = checked;
+        this.quantity = Math.max(1, quantity);
+        this.category = category != null ? category : "";
+    }
+
+    public ItemSummary withChecked(boolean checked) {
+        return new ItemSummary(id, text, createdBy, createdAtMillis, checked, quantity, category);
+    }
+
+    public ItemSummary withQuantity(int quantity) {
+        return new ItemSummary(id, text, createdBy, createdAtMillis, checked, quantity, category);
+    }
+
+    @Override public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ItemSummary)) return false;
+        ItemSummary i = (ItemSummary) o;
+        return createdAtMillis == i.createdAtMillis && checked == i.checked
+                && quantity == i.quantity && id.equals(i.id) && text.equals(i.text)
+                && category.equals(i.category) && Objects.equals(createdBy, i.createdBy);
+    }
+
+    @Override public int hashCode() { return id.hashCode(); }
+}
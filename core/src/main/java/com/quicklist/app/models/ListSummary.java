@@ -0,0 +1,53 @@
+package com.quicklist.app.models;
+
+import java.util.Objects;
+
+/**
+ * Read-only projection of lists/{listId}, decoded once per document change.
+ * Defaults are already applied and the color is pre-parsed, so adapters,
+ * comparators and search never touch the raw snapshot.
+ */
+public final class ListSummary {
+    public final String id;
+    public final String name;        // display name, "(Untitled)" when missing
+    public final String nameKey;     // lowercase name for search and A–Z sort
+    public final String emoji;
+    public final int color;          // ARGB int
+    public final boolean pinned;
+    public final boolean archived;
+    public final String createdBy;
+    public final long createdAtMillis;
+    public final int itemCount;      // -1 on lists written before the counters existed
+    public final int checkedCount;
+
+    public ListSummary(String id, String name, String emoji, int color,
+                       boolean pinned, boolean archived, String createdBy, long createdAtMillis,
+                       int itemCount, int checkedCount) {
+        this.id = id;
+        this.name = name != null ? name : "(Untitled)";
+        this.nameKey = name != null ? name.toLowerCase() : "";
+        this.emoji = emoji != null && !emoji.isEmpty() ? emoji : "✅";
+        this.color = color;
+        this.pinned = pinned;
+        this.archived = archived;
+        this.createdBy = createdBy;
+        this.createdAtMillis = createdAtMillis;
+        this.itemCount = itemCount;
+        this.checkedCount = Math.max(0, Math.min(checkedCount, Math.max(itemCount, 0)));
+    }
+
+    public boolean hasCounts() { return itemCount >= 0; }
+
+    @Override public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ListSummary)) return false;
+        ListSummary l = (ListSummary) o;
+        return color == l.color && pinned == l.pinned && archived == l.archived
+                && createdAtMillis == l.createdAtMillis && itemCount == l.itemCount
+                && checkedCount == l.checkedCount && id.equals(l.id)
+                && name.equals(l.name) && emoji.equals(l.emoji)
+                && Objects.equals(createdBy, l.createdBy);
+    }
+
+    @Override public int hashCode() { return id.hashCode(); }
+}
@@ -0,0 +1,22 @@
+package com.quicklist.app.outbox;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/** {@link OutboxStorage} that survives only as long as the object, for tests and load runs. */
+public final class MemoryOutboxStorage implements OutboxStorage {
+    private final TreeMap<Long, Mutation> rows = new TreeMap<>();
+    private final String writerId = UUID.randomUUID().toString();
+
+    @Override public synchronized List<Mutation> load() { return new ArrayList<>(rows.values()); }
+
+    @Override public String writerId() { return writerId; }
+
+    @Override public synchronized void put(Mutation m) { rows.put(m.id, m); }
+
+    @Override public synchronized void remove(long id) { rows.remove(id); }
+
+    @Override public synchronized void clear() { rows.clear(); }
+}
@@ -0,0 +1,40 @@
+package com.quicklist.app.outbox;
+
+/**
+ * One item write the outbox holds until Firestore has it, as stored and replayed. Each
+ * kind replays idempotently: a toggle says the end state, a quantity step is checked
+ * against the marker its live write leaves on the item, and a recount reads the counts
+ * afresh.
+ */
+public final class Mutation {
+    public enum Kind {
+        SET_CHECKED,
+        STEP_QUANTITY,
+        /** The list's itemCount/checkedCount may be off and must be counted again. */
+        RECOUNT
+    }
+
+    /** The write's number: unique to this installation, increasing, and the replay order. */
+    public final long id;
+    public final Kind kind;
+    public final String listId;
+    /** Empty for {@link Kind#RECOUNT}. */
+    public final String itemId;
+    /** The value a {@link Kind#SET_CHECKED} sets. */
+    public final boolean checked;
+    /** The step a {@link Kind#STEP_QUANTITY} adds. */
+    public final int delta;
+
+    public Mutation(long id, Kind kind, String listId, String itemId, boolean checked, int delta) {
+        this.id = id;
+        this.kind = kind;
+        this.listId = listId;
+        this.itemId = itemId;
+        this.checked = checked;
+        this.delta = delta;
+    }
+
+    @Override public String toString() {
+        return id + " " + kind + " " + listId + "/" + itemId;
+    }
+}
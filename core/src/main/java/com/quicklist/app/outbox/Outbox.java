@@ -0,0 +1,149 @@
+package com.quicklist.app.outbox;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Durable record of item writes Firestore hasn't taken yet, i.e. edits still held by the
+ * write coalescer, and of lists whose counters are due a recount. A write is recorded when
+ * it is made and settled by {@link #sent} once it is in Firestore's write queue, which
+ * delivers it from then on. Anything still here later (the process died first, or a
+ * recount) is sent by {@link #replay}, in order.
+ *
+ * A later toggle of an item replaces an earlier one, and a list needs only one recount,
+ * queued after everything recorded before it. Quantity steps are kept one per write, each
+ * with its own number, so a replay can tell which of them the server already applied.
+ * Thread-safe; replay runs on a worker thread while the app records.
+ */
+public final class Outbox {
+    /** Sends one mutation and blocks until the server has it. Must be idempotent. */
+    public interface Backend {
+        void apply(Mutation m) throws Exception;
+
+        /** True if retrying {@code e} can't help, e.g. the write was rejected. */
+        boolean isPermanent(Exception e);
+    }
+
+    public enum Replay { DONE, RETRY }
+
+    private static final String CHECKED = "#checked", RECOUNT = "#recount";
+
+    private final OutboxStorage storage;
+    private final String writerId;
+    private final TreeMap<Long, Mutation> byId = new TreeMap<>();
+    private final Map<String, Long> slots = new HashMap<>(); // "listId/itemId#slot" -> id
+    private long lastId;
+    private long replayed, dropped;
+
+    /** Reads the storage, so off the main thread. */
+    public Outbox(OutboxStorage storage) {
+        this.storage = storage;
+        this.writerId = storage.writerId();
+        for (Mutation m : storage.load()) {
+            byId.put(m.id, m);
+            String key = slot(m);
+            if (key != null) slots.put(key, m.id);
+            lastId = Math.max(lastId, m.id);
+        }
+    }
+
+    /** Names this installation in the markers quantity steps leave on items. */
+    public String writerId() { return writerId; }
+
+    /** Records a toggle; pass the returned number to {@link #sent}. */
+    public synchronized long setChecked(String listId, String itemId, boolean checked) {
+        return store(new Mutation(nextId(), Mutation.Kind.SET_CHECKED, listId, itemId, checked, 0));
+    }
+
+    /** Records a quantity step; its live write marks the item with the returned number. */
+    public synchronized long stepQuantity(String listId, String itemId, int delta) {
+        return store(new Mutation(nextId(), Mutation.Kind.STEP_QUANTITY, listId, itemId, false, delta));
+    }
+
+    /** The list's counters may be off, e.g. after crossing edits; settled by replay alone. */
+    public synchronized void recount(String listId) {
+        store(new Mutation(nextId(), Mutation.Kind.RECOUNT, listId, "", false, 0));
+    }
+
+    /**
+     * Firestore has the write in its write queue, or a replay sent or dropped it. A write
+     * replaced meanwhile has nothing left to settle.
+     */
+    public synchronized void sent(long id) {
+        Mutation m = byId.remove(id);
+        if (m == null) return;
+        String key = slot(m);
+        if (key != null) slots.remove(key, id);
+        storage.remove(id);
+    }
+
+    /**
+     * Sends every pending mutation in order. Stops at the first failure worth retrying
+     * and returns {@link Replay#RETRY}; a permanently rejected mutation is dropped.
+     */
+    public Replay replay(Backend backend) {
+        while (true) {
+            Mutation m;
+            synchronized (this) {
+                if (byId.isEmpty()) return Replay.DONE;
+                m = byId.firstEntry().getValue();
+            }
+            try {
+                backend.apply(m);
+                synchronized (this) { replayed++; }
+            } catch (Exception e) {
+                if (!backend.isPermanent(e)) return Replay.RETRY;
+                synchronized (this) { dropped++; }
+            }
+            sent(m.id);
+        }
+    }
+
+    public synchronized int pending() { return byId.size(); }
+
+    /** Pending mutations in replay order. */
+    public synchronized List<Mutation> snapshot() { return new ArrayList<>(byId.values()); }
+
+    public synchronized long replayedCount() { return replayed; }
+
+    public synchronized long droppedCount() { return dropped; }
+
+    /** Forgets everything, e.g. on sign-out, when the writes would be made as someone else. */
+    public synchronized void clear() {
+        byId.clear();
+        slots.clear();
+        storage.clear();
+    }
+
+    // Clock-based, so numbers keep increasing across restarts once the table has emptied
+    private long nextId() {
+        lastId = Math.max(lastId + 1, System.currentTimeMillis());
+        return lastId;
+    }
+
+    private long store(Mutation m) {
+        String key = slot(m);
+        if (key != null) {
+            Long replaced = slots.put(key, m.id);
+            if (replaced != null) {
+                byId.remove(replaced);
+                storage.remove(replaced);
+            }
+        }
+        byId.put(m.id, m);
+        storage.put(m);
+        return m.id;
+    }
+
+    // Entries sharing a slot replace each other; quantity steps have none
+    private static String slot(Mutation m) {
+        switch (m.kind) {
+            case SET_CHECKED: return m.listId + "/" + m.itemId + CHECKED;
+            case RECOUNT: return m.listId + RECOUNT;
+            default: return null;
+        }
+    }
+}
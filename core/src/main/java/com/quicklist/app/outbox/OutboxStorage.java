@@ -0,0 +1,19 @@
+package com.quicklist.app.outbox;
+
+import java.util.List;
+
+/** Where an {@link Outbox} keeps its mutations across process death. Called under the outbox's lock. */
+public interface OutboxStorage {
+    /** Every stored mutation, by id. */
+    List<Mutation> load();
+
+    /** An id for this installation, made on first use and kept from then on. */
+    String writerId();
+
+    /** Inserts the mutation, or replaces the one with the same id. */
+    void put(Mutation m);
+
+    void remove(long id);
+
+    void clear();
+}
@@ -0,0 +1,63 @@
+package com.quicklist.app.perf;
+
+import java.util.Arrays;
+
+/**
+ * Latency histogram over nanosecond samples. Count, mean and max cover every sample;
+ * percentiles come from a ring of the most recent {@link #DEFAULT_WINDOW} samples, so
+ * they follow what the app is doing now rather than averaging over a whole session.
+ *
+ * Plain Java and synchronized: samples arrive from the main thread and from executors.
+ */
+public final class Histogram {
+    public static final int DEFAULT_WINDOW = 1024;
+
+    /** Immutable read-out; all times in nanoseconds. */
+    public static final class Snapshot {
+        public final long count, mean, p50, p90, p99, max;
+
+        Snapshot(long count, long mean, long p50, long p90, long p99, long max) {
+            this.count = count; this.mean = mean;
+            this.p50 = p50; this.p90 = p90; this.p99 = p99; this.max = max;
+        }
+    }
+
+    private final long[] window;
+    private int next, filled;
+    private long count, sum, max;
+
+    public Histogram() { this(DEFAULT_WINDOW); }
+
+    public Histogram(int windowSize) {
+        window = new long[windowSize];
+    }
+
+    public synchronized void record(long nanos) {
+        if (nanos < 0) return;
+        window[next] = nanos;
+        next = (next + 1) % window.length;
+        if (filled < window.length) filled++;
+        count++;
+        sum += nanos;
+        if (nanos > max) max = nanos;
+    }
+
+    public synchronized Snapshot snapshot() {
+        if (count == 0) return new Snapshot(0, 0, 0, 0, 0, 0);
+        long[] sorted = Arrays.copyOf(window, filled);
+        Arrays.sort(sorted);
+        return new Snapshot(count, sum / count,
+                percentile(sorted, 50), percentile(sorted, 90), percentile(sorted, 99), max);
+    }
+
+    public synchronized void reset() {
+        next = filled = 0;
+        count = sum = max = 0;
+    }
+
+    // Nearest-rank percentile over an ascending array
+    private static long percentile(long[] sorted, int p) {
+        int rank = (int) Math.ceil(p / 100.0 * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))];
+    }
+}
@@ -0,0 +1,270 @@
+package com.quicklist.app.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * On-device inverted index over list names and item text.
+ * Every query token is matched as a prefix of an indexed token, all tokens must
+ * match (AND), and hits are ranked by exact-vs-prefix matches with list names
+ * ahead of items. Fed incrementally from snapshot changes; thread-safe.
+ *
+ * Postings are primitive int slots and query scratch space is reused, so a query
+ * allocates only for the hits it returns.
+ */
+public final class SearchIndex {
+
+    public static final class Hit {
+        public final String listId;
+        public final String itemId;   // null when the list name matched
+        public final String text;
+        public final int score;
+
+        Hit(String listId, String itemId, String text, int score) {
+            this.listId = listId;
+            this.itemId = itemId;
+            this.text = text;
+            this.score = score;
+        }
+    }
+
+    private static final class Entry {
+        final String key, listId, itemId, text;
+        final int listSlot;
+        final String[] tokens;
+        Entry(String key, String listId, String itemId, String text, int listSlot, String[] tokens) {
+            this.key = key; this.listId = listId; this.itemId = itemId;
+            this.text = text; this.listSlot = listSlot; this.tokens = tokens;
+        }
+    }
+
+    /** Unordered growable int set; removal swaps with the last element. */
+    private static final class Postings {
+        int[] slots = new int[4];
+        int size;
+        void add(int slot) {
+            if (size == slots.length) slots = Arrays.copyOf(slots, size * 2);
+            slots[size++] = slot;
+        }
+        void remove(int slot) {
+            for (int i = 0; i < size; i++) {
+                if (slots[i] == slot) { slots[i] = slots[--size]; return; }
+            }
+        }
+    }
+
+    private static final SearchIndex INSTANCE = new SearchIndex();
+
+    public static SearchIndex get() { return INSTANCE; }
+
+    // token -> doc slots; TreeMap so a prefix is one subMap walk
+    private final TreeMap<String, Postings> postings = new TreeMap<>();
+    private final Map<String, Integer> slotByKey = new HashMap<>();
+    private final List<Entry> entries = new ArrayList<>();
+    private final List<Integer> freeSlots = new ArrayList<>();
+    private final Map<String, Integer> listSlots = new HashMap<>();
+    private final Map<String, Set<String>> itemKeysByList = new HashMap<>();
+    private final Set<String> listsWithItems = new HashSet<>();
+
+    // Query scratch, sized to entries; stamp[] marks how many terms a slot has matched
+    private int[] stamp = new int[0], score = new int[0], termBest = new int[0];
+    private int[] bestByList = new int[0];
+    private int[] touched = new int[0];
+    private int epoch = 0;
+
+    public synchronized void putList(String listId, String name) {
+        put(listId, listId, null, name);
+    }
+
+    /** Drops the list name and every item indexed under it. */
+    public synchronized void removeList(String listId) {
+        remove(listId);
+        Set<String> items = itemKeysByList.remove(listId);
+        if (items != null) for (String key : items) remove(key);
+        listsWithItems.remove(listId);
+    }
+
+    public synchronized void putItem(String listId, String itemId, String text) {
+        String key = listId + "/" + itemId;
+        put(key, listId, itemId, text);
+        Set<String> keys = itemKeysByList.get(listId);
+        if (keys == null) { keys = new HashSet<>(); itemKeysByList.put(listId, keys); }
+        keys.add(key);
+    }
+
+    public synchronized void removeItem(String listId, String itemId) {
+        String key = listId + "/" + itemId;
+        remove(key);
+        Set<String> keys = itemKeysByList.get(listId);
+        if (keys != null) keys.remove(key);
+    }
+
+    /** Marks a list's items as loaded, so callers know not to fetch them again. */
+    public synchronized void markItemsIndexed(String listId) {
+        listsWithItems.add(listId);
+    }
+
+    public synchronized boolean hasItems(String listId) {
+        return listsWithItems.contains(listId);
+    }
+
+    public synchronized void clear() {
+        postings.clear();
+        slotByKey.clear();
+        entries.clear();
+        freeSlots.clear();
+        listSlots.clear();
+        itemKeysByList.clear();
+        listsWithItems.clear();
+    }
+
+    /** Ranked hits, best first, at most {@code limit}. */
+    public synchronized List<Hit> query(String q, int limit) {
+        return collect(q, limit, false);
+    }
+
+    /** Like {@link #query} but keeps only the best hit per list. */
+    public synchronized List<Hit> queryLists(String q, int limit) {
+        return collect(q, limit, true);
+    }
+
+    private List<Hit> collect(String q, int limit, boolean perList) {
+        String[] terms = tokenize(q);
+        if (terms.length == 0 || entries.isEmpty()) return Collections.emptyList();
+        ensureScratch();
+
+        // Each term only keeps slots that matched every earlier term
+        int base = epoch;
+        epoch += terms.length + 1;
+        int touchedCount = 0;
+        for (int k = 0; k < terms.length; k++) {
+            String term = terms[k];
+            int want = base + k, mark = base + k + 1;
+            SortedMap<String, Postings> range = postings.subMap(term, term + Character.MAX_VALUE);
+            for (Map.Entry<String, Postings> e : range.entrySet()) {
+                int s = e.getKey().length() == term.length() ? 2 : 1;
+                Postings p = e.getValue();
+                for (int i = 0; i < p.size; i++) {
+                    int slot = p.slots[i];
+                    if (stamp[slot] == mark) {
+                        if (s > termBest[slot]) { score[slot] += s - termBest[slot]; termBest[slot] = s; }
+                    } else if (k == 0 ? stamp[slot] < base + 1 : stamp[slot] == want) {
+                        if (k == 0) { score[slot] = 0; touched[touchedCount++] = slot; }
+                        stamp[slot] = mark;
+                        score[slot] += s;
+                        termBest[slot] = s;
+                    }
+                }
+            }
+        }
+
+        int done = base + terms.length;
+        List<Hit> hits = new ArrayList<>();
+        if (perList) {
+            Arrays.fill(bestByList, -1);
+            for (int i = 0; i < touchedCount; i++) {
+                int slot = touched[i];
+                if (stamp[slot] != done) continue;
+                int ls = entries.get(slot).listSlot;
+                int cur = bestByList[ls];
+                if (cur < 0 || rank(slot) > rank(cur)) bestByList[ls] = slot;
+            }
+            for (int slot : bestByList) if (slot >= 0) hits.add(toHit(slot));
+        } else {
+            for (int i = 0; i < touchedCount; i++) {
+                int slot = touched[i];
+                if (stamp[slot] == done) hits.add(toHit(slot));
+            }
+        }
+        Collections.sort(hits, (a, b) -> {
+            if (a.score != b.score) return b.score - a.score;
+            return a.text.length() - b.text.length();
+        });
+        return hits.size() > limit ? new ArrayList<>(hits.subList(0, limit)) : hits;
+    }
+
+    private int rank(int slot) {
+        Entry en = entries.get(slot);
+        return score[slot] * 4 + (en.itemId == null ? 2 : 0);
+    }
+
+    private Hit toHit(int slot) {
+        Entry en = entries.get(slot);
+        return new Hit(en.listId, en.itemId, en.text, rank(slot));
+    }
+
+    private void ensureScratch() {
+        int n = entries.size();
+        if (stamp.length < n) {
+            int cap = Math.max(n, stamp.length * 2);
+            stamp = Arrays.copyOf(stamp, cap);
+            score = Arrays.copyOf(score, cap);
+            termBest = Arrays.copyOf(termBest, cap);
+            touched = new int[cap];
+        }
+        if (bestByList.length != listSlots.size()) bestByList = new int[listSlots.size()];
+        if (epoch > Integer.MAX_VALUE / 2) { Arrays.fill(stamp, 0); epoch = 0; }
+    }
+
+    private void put(String key, String listId, String itemId, String text) {
+        String safe = text != null ? text : "";
+        Integer slot = slotByKey.get(key);
+        if (slot != null) {
+            Entry old = entries.get(slot);
+            if (old.text.equals(safe)) return;
+            unpost(slot, old.tokens);
+        } else {
+            slot = freeSlots.isEmpty() ? entries.size() : freeSlots.remove(freeSlots.size() - 1);
+            if (slot == entries.size()) entries.add(null);
+            slotByKey.put(key, slot);
+        }
+        Integer ls = listSlots.get(listId);
+        if (ls == null) { ls = listSlots.size(); listSlots.put(listId, ls); }
+        String[] tokens = tokenize(safe);
+        entries.set(slot, new Entry(key, listId, itemId, safe, ls, tokens));
+        for (String t : tokens) {
+            Postings p = postings.get(t);
+            if (p == null) { p = new Postings(); postings.put(t, p); }
+            p.add(slot);
+        }
+    }
+
+    private void remove(String key) {
+        Integer slot = slotByKey.remove(key);
+        if (slot == null) return;
+        Entry old = entries.set(slot, null);
+        if (old != null) unpost(slot, old.tokens);
+        freeSlots.add(slot);
+    }
+
+    private void unpost(int slot, String[] tokens) {
+        for (String t : tokens) {
+            Postings p = postings.get(t);
+            if (p == null) continue;
+            p.remove(slot);
+            if (p.size == 0) postings.remove(t);
+        }
+    }
+
+    /** Lowercase letter/digit runs, de-duplicated. */
+    static String[] tokenize(String text) {
+        if (text == null || text.isEmpty()) return new String[0];
+        String lower = text.toLowerCase();
+        Set<String> out = new HashSet<>();
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean word = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (word && start < 0) start = i;
+            else if (!word && start >= 0) { out.add(lower.substring(start, i)); start = -1; }
+        }
+        return out.toArray(new String[0]);
+    }
+}
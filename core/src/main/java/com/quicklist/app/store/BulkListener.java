@@ -0,0 +1,9 @@
+package com.quicklist.app.store;
+
+/** Progress of a bulk write that is committed in chunks. */
+public interface BulkListener {
+    void onProgress(int done, int total);
+
+    /** {@code done} ops were committed; {@code error} is null when all of them were. */
+    void onComplete(int done, Exception error);
+}
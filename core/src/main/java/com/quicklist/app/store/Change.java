@@ -0,0 +1,24 @@
+package com.quicklist.app.store;
+
+/** One document change inside a {@link StoreSnapshot}, already decoded. */
+public final class Change<T> {
+    public enum Type { ADDED, MODIFIED, REMOVED }
+
+    public final Type type;
+    public final String id;
+    public final T value;   // for REMOVED, the last value the store had
+
+    public Change(Type type, String id, T value) {
+        this.type = type;
+        this.id = id;
+        this.value = value;
+    }
+
+    public static <T> Change<T> added(String id, T value) { return new Change<>(Type.ADDED, id, value); }
+
+    public static <T> Change<T> modified(String id, T value) { return new Change<>(Type.MODIFIED, id, value); }
+
+    public static <T> Change<T> removed(String id, T value) { return new Change<>(Type.REMOVED, id, value); }
+
+    @Override public String toString() { return type + " " + id; }
+}
@@ -0,0 +1,773 @@
+package com.quicklist.app.store;
+
+import com.quicklist.app.core.SnapshotMerge;
+import com.quicklist.app.models.ItemSummary;
+import com.quicklist.app.models.ListSummary;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+/**
+ * Firestore stand-in for JVM and Robolectric tests and load runs. Delivers the same
+ * event sequence a Firestore listener does:
+ * <ul>
+ *   <li>a query opens with a cache read ({@code fromCache}, every row ADDED) and then a
+ *       server snapshot carrying only what changed in between;</li>
+ *   <li>a local write shows up at once with {@code hasPendingWrites}, and its ack later
+ *       arrives as a metadata-only snapshot (or, if rejected, as the rollback);</li>
+ *   <li>another member's write arrives after {@link #setLatency remote latency} as a
+ *       server snapshot;</li>
+ *   <li>changes made in the same scheduler task are delivered as one snapshot.</li>
+ * </ul>
+ * Item writes keep the list's itemCount/checkedCount in step, like the batched counters
+ * in the app. Item feeds don't page: one is fully loaded after its first server snapshot.
+ * The archived lists feed does, {@link PagedFeed#PAGE_SIZE} lists at a time.
+ *
+ * Confined to the {@link Scheduler}'s thread, which is also where observers are called.
+ * Each item costs roughly 300 bytes, so 500 lists of 1,000 items want about 160 MB of heap.
+ */
+public final class InMemoryStore implements StoreFactory {
+    public static final long DEFAULT_CACHE_MS = 5;
+    public static final long DEFAULT_SERVER_MS = 80;
+    public static final long DEFAULT_ACK_MS = 120;
+    public static final long DEFAULT_REMOTE_MS = 150;
+    /** Same per-commit limit as Firestore; one slot of each chunk goes to the list's counters. */
+    public static final int MAX_OPS_PER_BATCH = 500;
+
+    static final int DEFAULT_COLOR = 0xFF16A34A;
+    private static final long EPOCH_MS = 1_700_000_000_000L; // createdAt base, so virtual-time runs repeat exactly
+    private static final String ID_CHARS = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
+
+    private static final Comparator<ItemSummary> CREATION_ORDER = (a, b) ->
+            a.createdAtMillis != b.createdAtMillis
+                    ? Long.compare(a.createdAtMillis, b.createdAtMillis) : a.id.compareTo(b.id);
+
+    /** The simulated server refused a write, like PERMISSION_DENIED from Firestore. */
+    public static final class WriteRejectedException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        WriteRejectedException() { super("Write rejected by the server"); }
+    }
+
+    private static final class ListRow {
+        ListSummary doc;
+        final Set<String> members;
+        int pendingWrites;
+
+        ListRow(ListSummary doc, Collection<String> members) {
+            this.doc = doc;
+            this.members = new HashSet<>(members);
+        }
+    }
+
+    private static final class ItemTable {
+        final Map<String, ItemSummary> byId = new HashMap<>();
+        final TreeSet<ItemSummary> ordered = new TreeSet<>(CREATION_ORDER);
+        // Ids in no particular order, for O(1) random picks by the load generator
+        final List<String> ids = new ArrayList<>();
+        final Map<String, Integer> slot = new HashMap<>();
+        int pendingWrites;
+
+        ItemSummary put(ItemSummary item) {
+            ItemSummary prev = byId.put(item.id, item);
+            if (prev != null) {
+                ordered.remove(prev);
+            } else {
+                slot.put(item.id, ids.size());
+                ids.add(item.id);
+            }
+            ordered.add(item);
+            return prev;
+        }
+
+        ItemSummary remove(String id) {
+            ItemSummary prev = byId.remove(id);
+            if (prev == null) return null;
+            ordered.remove(prev);
+            int i = slot.remove(id);
+            String last = ids.remove(ids.size() - 1);
+            if (i < ids.size()) {
+                ids.set(i, last);
+                slot.put(last, i);
+            }
+            return prev;
+        }
+    }
+
+    private final Scheduler scheduler;
+    private final String localUid;
+    private final Random random;
+    private final Map<String, ListRow> lists = new HashMap<>();
+    private final List<ListRow> listOrder = new ArrayList<>(); // createdAt ASC
+    private final Map<String, ItemTable> items = new HashMap<>();
+    private final List<ListsQuery> listQueries = new ArrayList<>();
+    private final Map<String, List<ItemsQuery>> itemQueries = new HashMap<>();
+
+    private long cacheMs = DEFAULT_CACHE_MS;
+    private long serverMs = DEFAULT_SERVER_MS;
+    private long ackMs = DEFAULT_ACK_MS;
+    private long remoteMs = DEFAULT_REMOTE_MS;
+    private boolean rejectWrites;
+
+    /** @param localUid the member this device is signed in as */
+    public InMemoryStore(Scheduler scheduler, String localUid, long seed) {
+        this.scheduler = scheduler;
+        this.localUid = localUid;
+        this.random = new Random(seed);
+    }
+
+    public void setLatency(long cacheMs, long serverMs, long ackMs, long remoteMs) {
+        this.cacheMs = cacheMs;
+        this.serverMs = serverMs;
+        this.ackMs = ackMs;
+        this.remoteMs = remoteMs;
+    }
+
+    /** While set, local writes are applied optimistically and rolled back when their ack comes due. */
+    public void setRejectWrites(boolean reject) {
+        this.rejectWrites = reject;
+    }
+
+    public Scheduler scheduler() { return scheduler; }
+
+    // ===== StoreFactory =====
+    @Override public ListStore lists(Consumer<Exception> onWriteError) { return new Lists(onWriteError); }
+
+    @Override public ItemStore items(Consumer<Exception> onWriteError) { return new Items(onWriteError); }
+
+    @Override public String uid() { return localUid; }
+
+    /** Closes every open query; the data stays, as it would on a server. */
+    @Override public void signOut() {
+        for (ListsQuery q : new ArrayList<>(listQueries)) q.close();
+        for (List<ItemsQuery> qs : new ArrayList<>(itemQueries.values())) {
+            for (ItemsQuery q : new ArrayList<>(qs)) q.close();
+        }
+    }
+
+    // ===== Server-side state, for seeding and load generation =====
+
+    /** Creates a list as if it were already on the server: no events, no pending writes. */
+    public void seedList(String listId, String name, String createdBy, long createdAtMillis,
+                         Collection<String> members) {
+        addList(new ListSummary(listId, name, "✅", DEFAULT_COLOR, false, false,
+                createdBy, createdAtMillis, 0, 0), members);
+    }
+
+    public void seedItem(String listId, ItemSummary item) {
+        applyItem(listId, item.id, item);
+    }
+
+    /** Another member adds an item; it reaches this device after the remote latency. Returns its id. */
+    public String remoteAdd(String listId, String text, String uid, int quantity) {
+        String id = newId();
+        long createdAt = nowMillis();
+        scheduler.schedule(() -> {
+            if (lists.containsKey(listId)) applyItem(listId, id, new ItemSummary(id, text, uid, createdAt, false, quantity));
+        }, remoteMs);
+        return id;
+    }
+
+    /** Another member flips an item's checked state, as it stands when the write arrives. */
+    public void remoteToggle(String listId, String itemId) {
+        scheduler.schedule(() -> {
+            ItemSummary cur = item(listId, itemId);
+            if (cur != null) applyItem(listId, itemId, cur.withChecked(!cur.checked));
+        }, remoteMs);
+    }
+
+    public void remoteDelete(String listId, String itemId) {
+        scheduler.schedule(() -> applyItem(listId, itemId, null), remoteMs);
+    }
+
+    public List<String> listIds() {
+        List<String> out = new ArrayList<>(listOrder.size());
+        for (ListRow r : listOrder) out.add(r.doc.id);
+        return out;
+    }
+
+    public ListSummary list(String listId) {
+        ListRow row = lists.get(listId);
+        return row == null ? null : row.doc;
+    }
+
+    public ItemSummary item(String listId, String itemId) {
+        ItemTable t = items.get(listId);
+        return t == null ? null : t.byId.get(itemId);
+    }
+
+    public int itemCount(String listId) {
+        ItemTable t = items.get(listId);
+        return t == null ? 0 : t.byId.size();
+    }
+
+    /** A uniformly random item id of the list, or null if it is empty. */
+    public String randomItemId(String listId, Random r) {
+        ItemTable t = items.get(listId);
+        return t == null || t.ids.isEmpty() ? null : t.ids.get(r.nextInt(t.ids.size()));
+    }
+
+    /** Firestore-style 20-character id, drawn from the store's seeded random. */
+    public String newId() {
+        char[] c = new char[20];
+        for (int i = 0; i < c.length; i++) c[i] = ID_CHARS.charAt(random.nextInt(ID_CHARS.length()));
+        return new String(c);
+    }
+
+    public long nowMillis() {
+        return EPOCH_MS + scheduler.nowNanos() / 1_000_000L;
+    }
+
+    // ===== Live queries =====
+    private abstract class LiveQuery<T> implements Subscription {
+        final StoreObserver<T> observer;
+        List<Change<T>> queued = new ArrayList<>();
+        List<T> delivered = Collections.emptyList();
+        boolean started, live, closed, dispatchScheduled, lastPending;
+
+        LiveQuery(StoreObserver<T> observer) { this.observer = observer; }
+
+        abstract List<T> rows();
+
+        abstract boolean pending();
+
+        abstract void unregister();
+
+        void start() {
+            scheduler.schedule(() -> {
+                if (closed) return;
+                started = true;
+                List<T> rows = rows();
+                observer.onCacheRead(!rows.isEmpty());
+                if (rows.isEmpty()) return;
+                delivered = rows;
+                List<Change<T>> all = new ArrayList<>(rows.size());
+                for (T row : rows) all.add(Change.added(idOf(row), row));
+                lastPending = pending();
+                observer.onSnapshot(new StoreSnapshot<>(rows, all, true, lastPending));
+            }, cacheMs);
+            scheduler.schedule(() -> {
+                if (closed) return;
+                live = true;
+                deliver(true); // whatever changed since the cache read, or just fromCache flipping
+            }, Math.max(cacheMs, serverMs));
+        }
+
+        abstract String idOf(T row);
+
+        /** What changed since {@link #delivered}; by default the changes queued meanwhile. */
+        List<Change<T>> changesSince(List<T> rows) {
+            List<Change<T>> out = queued;
+            queued = new ArrayList<>();
+            return out;
+        }
+
+        void queue(Change<T> c) {
+            if (closed || !started) return; // not delivered yet: the first delivery reads rows() fresh
+            queued.add(c);
+            scheduleDispatch();
+        }
+
+        /** Pending-writes state may have flipped; delivers a metadata-only snapshot if it did. */
+        void poke() {
+            if (closed || !live || pending() == lastPending) return;
+            scheduleDispatch();
+        }
+
+        void scheduleDispatch() {
+            if (!live || dispatchScheduled) return;
+            dispatchScheduled = true;
+            scheduler.schedule(() -> {
+                dispatchScheduled = false;
+                if (!closed) deliver(false);
+            }, 0);
+        }
+
+        private void deliver(boolean always) {
+            List<T> rows = rows();
+            List<Change<T>> out = changesSince(rows);
+            boolean pending = pending();
+            if (!always && out.isEmpty() && pending == lastPending) return;
+            delivered = rows;
+            lastPending = pending;
+            observer.onSnapshot(new StoreSnapshot<>(rows, out, false, lastPending));
+        }
+
+        @Override public void close() {
+            if (closed) return;
+            closed = true;
+            unregister();
+        }
+    }
+
+    // A list enters or leaves the query when its archived flag flips, so rather than
+    // queueing changes a lists query diffs its rows against the last delivery
+    private class ListsQuery extends LiveQuery<ListSummary> {
+        final String uid;
+        final boolean archived;
+        int limit;
+
+        ListsQuery(String uid, boolean archived, int limit, StoreObserver<ListSummary> observer) {
+            super(observer);
+            this.uid = uid;
+            this.archived = archived;
+            this.limit = limit;
+        }
+
+        boolean matches(ListRow r, ListSummary doc) {
+            return doc != null && doc.archived == archived && r.members.contains(uid);
+        }
+
+        /** A member list changed; it only matters if it matched before or after. */
+        void touch(ListRow r, ListSummary before) {
+            if (closed || !started || !(matches(r, before) || matches(r, r.doc))) return;
+            scheduleDispatch();
+        }
+
+        @Override List<ListSummary> rows() {
+            List<ListSummary> out = new ArrayList<>();
+            for (int i = listOrder.size() - 1; i >= 0 && out.size() < limit; i--) {
+                ListRow r = listOrder.get(i);
+                if (matches(r, r.doc)) out.add(r.doc);
+            }
+            return out;
+        }
+
+        @Override boolean pending() {
+            for (ListRow r : listOrder) if (r.pendingWrites > 0 && matches(r, r.doc)) return true;
+            return false;
+        }
+
+        @Override String idOf(ListSummary row) { return row.id; }
+
+        @Override List<Change<ListSummary>> changesSince(List<ListSummary> rows) {
+            return SnapshotMerge.diff(delivered, rows, l -> l.id);
+        }
+
+        @Override void unregister() { listQueries.remove(this); }
+    }
+
+    private final class ArchivedQuery extends ListsQuery implements PagedFeed {
+        ArchivedQuery(String uid, StoreObserver<ListSummary> observer) {
+            super(uid, true, PAGE_SIZE, observer);
+        }
+
+        @Override public void loadMore() {
+            if (closed || !live || delivered.size() < limit) return;
+            limit += PAGE_SIZE;
+            scheduleDispatch();
+        }
+
+        @Override public boolean isFullyLoaded() { return live && !dispatchScheduled && delivered.size() < limit; }
+    }
+
+    private final class ItemsQuery extends LiveQuery<ItemSummary> implements ItemFeed {
+        final String listId;
+
+        ItemsQuery(String listId, StoreObserver<ItemSummary> observer) {
+            super(observer);
+            this.listId = listId;
+        }
+
+        @Override List<ItemSummary> rows() {
+            ItemTable t = items.get(listId);
+            return t == null ? new ArrayList<>() : new ArrayList<>(t.ordered);
+        }
+
+        @Override boolean pending() {
+            ItemTable t = items.get(listId);
+            return t != null && t.pendingWrites > 0;
+        }
+
+        @Override String idOf(ItemSummary row) { return row.id; }
+
+        @Override void unregister() {
+            List<ItemsQuery> qs = itemQueries.get(listId);
+            if (qs == null) return;
+            qs.remove(this);
+            if (qs.isEmpty()) itemQueries.remove(listId);
+        }
+
+        @Override public void onViewport(String firstVisibleId, String lastVisibleId) {}
+
+        @Override public void loadMore() {}
+
+        @Override public boolean isFullyLoaded() { return live; }
+
+        @Override public boolean startedWarm() { return false; }
+
+        @Override public int liveListenerCount() { return closed ? 0 : 1; }
+    }
+
+    // ===== Applying changes =====
+
+    // Every mutation goes through here so queries see exactly one change per document edit.
+    // after == null removes the item.
+    private void applyItem(String listId, String itemId, ItemSummary after) {
+        ItemTable t = table(listId);
+        ItemSummary prev = after != null ? t.put(after) : t.remove(itemId);
+        if (after == null && prev == null) return;
+        if (prev != null && prev.equals(after)) return;
+        Change<ItemSummary> c = after == null ? Change.removed(itemId, prev)
+                : prev == null ? Change.added(itemId, after) : Change.modified(itemId, after);
+        List<ItemsQuery> qs = itemQueries.get(listId);
+        if (qs != null) for (ItemsQuery q : qs) q.queue(c);
+
+        int dItems = (after != null ? 1 : 0) - (prev != null ? 1 : 0);
+        int dChecked = (after != null && after.checked ? 1 : 0) - (prev != null && prev.checked ? 1 : 0);
+        if (dItems != 0 || dChecked != 0) {
+            applyList(listId, l -> rebuild(l, l.pinned, l.archived, l.color, l.emoji,
+                    Math.max(0, l.itemCount) + dItems, l.checkedCount + dChecked));
+        }
+    }
+
+    private void applyList(String listId, UnaryOperator<ListSummary> edit) {
+        ListRow row = lists.get(listId);
+        if (row == null) return;
+        ListSummary prev = row.doc;
+        row.doc = edit.apply(prev);
+        if (!row.doc.equals(prev)) notifyLists(row, prev);
+    }
+
+    private void addList(ListSummary doc, Collection<String> members) {
+        ListRow row = new ListRow(doc, members);
+        lists.put(doc.id, row);
+        int i = listOrder.size();
+        while (i > 0 && listOrder.get(i - 1).doc.createdAtMillis > doc.createdAtMillis) i--;
+        listOrder.add(i, row);
+        notifyLists(row, null);
+    }
+
+    private void removeList(String listId) {
+        ListRow row = lists.remove(listId);
+        if (row == null) return;
+        listOrder.remove(row);
+        items.remove(listId);
+        notifyLists(row, row.doc);
+    }
+
+    private void notifyLists(ListRow row, ListSummary before) {
+        for (ListsQuery q : listQueries) q.touch(row, before);
+    }
+
+    private ItemTable table(String listId) {
+        ItemTable t = items.get(listId);
+        if (t == null) { t = new ItemTable(); items.put(listId, t); }
+        return t;
+    }
+
+    // ===== Local writes =====
+
+    /** Edits one local commit made, with what each document looked like before it. */
+    private final class Txn {
+        final Map<String, ItemSummary> itemsBefore = new LinkedHashMap<>(); // "listId/itemId" -> null if absent
+        final Map<String, ListSummary> listsBefore = new LinkedHashMap<>(); // explicit list edits only
+        final Set<String> itemLists = new LinkedHashSet<>();                // lists whose items (and counters) changed
+
+        void putItem(String listId, ItemSummary after) {
+            rememberItem(listId, after.id);
+            applyItem(listId, after.id, after);
+        }
+
+        void removeItem(String listId, String itemId) {
+            rememberItem(listId, itemId);
+            applyItem(listId, itemId, null);
+        }
+
+        void editList(String listId, UnaryOperator<ListSummary> edit) {
+            ListRow row = lists.get(listId);
+            if (row == null) return;
+            if (!listsBefore.containsKey(listId)) listsBefore.put(listId, row.doc);
+            applyList(listId, edit);
+        }
+
+        void createList(ListSummary doc, Collection<String> members) {
+            listsBefore.put(doc.id, null);
+            addList(doc, members);
+        }
+
+        private void rememberItem(String listId, String itemId) {
+            itemLists.add(listId);
+            String key = listId + "/" + itemId;
+            if (!itemsBefore.containsKey(key)) itemsBefore.put(key, item(listId, itemId));
+        }
+    }
+
+    // Marks the txn's documents pending, then acks (or rolls back) after the ack latency
+    private void commit(Txn t, Consumer<Exception> done) {
+        for (String id : t.itemLists) { table(id).pendingWrites++; pendingOnList(id, +1); }
+        for (String id : t.listsBefore.keySet()) pendingOnList(id, +1);
+        final boolean reject = rejectWrites;
+        scheduler.schedule(() -> {
+            for (String id : t.itemLists) { table(id).pendingWrites--; pendingOnList(id, -1); }
+            for (String id : t.listsBefore.keySet()) pendingOnList(id, -1);
+            if (reject) rollBack(t);
+            for (String id : t.itemLists) pokeItems(id);
+            for (ListsQuery q : listQueries) q.poke();
+            if (done != null) done.accept(reject ? new WriteRejectedException() : null);
+        }, ackMs);
+    }
+
+    private void pendingOnList(String listId, int delta) {
+        ListRow row = lists.get(listId);
+        if (row != null) row.pendingWrites += delta;
+    }
+
+    private void pokeItems(String listId) {
+        List<ItemsQuery> qs = itemQueries.get(listId);
+        if (qs != null) for (ItemsQuery q : qs) q.poke();
+    }
+
+    // Item edits revert first (their counters follow); list edits restore the settings but
+    // keep the counters, which the item rollback has already corrected
+    private void rollBack(Txn t) {
+        for (Map.Entry<String, ItemSummary> e : t.itemsBefore.entrySet()) {
+            int slash = e.getKey().indexOf('/');
+            applyItem(e.getKey().substring(0, slash), e.getKey().substring(slash + 1), e.getValue());
+        }
+        for (Map.Entry<String, ListSummary> e : t.listsBefore.entrySet()) {
+            ListSummary b = e.getValue();
+            if (b == null) removeList(e.getKey());
+            else applyList(e.getKey(), l -> rebuild(l, b.pinned, b.archived, b.color, b.emoji, l.itemCount, l.checkedCount));
+        }
+    }
+
+    private Consumer<Exception> reportTo(Consumer<Exception> onWriteError) {
+        return e -> { if (e != null && onWriteError != null) onWriteError.accept(e); };
+    }
+
+    private final class Lists implements ListStore {
+        final Consumer<Exception> errors;
+
+        Lists(Consumer<Exception> onWriteError) { this.errors = reportTo(onWriteError); }
+
+        @Override public Subscription observe(String uid, StoreObserver<ListSummary> observer) {
+            ListsQuery q = new ListsQuery(uid, false, Integer.MAX_VALUE, observer);
+            listQueries.add(q);
+            q.start();
+            return q;
+        }
+
+        @Override public PagedFeed observeArchived(String uid, StoreObserver<ListSummary> observer) {
+            ArchivedQuery q = new ArchivedQuery(uid, observer);
+            listQueries.add(q);
+            q.start();
+            return q;
+        }
+
+        @Override public void create(String uid, String name, StoreCallback<String> callback) {
+            String id = newId();
+            Txn t = new Txn();
+            t.createList(new ListSummary(id, name, "✅", DEFAULT_COLOR, false, false, uid, nowMillis(), 0, 0),
+                    Collections.singleton(uid));
+            commit(t, callback == null ? errors : e -> callback.onResult(e == null ? id : null, e));
+        }
+
+        @Override public void setPinned(String listId, boolean pinned) {
+            edit(listId, l -> rebuild(l, pinned, l.archived, l.color, l.emoji, l.itemCount, l.checkedCount), errors);
+        }
+
+        @Override public boolean isPinned(ListSummary list) {
+            ListRow row = lists.get(list.id);
+            return row == null ? list.pinned : row.doc.pinned;
+        }
+
+        @Override public void setArchived(String listId, boolean archived, StoreCallback<Void> callback) {
+            edit(listId, l -> rebuild(l, l.pinned, archived, l.color, l.emoji, l.itemCount, l.checkedCount),
+                    done(callback));
+        }
+
+        @Override public void setColor(String listId, String hex) {
+            int color = parseColor(hex);
+            edit(listId, l -> rebuild(l, l.pinned, l.archived, color, l.emoji, l.itemCount, l.checkedCount), errors);
+        }
+
+        @Override public void setEmoji(String listId, String emoji) {
+            edit(listId, l -> rebuild(l, l.pinned, l.archived, l.color, emoji, l.itemCount, l.checkedCount), errors);
+        }
+
+        @Override public void flush() {}
+
+        private void edit(String listId, UnaryOperator<ListSummary> change, Consumer<Exception> done) {
+            Txn t = new Txn();
+            t.editList(listId, change);
+            commit(t, done);
+        }
+
+        private Consumer<Exception> done(StoreCallback<Void> callback) {
+            return callback == null ? errors : e -> callback.onResult(null, e);
+        }
+    }
+
+    private final class Items implements ItemStore {
+        final Consumer<Exception> errors;
+
+        Items(Consumer<Exception> onWriteError) { this.errors = reportTo(onWriteError); }
+
+        @Override public ItemFeed observe(String listId, StoreObserver<ItemSummary> observer) {
+            ItemsQuery q = new ItemsQuery(listId, observer);
+            List<ItemsQuery> qs = itemQueries.get(listId);
+            if (qs == null) { qs = new ArrayList<>(); itemQueries.put(listId, qs); }
+            qs.add(q);
+            q.start();
+            return q;
+        }
+
+        @Override public Subscription fetchAll(String listId, StoreCallback<List<ItemSummary>> callback) {
+            boolean[] closed = {false};
+            scheduler.schedule(() -> {
+                if (closed[0]) return;
+                ItemTable t = items.get(listId);
+                callback.onResult(t == null ? new ArrayList<>() : new ArrayList<>(t.ordered), null);
+            }, serverMs);
+            return () -> closed[0] = true;
+        }
+
+        @Override public void fetchPages(String listId, int pageSize, PageSink sink) {
+            fetchPage(listId, null, pageSize, sink);
+        }
+
+        private void fetchPage(String listId, ItemSummary after, int pageSize, PageSink sink) {
+            scheduler.schedule(() -> {
+                ItemTable t = items.get(listId);
+                List<ItemSummary> page = new ArrayList<>();
+                if (t != null) {
+                    for (ItemSummary i : after == null ? t.ordered : t.ordered.tailSet(after, false)) {
+                        if (page.size() == pageSize) break;
+                        page.add(i);
+                    }
+                }
+                ItemSummary end = page.isEmpty() ? after : page.get(page.size() - 1);
+                sink.onPage(page, page.size() < pageSize, () -> fetchPage(listId, end, pageSize, sink));
+            }, serverMs);
+        }
+
+        @Override public String newItemId(String listId) { return newId(); }
+
+        @Override public void add(String listId, ItemSummary item, StoreCallback<Void> callback) {
+            Txn t = new Txn();
+            t.putItem(listId, item);
+            commit(t, done(callback));
+        }
+
+        @Override public void setChecked(String listId, ItemSummary item, boolean checked, StoreCallback<Void> callback) {
+            ItemSummary cur = item(listId, item.id);
+            if (cur == null || cur.checked == checked) {
+                if (callback != null) callback.onResult(null, null);
+                return;
+            }
+            Txn t = new Txn();
+            t.putItem(listId, cur.withChecked(checked));
+            commit(t, done(callback));
+        }
+
+        @Override public boolean isChecked(String listId, ItemSummary item) {
+            ItemSummary cur = item(listId, item.id);
+            return cur == null ? item.checked : cur.checked;
+        }
+
+        @Override public void stepQuantity(String listId, ItemSummary item, int delta, StoreCallback<Void> callback) {
+            ItemSummary cur = item(listId, item.id);
+            if (cur == null) {
+                if (callback != null) callback.onResult(null, null);
+                return;
+            }
+            Txn t = new Txn();
+            t.putItem(listId, cur.withQuantity(cur.quantity + delta));
+            commit(t, done(callback));
+        }
+
+        @Override public void delete(String listId, ItemSummary item, StoreCallback<Void> callback) {
+            Txn t = new Txn();
+            t.removeItem(listId, item.id);
+            commit(t, done(callback));
+        }
+
+        @Override public void restore(String listId, ItemSummary item, StoreCallback<Void> callback) {
+            Txn t = new Txn();
+            t.putItem(listId, item);
+            commit(t, done(callback));
+        }
+
+        @Override public void setCheckedAll(String listId, List<ItemSummary> list, boolean checked, BulkListener listener) {
+            runBulk(list, (t, i) -> {
+                ItemSummary cur = item(listId, i.id);
+                if (cur != null) t.putItem(listId, cur.withChecked(checked));
+            }, listener, 0);
+        }
+
+        @Override public void deleteAll(String listId, List<ItemSummary> list, BulkListener listener) {
+            runBulk(list, (t, i) -> t.removeItem(listId, i.id), listener, 0);
+        }
+
+        @Override public void restoreAll(String listId, List<ItemSummary> list, BulkListener listener) {
+            runBulk(list, (t, i) -> t.putItem(listId, i), listener, 0);
+        }
+
+        @Override public void verifyCounts(String listId, int itemCount, int checkedCount, StoreCallback<Boolean> callback) {
+            ListRow row = lists.get(listId);
+            if (row == null) { callback.onResult(true, null); return; }
+            if (row.pendingWrites > 0) { callback.onResult(false, null); return; }
+            if (row.doc.itemCount != itemCount || row.doc.checkedCount != checkedCount) {
+                Txn t = new Txn();
+                t.editList(listId, l -> rebuild(l, l.pinned, l.archived, l.color, l.emoji, itemCount, checkedCount));
+                commit(t, errors);
+            }
+            callback.onResult(true, null);
+        }
+
+        @Override public Prefetcher prefetcher() { return Prefetcher.NONE; }
+
+        @Override public void flush() {}
+
+        private Consumer<Exception> done(StoreCallback<Void> callback) {
+            return callback == null ? errors : e -> callback.onResult(null, e);
+        }
+
+        // Chunks commit one after another, like BatchWriter; a rejected chunk stops the run
+        private void runBulk(List<ItemSummary> list, BiConsumer<Txn, ItemSummary> op, BulkListener listener, int start) {
+            if (start >= list.size()) {
+                listener.onComplete(list.size(), null);
+                return;
+            }
+            int end = Math.min(list.size(), start + MAX_OPS_PER_BATCH - 1);
+            Txn t = new Txn();
+            for (int i = start; i < end; i++) op.accept(t, list.get(i));
+            commit(t, e -> {
+                if (e != null) {
+                    listener.onComplete(start, e);
+                    return;
+                }
+                listener.onProgress(end, list.size());
+                runBulk(list, op, listener, end);
+            });
+        }
+    }
+
+    // ===== Projection helpers =====
+    static ListSummary rebuild(ListSummary l, boolean pinned, boolean archived, int color, String emoji,
+                               int itemCount, int checkedCount) {
+        return new ListSummary(l.id, l.name, emoji, color, pinned, archived, l.createdBy, l.createdAtMillis,
+                itemCount, checkedCount);
+    }
+
+    static int parseColor(String hex) {
+        if (hex == null || hex.length() != 7 || hex.charAt(0) != '#') return DEFAULT_COLOR;
+        try { return 0xFF000000 | Integer.parseInt(hex.substring(1), 16); }
+        catch (NumberFormatException ignored) { return DEFAULT_COLOR; }
+    }
+}
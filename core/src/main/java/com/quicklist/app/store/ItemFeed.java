@@ -0,0 +1,23 @@
+package com.quicklist.app.store;
+
+/**
+ * Live items of one list. Stores that page (Firestore) load more rows as the viewport
+ * nears the end and keep listeners only around it; stores that don't treat the
+ * viewport calls as no-ops and are fully loaded after their first server snapshot.
+ */
+public interface ItemFeed extends Subscription {
+    /** Rows from the end of what's loaded at which {@link #loadMore()} is worth calling. */
+    int PREFETCH_DISTANCE = 50;
+
+    void onViewport(String firstVisibleId, String lastVisibleId);
+
+    void loadMore();
+
+    /** True once every row of the list has been delivered from the server. */
+    boolean isFullyLoaded();
+
+    /** True if the first rows were already in memory when the feed opened. */
+    boolean startedWarm();
+
+    int liveListenerCount();
+}
@@ -0,0 +1,70 @@
+package com.quicklist.app.store;
+
+import com.quicklist.app.models.ItemSummary;
+
+import java.util.List;
+
+/**
+ * Items of a list and every write the item screen makes. Each write also moves the
+ * list's itemCount/checkedCount, atomically with the item change, by the item as this
+ * device sees it; an edit that crosses another member's can leave them off until the
+ * store recounts the list or {@link #verifyCounts} repairs it.
+ * Toggles and quantity steps may be coalesced with other edits; their callback fires when
+ * the write they went out in is acknowledged. A write made with a null callback reports
+ * failures to the error listener the store was created with. Main thread only.
+ */
+public interface ItemStore {
+    /** Starts delivering the list's items in creation order. */
+    ItemFeed observe(String listId, StoreObserver<ItemSummary> observer);
+
+    /**
+     * One-off read of every item, e.g. to index a list that hasn't been opened. Closing the
+     * returned subscription drops the result if it hasn't arrived yet.
+     */
+    Subscription fetchAll(String listId, StoreCallback<List<ItemSummary>> callback);
+
+    /**
+     * One-off read in creation order, {@code pageSize} items at a time, each page fetched
+     * only when the sink asks for it. For exports too large to hold at once.
+     */
+    void fetchPages(String listId, int pageSize, PageSink sink);
+
+    /** A fresh id for {@link #add}, made locally so the row can be shown before the write lands. */
+    String newItemId(String listId);
+
+    /** Adds {@code item} under its id, which came from {@link #newItemId}. */
+    void add(String listId, ItemSummary item, StoreCallback<Void> callback);
+
+    void setChecked(String listId, ItemSummary item, boolean checked, StoreCallback<Void> callback);
+
+    /** Checked state as last set on this device, including writes not sent yet. */
+    boolean isChecked(String listId, ItemSummary item);
+
+    /** Adds {@code delta} to the quantity; the caller keeps the result at 1 or more. */
+    void stepQuantity(String listId, ItemSummary item, int delta, StoreCallback<Void> callback);
+
+    void delete(String listId, ItemSummary item, StoreCallback<Void> callback);
+
+    /** Puts a deleted item back under its old id, e.g. on UNDO. */
+    void restore(String listId, ItemSummary item, StoreCallback<Void> callback);
+
+    /** Sets every item in {@code items} to {@code checked}, in chunks with progress. */
+    void setCheckedAll(String listId, List<ItemSummary> items, boolean checked, BulkListener listener);
+
+    void deleteAll(String listId, List<ItemSummary> items, BulkListener listener);
+
+    /** Writes every item in {@code items} under its own id: UNDO of a bulk delete, or an import. */
+    void restoreAll(String listId, List<ItemSummary> items, BulkListener listener);
+
+    /**
+     * Compares the list's stored counters with counts taken over every loaded item and
+     * repairs them if they differ. The callback gets false when the check couldn't be made
+     * yet (e.g. the list doc has a write in flight) and is worth retrying later.
+     */
+    void verifyCounts(String listId, int itemCount, int checkedCount, StoreCallback<Boolean> callback);
+
+    Prefetcher prefetcher();
+
+    /** Sends anything queued now; owners call it from onStop. */
+    void flush();
+}
@@ -0,0 +1,38 @@
+package com.quicklist.app.store;
+
+import com.quicklist.app.models.ListSummary;
+
+/**
+ * The lists a member belongs to, and the per-list settings Home edits. Writes without a
+ * callback may be coalesced; their failures go to the error listener the store was
+ * created with. Main thread only.
+ */
+public interface ListStore {
+    /** Lists {@code uid} is a member of that aren't archived, newest first. */
+    Subscription observe(String uid, StoreObserver<ListSummary> observer);
+
+    /**
+     * Archived lists {@code uid} is a member of, newest first, a page at a time. Only
+     * for while they're on screen; archiving or unarchiving moves a list between this
+     * feed and {@link #observe}.
+     */
+    PagedFeed observeArchived(String uid, StoreObserver<ListSummary> observer);
+
+    /** Creates an empty list owned by {@code uid}; the callback gets its id once the write is acknowledged. */
+    void create(String uid, String name, StoreCallback<String> callback);
+
+    void setPinned(String listId, boolean pinned);
+
+    /** Pinned state as last set on this device, including writes not sent yet. */
+    boolean isPinned(ListSummary list);
+
+    void setArchived(String listId, boolean archived, StoreCallback<Void> callback);
+
+    /** {@code hex} is "#RRGGBB". */
+    void setColor(String listId, String hex);
+
+    void setEmoji(String listId, String emoji);
+
+    /** Sends anything queued now; owners call it from onStop. */
+    void flush();
+}
@@ -0,0 +1,218 @@
+package com.quicklist.app.store;
+
+import com.quicklist.app.models.ItemSummary;
+import com.quicklist.app.perf.Histogram;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Simulated household traffic against an {@link InMemoryStore}: {@code members} other
+ * people each add, toggle and delete items as independent Poisson processes, and their
+ * writes reach this device after the store's remote latency.
+ *
+ * Screens under test observe through {@link #measure}, which times each snapshot's
+ * handling and matches delivered changes to the ops that caused them, giving
+ * end-to-end update latency and throughput without a device or a network. Ops on lists
+ * passed to {@link #watch} are the only ones matched, and {@link Config#watchedShare}
+ * of the traffic is aimed at them.
+ *
+ * Runs on the store's scheduler thread; with a {@link ManualScheduler} a run is
+ * deterministic for a given seed.
+ */
+public final class LoadGenerator {
+    private static final int SAMPLE_WINDOW = 1 << 16;
+    private static final List<String> WORDS = Arrays.asList(
+            "milk", "eggs", "bread", "apples", "rice", "coffee", "soap", "tape", "batteries", "pasta",
+            "tomatoes", "cheese", "yogurt", "onions", "foil", "tea", "butter", "flour", "lemons", "oats");
+
+    public static final class Config {
+        public int lists = 500;
+        public int itemsPerList = 1_000;
+        /** Other members writing concurrently; this device's own user is not one of them. */
+        public int members = 8;
+        /** Per member, per second. */
+        public double addsPerSecond = 0.2;
+        public double togglesPerSecond = 1.0;
+        public double deletesPerSecond = 0.2;
+        /** Share of ops aimed at watched lists; the rest spread over every list. */
+        public double watchedShare = 0.5;
+        public double checkedShare = 0.3;
+        public long seed = 42;
+    }
+
+    public static final class Report {
+        public final long opsIssued;
+        public final long snapshots;
+        public final long changes;
+        public final long elapsedNanos;
+        /** Op issued by a member until its change reached a measured observer. */
+        public final Histogram.Snapshot latency;
+        /** Time measured observers spent handling one snapshot. */
+        public final Histogram.Snapshot handling;
+
+        Report(long opsIssued, long snapshots, long changes, long elapsedNanos,
+               Histogram.Snapshot latency, Histogram.Snapshot handling) {
+            this.opsIssued = opsIssued; this.snapshots = snapshots; this.changes = changes;
+            this.elapsedNanos = elapsedNanos; this.latency = latency; this.handling = handling;
+        }
+
+        public double changesPerSecond() {
+            return elapsedNanos == 0 ? 0 : changes * 1e9 / elapsedNanos;
+        }
+
+        @Override public String toString() {
+            return String.format(Locale.US,
+                    "ops=%d snapshots=%d changes=%d (%.1f/s) latency p50 %.1fms p99 %.1fms"
+                            + " handling p50 %.3fms p99 %.3fms max %.3fms",
+                    opsIssued, snapshots, changes, changesPerSecond(),
+                    latency.p50 / 1e6, latency.p99 / 1e6,
+                    handling.p50 / 1e6, handling.p99 / 1e6, handling.max / 1e6);
+        }
+    }
+
+    private final InMemoryStore store;
+    private final Scheduler scheduler;
+    private final Config config;
+    private final Random random;
+    private final Map<String, Long> issuedAt = new HashMap<>(); // item id -> when its latest op went out
+    private final List<String> watched = new ArrayList<>();
+    private final Histogram latency = new Histogram(SAMPLE_WINDOW);
+    private final Histogram handling = new Histogram(SAMPLE_WINDOW);
+    private List<String> listIds = Collections.emptyList();
+    private long opsIssued, snapshots, changes;
+    private long startedAt, stoppedAt;
+    private boolean running;
+
+    public LoadGenerator(InMemoryStore store, Config config) {
+        this.store = store;
+        this.scheduler = store.scheduler();
+        this.config = config;
+        this.random = new Random(config.seed);
+    }
+
+    /** Fills the store with {@code lists × itemsPerList} items shared by every member and this device. */
+    public void seed() {
+        List<String> everyone = new ArrayList<>();
+        everyone.add(store.uid());
+        for (int m = 0; m < config.members; m++) everyone.add(member(m));
+        long createdAt = store.nowMillis() - (long) config.lists * (config.itemsPerList + 1);
+        for (int l = 0; l < config.lists; l++) {
+            String listId = store.newId();
+            store.seedList(listId, "list " + l, everyone.get(l % everyone.size()), createdAt++, everyone);
+            for (int i = 0; i < config.itemsPerList; i++) {
+                store.seedItem(listId, new ItemSummary(store.newId(), text(i),
+                        everyone.get(random.nextInt(everyone.size())), createdAt++,
+                        random.nextDouble() < config.checkedShare, 1 + random.nextInt(3)));
+            }
+        }
+        listIds = store.listIds();
+    }
+
+    public List<String> listIds() { return listIds; }
+
+    /** Aims {@link Config#watchedShare} of the traffic at this list and matches its changes to ops. */
+    public void watch(String listId) {
+        if (!watched.contains(listId)) watched.add(listId);
+    }
+
+    /** Wraps a screen's observer so its snapshots count towards the report. */
+    public <T> StoreObserver<T> measure(StoreObserver<T> screen) {
+        return new StoreObserver<T>() {
+            @Override public void onSnapshot(StoreSnapshot<T> snapshot) {
+                long t0 = System.nanoTime();
+                screen.onSnapshot(snapshot);
+                handling.record(System.nanoTime() - t0);
+                snapshots++;
+                changes += snapshot.changes.size();
+                long now = scheduler.nowNanos();
+                for (Change<T> c : snapshot.changes) {
+                    Long at = issuedAt.remove(c.id);
+                    if (at != null) latency.record(now - at);
+                }
+            }
+            @Override public void onError(Exception e) { screen.onError(e); }
+            @Override public void onCacheRead(boolean hit) { screen.onCacheRead(hit); }
+        };
+    }
+
+    public void start() {
+        if (running) return;
+        running = true;
+        startedAt = scheduler.nowNanos();
+        for (int m = 0; m < config.members; m++) {
+            final String member = member(m);
+            every(config.addsPerSecond, () -> add(member));
+            every(config.togglesPerSecond, this::toggle);
+            every(config.deletesPerSecond, this::delete);
+        }
+    }
+
+    public void stop() {
+        if (!running) return;
+        running = false;
+        stoppedAt = scheduler.nowNanos();
+    }
+
+    public Report report() {
+        long end = running ? scheduler.nowNanos() : stoppedAt;
+        return new Report(opsIssued, snapshots, changes, end - startedAt,
+                latency.snapshot(), handling.snapshot());
+    }
+
+    private void every(double perSecond, Runnable op) {
+        if (perSecond <= 0) return;
+        // Exponential gaps: arrivals from one member are independent of each other
+        long delayMs = Math.max(1, Math.round(-Math.log(1 - random.nextDouble()) * 1000 / perSecond));
+        scheduler.schedule(() -> {
+            if (!running) return;
+            op.run();
+            every(perSecond, op);
+        }, delayMs);
+    }
+
+    private void add(String member) {
+        String listId = pickList();
+        if (listId == null) return;
+        String id = store.remoteAdd(listId, text(random.nextInt(10_000)), member, 1 + random.nextInt(3));
+        issued(listId, id);
+    }
+
+    private void toggle() {
+        String listId = pickList();
+        String itemId = listId == null ? null : store.randomItemId(listId, random);
+        if (itemId == null) return;
+        store.remoteToggle(listId, itemId);
+        issued(listId, itemId);
+    }
+
+    private void delete() {
+        String listId = pickList();
+        String itemId = listId == null ? null : store.randomItemId(listId, random);
+        if (itemId == null) return;
+        store.remoteDelete(listId, itemId);
+        issued(listId, itemId);
+    }
+
+    private void issued(String listId, String itemId) {
+        opsIssued++;
+        if (watched.contains(listId)) issuedAt.put(itemId, scheduler.nowNanos());
+    }
+
+    private String pickList() {
+        if (!watched.isEmpty() && random.nextDouble() < config.watchedShare) {
+            return watched.get(random.nextInt(watched.size()));
+        }
+        return listIds.isEmpty() ? null : listIds.get(random.nextInt(listIds.size()));
+    }
+
+    private static String member(int m) { return "member-" + m; }
+
+    private static String text(int n) { return WORDS.get(n % WORDS.size()) + " " + n; }
+}
@@ -0,0 +1,49 @@
+package com.quicklist.app.store;
+
+import java.util.PriorityQueue;
+
+/**
+ * Virtual-time {@link Scheduler}: nothing runs until {@link #advance} moves the clock,
+ * then due tasks run in time order (FIFO for equal times) on the caller's thread.
+ */
+public final class ManualScheduler implements Scheduler {
+    private static final class Task implements Comparable<Task> {
+        final long at;
+        final long seq;
+        final Runnable run;
+
+        Task(long at, long seq, Runnable run) { this.at = at; this.seq = seq; this.run = run; }
+
+        @Override public int compareTo(Task o) {
+            return at != o.at ? Long.compare(at, o.at) : Long.compare(seq, o.seq);
+        }
+    }
+
+    private final PriorityQueue<Task> queue = new PriorityQueue<>();
+    private long nowMs;
+    private long seq;
+
+    @Override public void schedule(Runnable task, long delayMs) {
+        queue.add(new Task(nowMs + Math.max(0, delayMs), seq++, task));
+    }
+
+    @Override public long nowNanos() { return nowMs * 1_000_000L; }
+
+    public long nowMs() { return nowMs; }
+
+    /** Runs everything due within the next {@code ms}, including tasks those tasks schedule. */
+    public void advance(long ms) {
+        long until = nowMs + ms;
+        while (!queue.isEmpty() && queue.peek().at <= until) {
+            Task t = queue.poll();
+            nowMs = t.at;
+            t.run.run();
+        }
+        nowMs = until;
+    }
+
+    /** Runs whatever is due now, e.g. zero-delay dispatches. */
+    public void runPending() { advance(0); }
+
+    public int pendingCount() { return queue.size(); }
+}
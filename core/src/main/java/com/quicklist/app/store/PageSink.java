@@ -0,0 +1,13 @@
+package com.quicklist.app.store;
+
+import com.quicklist.app.models.ItemSummary;
+
+import java.util.List;
+
+/** Receives a list's items a page at a time from {@link ItemStore#fetchPages}. */
+public interface PageSink {
+    /** {@code next} fetches the following page; a sink that never runs it ends the read. */
+    void onPage(List<ItemSummary> page, boolean last, Runnable next);
+
+    void onError(Exception e);
+}
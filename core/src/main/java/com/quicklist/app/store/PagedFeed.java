@@ -0,0 +1,15 @@
+package com.quicklist.app.store;
+
+/**
+ * A live query that delivers its first page on open and grows by a page per
+ * {@link #loadMore()}. Every delivery carries all rows loaded so far.
+ */
+public interface PagedFeed extends Subscription {
+    int PAGE_SIZE = 25;
+
+    /** Asks for one more page; a no-op until the current page has arrived, and once fully loaded. */
+    void loadMore();
+
+    /** True once a server snapshot came back with fewer rows than were asked for. */
+    boolean isFullyLoaded();
+}
@@ -0,0 +1,27 @@
+package com.quicklist.app.store;
+
+import java.util.List;
+
+/** Hints about which lists are likely to be opened next, so their first rows can be kept warm. */
+public interface Prefetcher {
+    /** For stores that have nothing worth warming. */
+    Prefetcher NONE = new Prefetcher() {
+        @Override public void setPinned(List<String> listIds) {}
+        @Override public void noteOpened(String listId) {}
+        @Override public void hint(String listId) {}
+        @Override public void resume() {}
+        @Override public void pause() {}
+    };
+
+    /** Pinned, non-archived list ids in display order. */
+    void setPinned(List<String> listIds);
+
+    void noteOpened(String listId);
+
+    /** The user opened this row's overflow menu; Open is one tap away. */
+    void hint(String listId);
+
+    void resume();
+
+    void pause();
+}
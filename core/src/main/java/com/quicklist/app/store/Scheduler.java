@@ -0,0 +1,12 @@
+package com.quicklist.app.store;
+
+/**
+ * Timer and clock for {@link InMemoryStore} and {@link LoadGenerator}. Every task runs on
+ * one thread, which is the thread observers are called on. {@link ManualScheduler} runs
+ * in virtual time for deterministic tests.
+ */
+public interface Scheduler {
+    void schedule(Runnable task, long delayMs);
+
+    long nowNanos();
+}
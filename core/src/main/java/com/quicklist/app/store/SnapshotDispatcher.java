@@ -0,0 +1,128 @@
+package com.quicklist.app.store;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sits between a live query and a screen and hands the screen at most one snapshot per
+ * frame. Snapshots arriving before the next frame are folded together: the latest rows
+ * and flags, with their changes composed per document, so a burst of remote edits or a
+ * reconnect costs one rebuild instead of one per delivery.
+ *
+ * A metadata-only snapshot whose flags match what the screen will already see is dropped.
+ * The first snapshot goes straight through, so the first paint doesn't wait a frame.
+ * Errors and cache reads pass through at once. Single-threaded, like the store's delivery.
+ */
+public final class SnapshotDispatcher<T> implements StoreObserver<T> {
+    /** Runs {@code task} at the start of the next frame; returns a cancel action. */
+    public interface Frames {
+        Runnable post(Runnable task);
+    }
+
+    private final StoreObserver<T> target;
+    private final Frames frames;
+
+    private final Map<String, Change<T>> changes = new LinkedHashMap<>();
+    private StoreSnapshot<T> latest;        // buffered, or null
+    private StoreSnapshot<T> lastDelivered;
+    private Runnable cancelFrame;
+    private int buffered;                   // snapshots in the current batch
+    private boolean closed;
+    private long received, delivered, merged, dropped;
+
+    public SnapshotDispatcher(StoreObserver<T> target, Frames frames) {
+        this.target = target;
+        this.frames = frames;
+    }
+
+    @Override public void onSnapshot(StoreSnapshot<T> snapshot) {
+        if (closed) return;
+        received++;
+        if (lastDelivered == null && latest == null) {
+            deliver(snapshot);
+            return;
+        }
+        StoreSnapshot<T> seen = latest != null ? latest : lastDelivered;
+        if (snapshot.isMetadataOnly() && snapshot.fromCache == seen.fromCache
+                && snapshot.hasPendingWrites == seen.hasPendingWrites) {
+            dropped++;
+            return;
+        }
+        for (Change<T> c : snapshot.changes) compose(c);
+        latest = snapshot;
+        if (buffered++ > 0) merged++;
+        if (cancelFrame == null) cancelFrame = frames.post(this::flush);
+    }
+
+    @Override public void onError(Exception e) {
+        if (!closed) target.onError(e);
+    }
+
+    @Override public void onCacheRead(boolean hit) {
+        if (!closed) target.onCacheRead(hit);
+    }
+
+    /** Delivers the buffered batch now, e.g. before a screen acts on its rows. */
+    public void flush() {
+        cancelFrame = null;
+        if (latest == null || closed) return;
+        StoreSnapshot<T> s = latest;
+        List<Change<T>> out = new ArrayList<>(changes.values());
+        latest = null;
+        changes.clear();
+        buffered = 0;
+        deliver(new StoreSnapshot<>(s.items, out, s.fromCache, s.hasPendingWrites));
+    }
+
+    /** Drops the pending batch; nothing more reaches the target. */
+    public void close() {
+        closed = true;
+        if (cancelFrame != null) cancelFrame.run();
+        cancelFrame = null;
+        latest = null;
+        changes.clear();
+    }
+
+    public long receivedCount() { return received; }
+
+    public long deliveredCount() { return delivered; }
+
+    /** Snapshots folded into a later one in the same frame. */
+    public long mergedCount() { return merged; }
+
+    /** Metadata-only snapshots that changed nothing the target would see. */
+    public long droppedCount() { return dropped; }
+
+    @Override public String toString() {
+        return "snapshots " + received + " in, " + delivered + " delivered, "
+                + merged + " merged, " + dropped + " dropped";
+    }
+
+    private void deliver(StoreSnapshot<T> s) {
+        delivered++;
+        lastDelivered = s;
+        target.onSnapshot(s);
+    }
+
+    // What the target sees is the net effect on each document since its last delivery
+    private void compose(Change<T> next) {
+        Change<T> prev = changes.remove(next.id);
+        if (prev == null) {
+            changes.put(next.id, next);
+            return;
+        }
+        switch (next.type) {
+            case REMOVED:
+                if (prev.type != Change.Type.ADDED) changes.put(next.id, next); // added and gone: nothing
+                break;
+            case MODIFIED:
+                changes.put(next.id, prev.type == Change.Type.ADDED ? Change.added(next.id, next.value) : next);
+                break;
+            case ADDED:
+                changes.put(next.id, prev.type == Change.Type.REMOVED ? Change.modified(next.id, next.value) : next);
+                break;
+        }
+    }
+}
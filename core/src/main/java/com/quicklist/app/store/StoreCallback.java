@@ -0,0 +1,6 @@
+package com.quicklist.app.store;
+
+/** Completion of a one-off read or acknowledged write; exactly one of the arguments is set. */
+public interface StoreCallback<T> {
+    void onResult(T value, Exception error);
+}
@@ -0,0 +1,20 @@
+package com.quicklist.app.store;
+
+import java.util.function.Consumer;
+
+/**
+ * Backend behind the screens: Firestore in the app, {@link InMemoryStore} in JVM and
+ * Robolectric tests and load runs. Each screen asks for its own store instances so
+ * coalesced writes and their errors stay with the screen that made them.
+ */
+public interface StoreFactory {
+    ListStore lists(Consumer<Exception> onWriteError);
+
+    ItemStore items(Consumer<Exception> onWriteError);
+
+    /** The signed-in member the stores act for, or null when signed out. */
+    String uid();
+
+    /** Drops every live query and cached result and ends the session. */
+    void signOut();
+}
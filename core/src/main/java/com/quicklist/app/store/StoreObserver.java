@@ -0,0 +1,11 @@
+package com.quicklist.app.store;
+
+/** Receives a live query's snapshots on the store's delivery thread (the main thread in the app). */
+public interface StoreObserver<T> {
+    void onSnapshot(StoreSnapshot<T> snapshot);
+
+    void onError(Exception e);
+
+    /** Result of the first local-cache read, which arrives before any live snapshot. */
+    default void onCacheRead(boolean hit) {}
+}
@@ -0,0 +1,27 @@
+package com.quicklist.app.store;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One delivery from a live query: every row in query order plus the changes since the
+ * previous delivery. Mirrors what a Firestore QuerySnapshot carries, without the types.
+ * Neither list is mutated after delivery, so it is safe to hand to another thread.
+ */
+public final class StoreSnapshot<T> {
+    public final List<T> items;
+    public final List<Change<T>> changes;
+    public final boolean fromCache;
+    /** True while a local write to one of these rows has not been acknowledged yet. */
+    public final boolean hasPendingWrites;
+
+    public StoreSnapshot(List<T> items, List<Change<T>> changes, boolean fromCache, boolean hasPendingWrites) {
+        this.items = Collections.unmodifiableList(items);
+        this.changes = Collections.unmodifiableList(changes);
+        this.fromCache = fromCache;
+        this.hasPendingWrites = hasPendingWrites;
+    }
+
+    /** Only fromCache/hasPendingWrites moved; no row differs from the previous delivery. */
+    public boolean isMetadataOnly() { return changes.isEmpty(); }
+}
@@ -0,0 +1,6 @@
+package com.quicklist.app.store;
+
+/** Handle to a live query; closing it stops deliveries. */
+public interface Subscription {
+    void close();
+}
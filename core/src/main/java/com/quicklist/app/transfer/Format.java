@@ -0,0 +1,30 @@
+package com.quicklist.app.transfer;
+
+import java.util.Locale;
+
+/** File formats a list's items move in and out of QuickList as. */
+public enum Format {
+    /** One item per line, e.g. "2 x Milk" or "[x] Eggs". */
+    TEXT("text/plain", ".txt"),
+    /** text,quantity,checked,category with a header row. */
+    CSV("text/csv", ".csv"),
+    /** An array of {"text", "quantity", "checked", "category"} objects. */
+    JSON("application/json", ".json");
+
+    public final String mimeType;
+    public final String extension;
+
+    Format(String mimeType, String extension) {
+        this.mimeType = mimeType;
+        this.extension = extension;
+    }
+
+    /** Best guess from what the file picker reports; either argument may be null. */
+    public static Format of(String mimeType, String fileName) {
+        String mime = mimeType == null ? "" : mimeType.toLowerCase(Locale.ROOT);
+        String name = fileName == null ? "" : fileName.toLowerCase(Locale.ROOT);
+        if (mime.contains("json") || name.endsWith(".json")) return JSON;
+        if (mime.contains("csv") || mime.contains("comma-separated") || name.endsWith(".csv")) return CSV;
+        return TEXT;
+    }
+}
@@ -0,0 +1,369 @@
+package com.quicklist.app.transfer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Streams items out of pasted text, CSV or JSON one row at a time, so an import holds
+ * a single row (plus the underlying reader's buffer) however large the input is. Text
+ * longer than {@link #MAX_TEXT} is cut there. Not thread-safe.
+ */
+public abstract class ItemReader implements Closeable {
+    public static final int MAX_TEXT = 500;
+    public static final int MAX_QUANTITY = 9999;
+
+    /** One parsed item; the importer adds id, creator and creation time. */
+    public static final class Row {
+        public final String text;
+        public final int quantity;
+        public final boolean checked;
+        public final String category; // "" when none
+
+        public Row(String text, int quantity, boolean checked, String category) {
+            this.text = text;
+            this.quantity = Math.max(1, Math.min(MAX_QUANTITY, quantity));
+            this.checked = checked;
+            this.category = category == null ? "" : category;
+        }
+    }
+
+    /** Malformed input, with the line it was found on. */
+    public static final class FormatException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        public FormatException(String message, int line) {
+            super(message + " (line " + line + ")");
+        }
+    }
+
+    private final Reader in;
+    private int peeked = -2; // -2 = nothing peeked
+    protected int line = 1;
+
+    ItemReader(Reader in) { this.in = in; }
+
+    public static ItemReader open(Format format, Reader in) {
+        switch (format) {
+            case CSV: return new Csv(in);
+            case JSON: return new Json(in);
+            default: return new Text(in);
+        }
+    }
+
+    /** The next item, or null at the end of the input. Blank entries are skipped. */
+    public abstract Row next() throws IOException;
+
+    @Override public void close() throws IOException { in.close(); }
+
+    // ===== Character input =====
+    int peek() throws IOException {
+        if (peeked == -2) peeked = in.read();
+        return peeked;
+    }
+
+    int read() throws IOException {
+        int c = peek();
+        peeked = -2;
+        if (c == '\n') line++;
+        return c;
+    }
+
+    static String clip(StringBuilder sb) {
+        return sb.toString().trim();
+    }
+
+    static void append(StringBuilder sb, int c) {
+        if (sb.length() < MAX_TEXT) sb.append((char) c);
+    }
+
+    static int parseQuantity(String s) {
+        s = s.trim();
+        int dot = s.indexOf('.');
+        if (dot >= 0) s = s.substring(0, dot); // "2.0" from a spreadsheet
+        if (s.isEmpty() || s.length() > 6) return 1;
+        try { return Integer.parseInt(s); } catch (NumberFormatException e) { return 1; }
+    }
+
+    static boolean parseChecked(String s) {
+        s = s.trim().toLowerCase(Locale.ROOT);
+        return s.equals("true") || s.equals("yes") || s.equals("x") || s.equals("1") || s.equals("done");
+    }
+
+    // ===== Text =====
+    /**
+     * One item per line. Leading list markers ("-", "*", "•", "1.") are dropped; "[x]"
+     * marks the item checked. A quantity is taken from "2 x Milk", "2 Milk", "Milk x2"
+     * or "Milk (2)".
+     */
+    static final class Text extends ItemReader {
+        private static final Pattern MARKER = Pattern.compile("^(?:[-*•·]|\\d+[.)])\\s+");
+        private static final Pattern BOX = Pattern.compile("^\\[([ xX✓])\\]\\s*");
+        private static final Pattern LEADING_QTY = Pattern.compile("^(\\d{1,4})\\s*[x×]?\\s+(\\S.*)$");
+        private static final Pattern TRAILING_QTY = Pattern.compile("^(.*\\S)\\s*(?:[x×]\\s*(\\d{1,4})|\\((\\d{1,4})\\))$");
+
+        private final StringBuilder sb = new StringBuilder();
+
+        Text(Reader in) { super(in); }
+
+        @Override public Row next() throws IOException {
+            while (true) {
+                sb.setLength(0);
+                int c;
+                while ((c = read()) != -1 && c != '\n') {
+                    if (c != '\r') append(sb, c);
+                }
+                String s = clip(sb);
+                if (!s.isEmpty()) {
+                    Row row = parse(s);
+                    if (row != null) return row;
+                }
+                if (c == -1) return null;
+            }
+        }
+
+        static Row parse(String s) {
+            boolean checked = false;
+            Matcher m = BOX.matcher(s);
+            if (m.find()) {
+                checked = !m.group(1).equals(" ");
+                s = s.substring(m.end());
+            } else if ((m = MARKER.matcher(s)).find()) {
+                s = s.substring(m.end());
+                if ((m = BOX.matcher(s)).find()) {
+                    checked = !m.group(1).equals(" ");
+                    s = s.substring(m.end());
+                }
+            }
+            int qty = 1;
+            if ((m = LEADING_QTY.matcher(s)).matches()) {
+                qty = Integer.parseInt(m.group(1));
+                s = m.group(2);
+            } else if ((m = TRAILING_QTY.matcher(s)).matches()) {
+                qty = Integer.parseInt(m.group(2) != null ? m.group(2) : m.group(3));
+                s = m.group(1);
+            }
+            s = s.trim();
+            return s.isEmpty() ? null : new Row(s, qty, checked, null);
+        }
+    }
+
+    // ===== CSV =====
+    /**
+     * RFC 4180 records. A first row naming a text/item/name column is a header, and
+     * quantity/qty, checked/done and category/aisle columns are found by name; without
+     * one the columns are text, then quantity.
+     */
+    static final class Csv extends ItemReader {
+        private final List<String> fields = new ArrayList<>();
+        private final StringBuilder sb = new StringBuilder();
+        private int text = 0, quantity = 1, checked = -1, category = -1;
+        private boolean started;
+
+        Csv(Reader in) { super(in); }
+
+        @Override public Row next() throws IOException {
+            while (record()) {
+                if (!started) {
+                    started = true;
+                    if (header()) continue;
+                }
+                String t = field(text);
+                if (t.isEmpty()) continue;
+                return new Row(t, quantity < 0 ? 1 : parseQuantity(field(quantity)),
+                        checked >= 0 && parseChecked(field(checked)), field(category));
+            }
+            return null;
+        }
+
+        private String field(int i) {
+            return i < 0 || i >= fields.size() ? "" : fields.get(i);
+        }
+
+        private boolean header() {
+            int t = -1, q = -1, c = -1, k = -1;
+            for (int i = 0; i < fields.size(); i++) {
+                String h = fields.get(i).toLowerCase(Locale.ROOT);
+                if (t < 0 && (h.equals("text") || h.equals("item") || h.equals("name"))) t = i;
+                else if (q < 0 && (h.equals("quantity") || h.equals("qty") || h.equals("count"))) q = i;
+                else if (c < 0 && (h.equals("checked") || h.equals("done"))) c = i;
+                else if (k < 0 && (h.equals("category") || h.equals("aisle"))) k = i;
+            }
+            if (t < 0) return false;
+            text = t; quantity = q; checked = c; category = k;
+            return true;
+        }
+
+        // Reads one record into fields; false at the end of the input
+        private boolean record() throws IOException {
+            fields.clear();
+            if (peek() == -1) return false;
+            int startLine = line;
+            while (true) {
+                sb.setLength(0);
+                int c = read();
+                if (c == '"') {
+                    while (true) {
+                        c = read();
+                        if (c == -1) throw new FormatException("Unclosed quote", startLine);
+                        if (c == '"') {
+                            if (peek() != '"') break;
+                            read();
+                        }
+                        append(sb, c);
+                    }
+                    c = read();
+                    while (c == ' ' || c == '\t') c = read();
+                } else {
+                    while (c != ',' && c != '\n' && c != -1) {
+                        if (c != '\r') append(sb, c);
+                        c = read();
+                    }
+                }
+                fields.add(clip(sb));
+                if (c == ',') continue;
+                if (c == '\n' || c == '\r' || c == -1) {
+                    if (c == '\r' && peek() == '\n') read();
+                    return true;
+                }
+                throw new FormatException("Text after a closing quote", line);
+            }
+        }
+    }
+
+    // ===== JSON =====
+    /**
+     * A top-level array whose elements are item objects ({"text", "quantity", "checked",
+     * "category"}; other keys are skipped) or plain strings. Nested values are read past
+     * without being kept.
+     */
+    static final class Json extends ItemReader {
+        private final StringBuilder sb = new StringBuilder();
+        private boolean started, done;
+
+        Json(Reader in) { super(in); }
+
+        @Override public Row next() throws IOException {
+            while (!done) {
+                if (!started) {
+                    started = true;
+                    expect('[');
+                    if (skipSpace() == ']') { read(); done = true; return null; }
+                } else {
+                    int c = skipSpace();
+                    read();
+                    if (c == ']') { done = true; return null; }
+                    if (c != ',') throw new FormatException("Expected , or ]", line);
+                }
+                Row row = element();
+                if (row != null) return row;
+            }
+            return null;
+        }
+
+        private Row element() throws IOException {
+            int c = skipSpace();
+            if (c == '"') {
+                String s = string();
+                return s.isEmpty() ? null : Text.parse(s);
+            }
+            if (c != '{') { skipValue(); return null; }
+            read();
+            String text = "", category = "";
+            int quantity = 1;
+            boolean checked = false;
+            if (skipSpace() == '}') { read(); return null; }
+            while (true) {
+                skipSpace();
+                String key = string();
+                expect(':');
+                int v = skipSpace();
+                if (key.equals("text") && v == '"') text = string();
+                else if (key.equals("category") && v == '"') category = string();
+                else if (key.equals("quantity") && (v == '-' || (v >= '0' && v <= '9'))) quantity = parseQuantity(scalar());
+                else if (key.equals("checked") && (v == 't' || v == 'f')) checked = scalar().equals("true");
+                else skipValue();
+                c = skipSpace();
+                read();
+                if (c == '}') break;
+                if (c != ',') throw new FormatException("Expected , or }", line);
+            }
+            return text.isEmpty() ? null : new Row(text, quantity, checked, category);
+        }
+
+        private void skipValue() throws IOException {
+            int c = skipSpace();
+            if (c == '"') { string(); return; }
+            if (c != '{' && c != '[') { scalar(); return; }
+            int depth = 0;
+            do {
+                c = skipSpace();
+                if (c == '"') { string(); continue; }
+                read();
+                if (c == -1) throw new FormatException("Unexpected end of input", line);
+                if (c == '{' || c == '[') depth++;
+                else if (c == '}' || c == ']') depth--;
+            } while (depth > 0);
+        }
+
+        private String scalar() throws IOException {
+            sb.setLength(0);
+            int c;
+            while ((c = peek()) != -1 && c != ',' && c != '}' && c != ']' && !Character.isWhitespace(c)) {
+                append(sb, read());
+            }
+            if (sb.length() == 0) throw new FormatException("Expected a value", line);
+            return sb.toString();
+        }
+
+        private String string() throws IOException {
+            expect('"');
+            sb.setLength(0);
+            while (true) {
+                int c = read();
+                if (c == -1) throw new FormatException("Unclosed string", line);
+                if (c == '"') return sb.toString().trim();
+                if (c == '\\') c = escape();
+                append(sb, c);
+            }
+        }
+
+        private int escape() throws IOException {
+            int c = read();
+            switch (c) {
+                case 'n': return '\n';
+                case 't': return '\t';
+                case 'r': return '\r';
+                case 'b': return '\b';
+                case 'f': return '\f';
+                case 'u':
+                    int code = 0;
+                    for (int i = 0; i < 4; i++) {
+                        int d = Character.digit(read(), 16);
+                        if (d < 0) throw new FormatException("Bad \\u escape", line);
+                        code = code * 16 + d;
+                    }
+                    return code;
+                case -1: throw new FormatException("Unclosed string", line);
+                default: return c; // \" \\ \/
+            }
+        }
+
+        private int skipSpace() throws IOException {
+            int c;
+            while ((c = peek()) != -1 && Character.isWhitespace(c)) read();
+            return c;
+        }
+
+        private void expect(char want) throws IOException {
+            int c = skipSpace();
+            if (c != want) throw new FormatException("Expected " + want, line);
+            read();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.quicklist.app.transfer;
+
+import com.quicklist.app.models.ItemSummary;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Streams items out as text, CSV or JSON, one row per {@link #write}, in a shape
+ * {@link ItemReader} reads back. {@link #close} finishes the document and closes the
+ * underlying writer. Not thread-safe.
+ */
+public abstract class ItemWriter implements Closeable {
+    final Writer out;
+    int rows;
+
+    ItemWriter(Writer out) { this.out = out; }
+
+    public static ItemWriter open(Format format, Writer out) throws IOException {
+        switch (format) {
+            case CSV: return new Csv(out);
+            case JSON: return new Json(out);
+            default: return new Text(out);
+        }
+    }
+
+    public abstract void write(ItemSummary item) throws IOException;
+
+    public int rowsWritten() { return rows; }
+
+    @Override public void close() throws IOException { out.close(); }
+
+    // "[x] 2 x Milk"; the quantity only when it isn't 1
+    static final class Text extends ItemWriter {
+        Text(Writer out) { super(out); }
+
+        @Override public void write(ItemSummary item) throws IOException {
+            if (item.checked) out.write("[x] ");
+            if (item.quantity != 1) {
+                out.write(Integer.toString(item.quantity));
+                out.write(" x ");
+            }
+            out.write(item.text.replace('\n', ' '));
+            out.write('\n');
+            rows++;
+        }
+    }
+
+    static final class Csv extends ItemWriter {
+        Csv(Writer out) throws IOException {
+            super(out);
+            out.write("text,quantity,checked,category\r\n");
+        }
+
+        @Override public void write(ItemSummary item) throws IOException {
+            field(item.text);
+            out.write(',');
+            out.write(Integer.toString(item.quantity));
+            out.write(item.checked ? ",true," : ",false,");
+            field(item.category);
+            out.write("\r\n");
+            rows++;
+        }
+
+        private void field(String s) throws IOException {
+            boolean quote = false;
+            for (int i = 0; i < s.length() && !quote; i++) {
+                char c = s.charAt(i);
+                quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!quote) { out.write(s); return; }
+            out.write('"');
+            out.write(s.replace("\"", "\"\""));
+            out.write('"');
+        }
+    }
+
+    static final class Json extends ItemWriter {
+        Json(Writer out) throws IOException {
+            super(out);
+            out.write('[');
+        }
+
+        @Override public void write(ItemSummary item) throws IOException {
+            out.write(rows == 0 ? "\n  {\"text\": " : ",\n  {\"text\": ");
+            string(item.text);
+            out.write(", \"quantity\": ");
+            out.write(Integer.toString(item.quantity));
+            out.write(item.checked ? ", \"checked\": true" : ", \"checked\": false");
+            if (!item.category.isEmpty()) {
+                out.write(", \"category\": ");
+                string(item.category);
+            }
+            out.write('}');
+            rows++;
+        }
+
+        @Override public void close() throws IOException {
+            try {
+                out.write(rows == 0 ? "]\n" : "\n]\n");
+            } finally {
+                super.close();
+            }
+        }
+
+        private void string(String s) throws IOException {
+            out.write('"');
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                switch (c) {
+                    case '"': out.write("\\\""); break;
+                    case '\\': out.write("\\\\"); break;
+                    case '\n': out.write("\\n"); break;
+                    case '\r': out.write("\\r"); break;
+                    case '\t': out.write("\\t"); break;
+                    default:
+                        if (c < 0x20) out.write(String.format("\\u%04x", (int) c));
+                        else out.write(c);
+                }
+            }
+            out.write('"');
+        }
+    }
+}
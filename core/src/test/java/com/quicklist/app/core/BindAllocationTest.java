@@ -0,0 +1,93 @@
+package com.quicklist.app.core;
+
+import com.quicklist.app.models.ItemSummary;
+import com.quicklist.app.models.ListSummary;
+import com.quicklist.app.perf.Histogram;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * The plain-Java work of a steady-state row bind: stable id, count text into the
+ * holder's buffer, bind-time histogram. None of it may allocate; the view calls around
+ * it (setText(char[]...), setChecked, setBackgroundColor) reuse their own objects.
+ */
+public class BindAllocationTest {
+    private static final int ROWS = 1_000;
+    private static final int PASSES = 50;
+
+    @Test
+    public void countTextFormats() {
+        char[] buf = new char[CountText.MAX_CHARS];
+        assertEquals("0", new String(buf, 0, CountText.of(0, buf)));
+        assertEquals("12", new String(buf, 0, CountText.of(12, buf)));
+        assertEquals("-7", new String(buf, 0, CountText.of(-7, buf)));
+        assertEquals("3/10", new String(buf, 0, CountText.ratio(3, 10, buf)));
+        assertEquals("-2147483648/2147483647",
+                new String(buf, 0, CountText.ratio(Integer.MIN_VALUE, Integer.MAX_VALUE, buf)));
+    }
+
+    @Test
+    public void stableIdsAreStableAndDistinct() {
+        assertEquals(StableIds.of("abc"), StableIds.of(new String("abc")));
+        Set<Long> seen = new HashSet<>();
+        for (int i = 0; i < 100_000; i++) assertTrue(seen.add(StableIds.of("item" + i)));
+    }
+
+    @Test
+    public void steadyStateBindAllocatesNothing() {
+        com.sun.management.ThreadMXBean mx = threadMx();
+        assumeTrue(mx != null && mx.isThreadAllocatedMemorySupported());
+        mx.setThreadAllocatedMemoryEnabled(true);
+
+        List<ItemSummary> items = new ArrayList<>();
+        List<ListSummary> lists = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            items.add(new ItemSummary("item" + i, "Item " + i, "u", i, i % 3 == 0, 1 + i % 12));
+            lists.add(new ListSummary("list" + i, "List " + i, "🛒", 0xFF16A34A, false, false, "u", i, i, i / 2));
+        }
+        char[] qty = new char[CountText.MAX_CHARS];
+        char[] progress = new char[CountText.MAX_CHARS];
+        Histogram bindTimes = new Histogram();
+
+        long sink = bindAll(items, lists, qty, progress, bindTimes); // warm up: JIT, class init
+        long tid = Thread.currentThread().getId();
+        long overhead = mx.getThreadAllocatedBytes(tid);
+        overhead = mx.getThreadAllocatedBytes(tid) - overhead;
+
+        long before = mx.getThreadAllocatedBytes(tid);
+        for (int p = 0; p < PASSES; p++) sink += bindAll(items, lists, qty, progress, bindTimes);
+        long allocated = mx.getThreadAllocatedBytes(tid) - before - overhead;
+
+        assertTrue(sink != 0);
+        assertEquals("bytes per bind", 0, allocated / (2L * ROWS * PASSES));
+    }
+
+    private static long bindAll(List<ItemSummary> items, List<ListSummary> lists,
+                                char[] qty, char[] progress, Histogram bindTimes) {
+        long sink = 0;
+        for (int i = 0; i < ROWS; i++) {
+            ItemSummary item = items.get(i);
+            sink += StableIds.of(item.id);
+            sink += CountText.of(item.quantity, qty);
+            ListSummary list = lists.get(i);
+            sink += StableIds.of(list.id);
+            if (list.hasCounts()) sink += CountText.ratio(list.checkedCount, list.itemCount, progress);
+            bindTimes.record(i);
+        }
+        return sink;
+    }
+
+    private static com.sun.management.ThreadMXBean threadMx() {
+        java.lang.management.ThreadMXBean mx = ManagementFactory.getThreadMXBean();
+        return mx instanceof com.sun.management.ThreadMXBean ? (com.sun.management.ThreadMXBean) mx : null;
+    }
+}
@@ -0,0 +1,40 @@
+package com.quicklist.app.core;
+
+import com.quicklist.app.models.ItemSummary;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class CheckedTallyTest {
+
+    @Test
+    public void tracksAddsTogglesAndRemoves() {
+        CheckedTally t = new CheckedTally();
+        assertFalse(t.allDone());
+        t.put("a", false);
+        t.put("b", true);
+        t.put("b", true); // repeated ADDED from a re-attached page
+        assertEquals(2, t.size());
+        assertEquals(1, t.checked());
+        t.put("a", true);
+        assertTrue(t.allDone());
+        t.remove("b");
+        t.remove("b");
+        assertEquals(1, t.size());
+        assertEquals(1, t.checked());
+    }
+
+    @Test
+    public void recountReplacesEverything() {
+        CheckedTally t = new CheckedTally();
+        t.put("stale", true);
+        t.recount(Arrays.asList(new ItemSummary("x", "Milk", "u", 0, false, 1),
+                new ItemSummary("y", "Eggs", "u", 0, true, 1)));
+        assertEquals(2, t.size());
+        assertEquals(1, t.checked());
+        assertFalse(t.allDone());
+    }
+}
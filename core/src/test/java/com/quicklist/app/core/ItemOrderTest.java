@@ -0,0 +1,100 @@
+package com.quicklist.app.core;
+
+import com.quicklist.app.models.ItemSummary;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ItemOrderTest {
+
+    private static ItemSummary item(String id, String text, long createdAt) {
+        return new ItemSummary(id, text, "u", createdAt, false, 1);
+    }
+
+    private static List<String> ids(List<ItemSummary> rows) {
+        List<String> out = new ArrayList<>();
+        for (ItemSummary r : rows) out.add(r.id);
+        return out;
+    }
+
+    @Test
+    public void collatesIgnoringCaseAndKeepsAccentsNextToTheirLetter() {
+        ItemOrder order = new ItemOrder(Locale.FRENCH);
+        order.setMode(ItemSort.Mode.AZ);
+        List<ItemSummary> rows = Arrays.asList(item("a", "zucchini", 1), item("b", "Éclair", 2),
+                item("c", "apple", 3), item("d", "eggs", 4), item("e", "Banana", 5));
+        assertEquals(Arrays.asList("c", "e", "b", "d", "a"), ids(order.update(rows)));
+    }
+
+    @Test
+    public void multiKeyModesBreakTiesOnCreation() {
+        List<ItemSummary> rows = Arrays.asList(
+                new ItemSummary("a", "Milk", "bob", 1, true, 1, "Dairy"),
+                new ItemSummary("b", "Bread", "amy", 2, false, 3, ""),
+                new ItemSummary("c", "Cheese", "bob", 3, false, 3, "dairy"),
+                new ItemSummary("d", "Apples", "amy", 4, true, 2, "Produce"));
+        ItemOrder order = new ItemOrder(Locale.US);
+        order.update(rows);
+        order.setMode(ItemSort.Mode.UNCHECKED_FIRST);
+        assertEquals(Arrays.asList("b", "c", "a", "d"), ids(order.update(rows)));
+        order.setMode(ItemSort.Mode.QUANTITY);
+        assertEquals(Arrays.asList("b", "c", "d", "a"), ids(order.update(rows)));
+        order.setMode(ItemSort.Mode.CREATOR);
+        assertEquals(Arrays.asList("b", "d", "a", "c"), ids(order.update(rows)));
+        order.setMode(ItemSort.Mode.AISLE);
+        assertEquals(Arrays.asList("c", "a", "d", "b"), ids(order.update(rows)));
+    }
+
+    @Test
+    public void incrementalUpdatesMatchAFreshSort() {
+        Random r = new Random(3);
+        List<ItemSummary> rows = new ArrayList<>();
+        for (int i = 0; i < 300; i++) rows.add(item("i" + i, "w" + r.nextInt(1000), i));
+        ItemOrder kept = new ItemOrder(Locale.US);
+        kept.setMode(ItemSort.Mode.AZ);
+        kept.update(rows);
+        for (int step = 0; step < 200; step++) {
+            int at = r.nextInt(rows.size());
+            switch (r.nextInt(3)) {
+                case 0: rows.remove(at); break;
+                case 1: rows.add(item("n" + step, "w" + r.nextInt(1000), 1000 + step)); break;
+                default: rows.set(at, item(rows.get(at).id, "w" + r.nextInt(1000), rows.get(at).createdAtMillis));
+            }
+            ItemOrder fresh = new ItemOrder(Locale.US);
+            fresh.setMode(ItemSort.Mode.AZ);
+            assertEquals(fresh.update(rows), kept.update(rows));
+            assertEquals(rows.size(), kept.size());
+        }
+    }
+
+    @Test
+    public void everyModeStaysSortedAsFieldsChange() {
+        Random r = new Random(8);
+        String[] aisles = {"", "Dairy", "Produce", "Bakery"};
+        List<ItemSummary> rows = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            rows.add(new ItemSummary("i" + i, "w" + r.nextInt(50), r.nextInt(4) == 0 ? null : "u" + r.nextInt(3),
+                    r.nextInt(100), r.nextBoolean(), 1 + r.nextInt(4), aisles[r.nextInt(aisles.length)]));
+        }
+        for (ItemSort.Mode mode : ItemSort.Mode.values()) {
+            ItemOrder kept = new ItemOrder(Locale.US);
+            kept.setMode(mode);
+            kept.update(rows);
+            for (int step = 0; step < 60; step++) {
+                int at = r.nextInt(rows.size());
+                ItemSummary row = rows.get(at);
+                rows.set(at, r.nextBoolean() ? row.withChecked(!row.checked) : row.withQuantity(1 + r.nextInt(4)));
+                ItemOrder fresh = new ItemOrder(Locale.US);
+                fresh.setMode(mode);
+                assertEquals(mode.toString(), fresh.update(rows), kept.update(rows));
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.quicklist.app.core;
+
+import com.quicklist.app.models.ListSummary;
+import com.quicklist.app.search.SearchIndex;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class ListFilterTest {
+
+    private static ListSummary list(String id, String name, boolean pinned, boolean archived) {
+        return new ListSummary(id, name, null, 0, pinned, archived, "u", 0, -1, 0);
+    }
+
+    private static String ids(List<ListSummary> lists) {
+        StringBuilder sb = new StringBuilder();
+        for (ListSummary l : lists) sb.append(l.id);
+        return sb.toString();
+    }
+
+    private final List<ListSummary> source = Arrays.asList(
+            list("a", "Groceries", false, false),
+            list("b", "Party", true, false),
+            list("c", "Old stuff", false, true),
+            list("d", "Camping", false, false));
+
+    @Test
+    public void hidesArchivedAndPinsFirstInQueryOrder() {
+        List<ListSummary> out = ListFilter.apply(source, "", false, false, new SearchIndex(),
+                new HashMap<>(), () -> false);
+        assertEquals("bad", ids(out));
+        out = ListFilter.apply(source, "", true, false, new SearchIndex(), new HashMap<>(), () -> false);
+        assertEquals("bacd", ids(out));
+    }
+
+    @Test
+    public void azSortsWithinThePinnedGroups() {
+        List<ListSummary> out = ListFilter.apply(source, "", false, true, new SearchIndex(),
+                new HashMap<>(), () -> false);
+        assertEquals("bda", ids(out));
+    }
+
+    @Test
+    public void itemHitsMatchAndReportTheItem() {
+        SearchIndex index = new SearchIndex();
+        for (ListSummary l : source) index.putList(l.id, l.name);
+        index.putItem("d", "i1", "Tent pegs");
+        Map<String, String> hits = new HashMap<>();
+        List<ListSummary> out = ListFilter.apply(source, "tent", false, false, index, hits, () -> false);
+        assertEquals("d", ids(out));
+        assertEquals("i1", hits.get("d"));
+    }
+
+    @Test
+    public void supersededRunReturnsNull() {
+        assertNull(ListFilter.apply(source, "", false, false, new SearchIndex(), new HashMap<>(), () -> true));
+    }
+}
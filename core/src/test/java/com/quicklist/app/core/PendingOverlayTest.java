@@ -0,0 +1,96 @@
+package com.quicklist.app.core;
+
+import com.quicklist.app.models.ItemSummary;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class PendingOverlayTest {
+
+    private static ItemSummary item(String id, boolean checked, int qty) {
+        return new ItemSummary(id, id.toUpperCase(), "u", 0, checked, qty);
+    }
+
+    private static final List<ItemSummary> ROWS = Arrays.asList(item("a", false, 1), item("b", false, 2));
+
+    @Test
+    public void editsShowBeforeTheSnapshotCatchesUp() {
+        PendingOverlay o = new PendingOverlay();
+        o.setChecked("a", true);
+        o.setQuantity("b", 3);
+        o.add(item("c", false, 1));
+        o.delete("b");
+        assertEquals(Arrays.asList(item("a", true, 1), item("c", false, 1)), o.apply(ROWS));
+        assertEquals(item("a", true, 1), o.shown(ROWS.get(0)));
+        assertNull(o.shown(ROWS.get(1)));
+        assertSame(ROWS, new PendingOverlay().apply(ROWS));
+    }
+
+    @Test
+    public void ackedEditStaysUntilASnapshotShowsIt() {
+        PendingOverlay o = new PendingOverlay();
+        long w = o.setChecked("a", true);
+        o.acked(w);
+        assertFalse(o.reconcile(ROWS, true)); // still pending: the echo may not be in yet
+        assertEquals(1, o.size());
+
+        List<ItemSummary> echoed = Arrays.asList(item("a", true, 1), item("b", false, 2));
+        assertFalse(o.reconcile(echoed, true));
+        assertTrue(o.isEmpty());
+    }
+
+    @Test
+    public void serverConfirmedSnapshotWinsOverAnAckedEdit() {
+        PendingOverlay o = new PendingOverlay();
+        long w = o.setQuantity("b", 3);
+        o.acked(w);
+        // Another member stepped it again before our echo arrived
+        List<ItemSummary> server = Arrays.asList(item("a", false, 1), item("b", false, 4));
+        assertTrue(o.reconcile(server, false));
+        assertEquals(server, o.apply(server));
+    }
+
+    @Test
+    public void laterEditKeepsTheRowUntilItsOwnAck() {
+        PendingOverlay o = new PendingOverlay();
+        long first = o.setChecked("a", true);
+        long second = o.setQuantity("a", 5);
+        o.acked(first);
+        o.reconcile(ROWS, false);
+        assertEquals(item("a", true, 5), o.apply(ROWS).get(0));
+        o.acked(second);
+        o.reconcile(Collections.singletonList(item("a", true, 5)), false);
+        assertTrue(o.isEmpty());
+    }
+
+    @Test
+    public void failedWriteRollsTheRowBack() {
+        PendingOverlay o = new PendingOverlay();
+        long toggle = o.setChecked("a", true);
+        long step = o.setQuantity("a", 2);
+        long del = o.delete("b");
+        assertEquals("a", o.failed(toggle));
+        assertNull(o.failed(step)); // same row, already rolled back
+        assertEquals(Arrays.asList(ROWS.get(0)), o.apply(ROWS));
+        o.acked(del);
+        assertFalse(o.reconcile(Collections.singletonList(ROWS.get(0)), false));
+        assertTrue(o.isEmpty());
+    }
+
+    @Test
+    public void localAddLeavesOnceTheSnapshotHasIt() {
+        PendingOverlay o = new PendingOverlay();
+        ItemSummary c = item("c", false, 1);
+        long w = o.add(c);
+        o.setChecked("c", true);
+        assertEquals(item("c", true, 1), o.apply(ROWS).get(2));
+        o.acked(w);
+        assertFalse(o.reconcile(Arrays.asList(ROWS.get(0), ROWS.get(1), c), false)); // toggle still in flight
+        assertEquals(3, o.apply(Arrays.asList(ROWS.get(0), ROWS.get(1), c)).size());
+    }
+}
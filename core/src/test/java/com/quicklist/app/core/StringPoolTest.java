@@ -0,0 +1,18 @@
+package com.quicklist.app.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class StringPoolTest {
+
+    @Test
+    public void equalStringsShareOneInstance() {
+        StringPool pool = new StringPool();
+        String first = pool.intern(new String("uid-1"));
+        assertSame(first, pool.intern(new String("uid-1")));
+        assertNotSame(first, pool.intern("uid-2"));
+        assertNull(pool.intern(null));
+        assertEquals(2, pool.size());
+    }
+}
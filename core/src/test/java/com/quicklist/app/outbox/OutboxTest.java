@@ -0,0 +1,101 @@
+package com.quicklist.app.outbox;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class OutboxTest {
+
+    /** Records what it was sent; fails the next {@code failures} calls. */
+    static class FakeBackend implements Outbox.Backend {
+        final List<String> applied = new ArrayList<>();
+        int failures;
+        boolean permanent;
+
+        @Override public void apply(Mutation m) throws Exception {
+            if (failures > 0) { failures--; throw new Exception("offline"); }
+            switch (m.kind) {
+                case SET_CHECKED: applied.add(m.kind + " " + m.itemId + " " + m.checked); break;
+                case STEP_QUANTITY: applied.add(m.kind + " " + m.itemId + " " + m.delta); break;
+                default: applied.add(m.kind + " " + m.listId + "/" + m.itemId);
+            }
+        }
+
+        @Override public boolean isPermanent(Exception e) { return permanent; }
+    }
+
+    @Test
+    public void togglesReplaceEachOtherAndAListIsRecountedOnceAfterItsWrites() {
+        Outbox o = new Outbox(new MemoryOutboxStorage());
+        o.setChecked("L", "e", true);
+        o.recount("L");
+        o.stepQuantity("L", "m", 1);
+        o.stepQuantity("L", "m", 1); // steps stay apart
+        o.setChecked("L", "e", false);
+        o.recount("L"); // replaces the first, behind the writes before it
+        assertEquals(4, o.pending());
+
+        FakeBackend b = new FakeBackend();
+        assertEquals(Outbox.Replay.DONE, o.replay(b));
+        assertEquals(Arrays.asList("STEP_QUANTITY m 1", "STEP_QUANTITY m 1", "SET_CHECKED e false", "RECOUNT L/"),
+                b.applied);
+        assertEquals(0, o.pending());
+    }
+
+    @Test
+    public void sentSettlesOnlyThatWrite() {
+        Outbox o = new Outbox(new MemoryOutboxStorage());
+        long first = o.stepQuantity("L", "m", 1);
+        long toggle = o.setChecked("L", "m", true);
+        long second = o.stepQuantity("L", "m", 1);
+        o.sent(first);
+        assertEquals(2, o.pending());
+
+        long again = o.setChecked("L", "m", false);
+        o.sent(toggle); // replaced already; the newer toggle stays
+        assertEquals(2, o.pending());
+        o.sent(again);
+        o.sent(second);
+        assertEquals(0, o.pending());
+    }
+
+    @Test
+    public void survivesARestartAndKeepsNumbering() {
+        MemoryOutboxStorage disk = new MemoryOutboxStorage();
+        Outbox before = new Outbox(disk);
+        before.stepQuantity("L", "m", 2);
+        long last = before.setChecked("L", "e", true);
+
+        Outbox after = new Outbox(disk);
+        assertEquals(2, after.pending());
+        assertEquals(before.writerId(), after.writerId());
+        assertTrue(after.stepQuantity("L", "m", -1) > last);
+        FakeBackend b = new FakeBackend();
+        after.replay(b);
+        assertEquals(Arrays.asList("STEP_QUANTITY m 2", "SET_CHECKED e true", "STEP_QUANTITY m -1"), b.applied);
+        assertTrue(disk.load().isEmpty());
+    }
+
+    @Test
+    public void transientFailureStopsInOrderAndPermanentOneIsDropped() {
+        Outbox o = new Outbox(new MemoryOutboxStorage());
+        o.setChecked("L", "m", true);
+        o.setChecked("L", "e", true);
+        FakeBackend b = new FakeBackend();
+        b.failures = 1;
+        assertEquals(Outbox.Replay.RETRY, o.replay(b));
+        assertTrue(b.applied.isEmpty());
+        assertEquals(2, o.pending());
+
+        b.failures = 1;
+        b.permanent = true;
+        assertEquals(Outbox.Replay.DONE, o.replay(b));
+        assertEquals(Arrays.asList("SET_CHECKED e true"), b.applied);
+        assertEquals(1, o.droppedCount());
+        assertEquals(1, o.replayedCount());
+    }
+}
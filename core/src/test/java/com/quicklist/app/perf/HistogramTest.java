@@ -0,0 +1,43 @@
+package com.quicklist.app.perf;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class HistogramTest {
+
+    @Test
+    public void percentilesUseNearestRank() {
+        Histogram h = new Histogram();
+        for (int i = 1; i <= 100; i++) h.record(i);
+        Histogram.Snapshot s = h.snapshot();
+        assertEquals(100, s.count);
+        assertEquals(50, s.p50);
+        assertEquals(90, s.p90);
+        assertEquals(99, s.p99);
+        assertEquals(100, s.max);
+        assertEquals(50, s.mean); // 5050 / 100, truncated
+    }
+
+    @Test
+    public void percentilesFollowTheRecentWindowButTotalsDoNot() {
+        Histogram h = new Histogram(4);
+        h.record(1_000);
+        for (int i = 0; i < 4; i++) h.record(10);
+        Histogram.Snapshot s = h.snapshot();
+        assertEquals(5, s.count);
+        assertEquals(10, s.p99);
+        assertEquals(1_000, s.max);
+    }
+
+    @Test
+    public void emptyAndResetReadAsZero() {
+        Histogram h = new Histogram();
+        assertEquals(0, h.snapshot().count);
+        h.record(5);
+        h.record(-1); // clock went backwards: ignored
+        assertEquals(1, h.snapshot().count);
+        h.reset();
+        assertEquals(0, h.snapshot().max);
+    }
+}
@@ -0,0 +1,61 @@
+package com.quicklist.app.search;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class SearchIndexTest {
+
+    @Test
+    public void prefixMatchesRankListNamesFirst() {
+        SearchIndex ix = new SearchIndex();
+        ix.putList("A", "Groceries");
+        ix.putItem("A", "1", "AA batteries");
+        ix.putList("B", "Hardware batteries");
+
+        List<SearchIndex.Hit> hits = ix.query("batt", 10);
+        assertEquals(2, hits.size());
+        assertEquals("B", hits.get(0).listId);
+        assertNull(hits.get(0).itemId);
+        assertEquals("1", hits.get(1).itemId);
+    }
+
+    @Test
+    public void everyTermMustMatch() {
+        SearchIndex ix = new SearchIndex();
+        ix.putItem("A", "1", "AA batteries");
+        ix.putItem("A", "2", "AAA batteries");
+        assertEquals(1, ix.query("aaa batt", 10).size());
+        List<SearchIndex.Hit> hits = ix.query("aa batteries", 10);
+        assertEquals(2, hits.size());
+        assertEquals("1", hits.get(0).itemId); // exact token beats prefix
+        assertTrue(ix.query("aa milk", 10).isEmpty());
+    }
+
+    @Test
+    public void updatesAndRemovalsAreIncremental() {
+        SearchIndex ix = new SearchIndex();
+        ix.putList("A", "Groceries");
+        ix.putItem("A", "1", "Batteries");
+        ix.putItem("A", "1", "Candles");
+        assertTrue(ix.query("batteries", 10).isEmpty());
+        assertEquals(1, ix.query("candles", 10).size());
+
+        ix.removeList("A");
+        assertTrue(ix.query("candles", 10).isEmpty());
+        assertTrue(ix.query("groceries", 10).isEmpty());
+    }
+
+    @Test
+    public void queryListsKeepsBestHitPerList() {
+        SearchIndex ix = new SearchIndex();
+        ix.putItem("A", "1", "Milk");
+        ix.putItem("A", "2", "Milk chocolate");
+        ix.putItem("B", "3", "Oat milk");
+        List<SearchIndex.Hit> hits = ix.queryLists("milk", 10);
+        assertEquals(2, hits.size());
+        assertEquals("1", hits.get(0).listId.equals("A") ? hits.get(0).itemId : hits.get(1).itemId);
+    }
+}
@@ -0,0 +1,248 @@
+package com.quicklist.app.store;
+
+import com.quicklist.app.models.ItemSummary;
+import com.quicklist.app.models.ListSummary;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class InMemoryStoreTest {
+
+    static class Recorder<T> implements StoreObserver<T> {
+        final List<StoreSnapshot<T>> snapshots = new ArrayList<>();
+        Boolean cacheHit;
+        @Override public void onSnapshot(StoreSnapshot<T> s) { snapshots.add(s); }
+        @Override public void onError(Exception e) { fail(e.getMessage()); }
+        @Override public void onCacheRead(boolean hit) { cacheHit = hit; }
+        StoreSnapshot<T> last() { return snapshots.get(snapshots.size() - 1); }
+    }
+
+    private ManualScheduler clock;
+    private InMemoryStore store;
+    private final List<Exception> writeErrors = new ArrayList<>();
+
+    @Before public void setUp() {
+        clock = new ManualScheduler();
+        store = new InMemoryStore(clock, "me", 7);
+        store.setLatency(5, 80, 120, 150);
+        store.seedList("L", "Groceries", "me", 1, Arrays.asList("me", "other"));
+        store.seedItem("L", new ItemSummary("a", "Milk", "me", 10, false, 1));
+        store.seedItem("L", new ItemSummary("b", "Eggs", "me", 20, true, 1));
+    }
+
+    @Test
+    public void opensWithCacheThenMetadataOnlyServerSnapshot() {
+        Recorder<ItemSummary> r = new Recorder<>();
+        ItemFeed feed = store.items(writeErrors::add).observe("L", r);
+        clock.advance(5);
+        assertEquals(Boolean.TRUE, r.cacheHit);
+        assertTrue(r.last().fromCache);
+        assertEquals(2, r.last().changes.size());
+        assertFalse(feed.isFullyLoaded());
+
+        clock.advance(75);
+        assertEquals(2, r.snapshots.size());
+        assertFalse(r.last().fromCache);
+        assertTrue(r.last().isMetadataOnly());
+        assertTrue(feed.isFullyLoaded());
+    }
+
+    @Test
+    public void localWriteIsPendingUntilAcked() {
+        Recorder<ItemSummary> r = new Recorder<>();
+        ItemStore items = store.items(writeErrors::add);
+        items.observe("L", r);
+        clock.advance(80);
+
+        items.setChecked("L", store.item("L", "a"), true, null);
+        clock.runPending();
+        assertTrue(r.last().hasPendingWrites);
+        assertEquals(Change.Type.MODIFIED, r.last().changes.get(0).type);
+        assertTrue(items.isChecked("L", store.item("L", "a")));
+        assertEquals(2, store.list("L").checkedCount);
+
+        clock.advance(120);
+        assertFalse(r.last().hasPendingWrites);
+        assertTrue(r.last().isMetadataOnly());
+        assertTrue(writeErrors.isEmpty());
+    }
+
+    @Test
+    public void rejectedWriteRollsBackAndReports() {
+        Recorder<ItemSummary> r = new Recorder<>();
+        ItemStore items = store.items(writeErrors::add);
+        items.observe("L", r);
+        clock.advance(80);
+
+        store.setRejectWrites(true);
+        items.delete("L", store.item("L", "b"), (v, e) -> writeErrors.add(e));
+        clock.runPending();
+        assertEquals(1, r.last().items.size());
+        assertEquals(1, store.list("L").itemCount);
+
+        clock.advance(120);
+        assertEquals(1, writeErrors.size());
+        assertEquals(2, r.last().items.size());
+        assertEquals(Change.Type.ADDED, r.last().changes.get(0).type);
+        assertEquals(2, store.list("L").itemCount);
+        assertEquals(1, store.list("L").checkedCount);
+    }
+
+    @Test
+    public void writesWithoutACallbackReportToTheErrorListener() {
+        ItemStore items = store.items(writeErrors::add);
+        ListStore lists = store.lists(writeErrors::add);
+        store.setRejectWrites(true);
+        items.delete("L", store.item("L", "a"), null);
+        items.restore("L", new ItemSummary("c", "Bread", "me", 30, false, 1), null);
+        lists.setArchived("L", true, null);
+        lists.create("me", "Hardware", null);
+        clock.advance(200);
+        assertEquals(4, writeErrors.size());
+    }
+
+    @Test
+    public void remoteWritesArriveTogetherAfterLatency() {
+        Recorder<ItemSummary> items = new Recorder<>();
+        Recorder<ListSummary> lists = new Recorder<>();
+        store.items(null).observe("L", items);
+        store.lists(null).observe("me", lists);
+        clock.advance(80);
+        int before = items.snapshots.size();
+
+        store.remoteAdd("L", "Bread", "other", 2);
+        store.remoteToggle("L", "a");
+        clock.advance(149);
+        assertEquals(before, items.snapshots.size());
+        clock.advance(1);
+        assertEquals(before + 1, items.snapshots.size());
+        assertEquals(2, items.last().changes.size());
+        assertEquals(3, items.last().items.size());
+        assertFalse(items.last().hasPendingWrites);
+
+        ListSummary l = lists.last().items.get(0);
+        assertEquals(3, l.itemCount);
+        assertEquals(2, l.checkedCount);
+    }
+
+    @Test
+    public void bulkWritesCommitInChunks() {
+        for (int i = 0; i < 1200; i++) {
+            store.seedItem("L", new ItemSummary("x" + i, "thing " + i, "me", 100 + i, false, 1));
+        }
+        List<ItemSummary> all = new ArrayList<>();
+        store.items(null).fetchAll("L", (v, e) -> all.addAll(v));
+        clock.advance(80);
+        assertEquals(1202, all.size());
+
+        List<Integer> progress = new ArrayList<>();
+        int[] done = {-1};
+        store.items(null).setCheckedAll("L", all, true, new BulkListener() {
+            @Override public void onProgress(int d, int total) { progress.add(d); }
+            @Override public void onComplete(int d, Exception error) { done[0] = d; }
+        });
+        clock.advance(1_000);
+        assertEquals(Arrays.asList(499, 998, 1202), progress);
+        assertEquals(1202, done[0]);
+        assertEquals(1202, store.list("L").checkedCount);
+    }
+
+    @Test
+    public void archivingMovesAListToThePagedArchivedFeed() {
+        for (int i = 0; i < 30; i++) {
+            store.seedList("A" + i, "Old " + i, "me", 100 + i, Arrays.asList("me"));
+        }
+        Recorder<ListSummary> active = new Recorder<>();
+        Recorder<ListSummary> archived = new Recorder<>();
+        ListStore lists = store.lists(writeErrors::add);
+        lists.observe("me", active);
+        for (int i = 0; i < 30; i++) lists.setArchived("A" + i, true, (v, e) -> assertNull(e));
+        clock.advance(200);
+        assertEquals(1, active.last().items.size());
+
+        PagedFeed feed = lists.observeArchived("me", archived);
+        clock.advance(80);
+        assertEquals(PagedFeed.PAGE_SIZE, archived.last().items.size());
+        assertEquals("A29", archived.last().items.get(0).id); // newest first
+        assertFalse(feed.isFullyLoaded());
+        feed.loadMore();
+        clock.runPending();
+        assertEquals(30, archived.last().items.size());
+        assertEquals(5, archived.last().changes.size());
+        assertTrue(feed.isFullyLoaded());
+
+        lists.setArchived("A29", false, (v, e) -> assertNull(e));
+        clock.runPending();
+        assertEquals(Change.Type.REMOVED, archived.last().changes.get(0).type);
+        assertEquals(29, archived.last().items.size());
+        assertEquals(Change.Type.ADDED, active.last().changes.get(0).type);
+        assertEquals("A29", active.last().items.get(0).id);
+
+        // Other lists' edits don't reach a query they aren't in
+        int seen = archived.snapshots.size();
+        lists.setPinned("L", true);
+        clock.advance(200);
+        assertEquals(seen, archived.snapshots.size());
+        assertTrue(writeErrors.isEmpty());
+    }
+
+    @Test
+    public void closedFetchDeliversNothing() {
+        List<ItemSummary> all = new ArrayList<>();
+        store.items(null).fetchAll("L", (v, e) -> all.addAll(v)).close();
+        clock.advance(80);
+        assertTrue(all.isEmpty());
+    }
+
+    @Test
+    public void fetchPagesWaitsForTheSinkBeforeTheNextPage() {
+        for (int i = 0; i < 5; i++) store.seedItem("L", new ItemSummary("p" + i, "Page " + i, "me", 100 + i, false, 1));
+        List<String> seen = new ArrayList<>();
+        Runnable[] next = {null};
+        boolean[] last = {false};
+        store.items(null).fetchPages("L", 3, new PageSink() {
+            @Override public void onPage(List<ItemSummary> page, boolean isLast, Runnable more) {
+                for (ItemSummary i : page) seen.add(i.id);
+                last[0] = isLast;
+                next[0] = more;
+            }
+            @Override public void onError(Exception e) { fail(e.getMessage()); }
+        });
+        clock.advance(80);
+        assertEquals(Arrays.asList("a", "b", "p0"), seen);
+        clock.advance(1_000);
+        assertEquals(3, seen.size());
+        next[0].run();
+        clock.advance(80);
+        next[0].run();
+        clock.advance(80);
+        assertEquals(Arrays.asList("a", "b", "p0", "p1", "p2", "p3", "p4"), seen);
+        assertTrue(last[0]);
+    }
+
+    // Timing lives in ItemFeedBenchmark; this pins what it measures
+    @Test
+    public void aTenThousandItemFeedPaintsFromCacheOnOneListener() {
+        store.seedList("W", "Pick list", "me", 2, Arrays.asList("me"));
+        for (int i = 0; i < 10_000; i++) store.seedItem("W", new ItemSummary("w" + i, "Part " + i, "me", 100 + i, false, 1));
+        Recorder<ItemSummary> r = new Recorder<>();
+        ItemFeed feed = store.items(writeErrors::add).observe("W", r);
+        clock.advance(5);
+        assertEquals(1, r.snapshots.size());
+        assertEquals(10_000, r.last().items.size());
+        assertEquals("w0", r.last().items.get(0).id);
+        assertEquals(1, feed.liveListenerCount());
+
+        clock.advance(75);
+        assertTrue(feed.isFullyLoaded());
+        assertEquals(1, feed.liveListenerCount());
+        feed.close();
+        assertEquals(0, feed.liveListenerCount());
+    }
+}
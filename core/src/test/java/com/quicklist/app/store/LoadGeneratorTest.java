@@ -0,0 +1,67 @@
+package com.quicklist.app.store;
+
+import com.quicklist.app.models.ItemSummary;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LoadGeneratorTest {
+
+    @Test
+    public void membersDriveChangesIntoTheWatchedList() {
+        ManualScheduler clock = new ManualScheduler();
+        InMemoryStore store = new InMemoryStore(clock, "me", 1);
+        LoadGenerator.Config config = new LoadGenerator.Config();
+        config.lists = 20;
+        config.itemsPerList = 200;
+        config.members = 4;
+        LoadGenerator load = new LoadGenerator(store, config);
+        load.seed();
+        assertEquals(20, load.listIds().size());
+        assertEquals(200, store.itemCount(load.listIds().get(0)));
+
+        String open = load.listIds().get(3);
+        int[] rows = {0};
+        store.items(null).observe(open, load.measure(new StoreObserver<ItemSummary>() {
+            @Override public void onSnapshot(StoreSnapshot<ItemSummary> s) { rows[0] = s.items.size(); }
+            @Override public void onError(Exception e) { fail(e.getMessage()); }
+        }));
+        load.watch(open);
+        clock.advance(100);
+
+        load.start();
+        clock.advance(60_000);
+        load.stop();
+        clock.advance(1_000);
+
+        LoadGenerator.Report r = load.report();
+        // 4 members × 1.4 ops/s × 60 s ≈ 336
+        assertTrue(r.toString(), r.opsIssued > 250 && r.opsIssued < 420);
+        assertTrue(r.toString(), r.changes > 0);
+        assertEquals(InMemoryStore.DEFAULT_REMOTE_MS * 1_000_000L, r.latency.p50);
+        assertEquals(store.itemCount(open), rows[0]);
+        assertEquals(store.itemCount(open), store.list(open).itemCount);
+    }
+
+    @Test
+    public void sameSeedSameRun() {
+        assertEquals(run(9), run(9));
+    }
+
+    private static long run(long seed) {
+        ManualScheduler clock = new ManualScheduler();
+        InMemoryStore store = new InMemoryStore(clock, "me", seed);
+        LoadGenerator.Config config = new LoadGenerator.Config();
+        config.lists = 5;
+        config.itemsPerList = 50;
+        config.seed = seed;
+        LoadGenerator load = new LoadGenerator(store, config);
+        load.seed();
+        load.start();
+        clock.advance(10_000);
+        long total = 0;
+        for (String id : load.listIds()) total = total * 31 + store.itemCount(id) * 7 + store.list(id).checkedCount;
+        return total;
+    }
+}
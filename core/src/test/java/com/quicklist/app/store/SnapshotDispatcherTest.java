@@ -0,0 +1,115 @@
+package com.quicklist.app.store;
+
+import com.quicklist.app.models.ItemSummary;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class SnapshotDispatcherTest {
+
+    /** Frame callbacks run when the test says a frame happened. */
+    static class FakeFrames implements SnapshotDispatcher.Frames {
+        final List<Runnable> due = new ArrayList<>();
+        @Override public Runnable post(Runnable task) {
+            due.add(task);
+            return () -> due.remove(task);
+        }
+        void frame() {
+            List<Runnable> run = new ArrayList<>(due);
+            due.clear();
+            for (Runnable r : run) r.run();
+        }
+    }
+
+    private FakeFrames frames;
+    private InMemoryStoreTest.Recorder<ItemSummary> screen;
+    private SnapshotDispatcher<ItemSummary> dispatcher;
+
+    @Before public void setUp() {
+        frames = new FakeFrames();
+        screen = new InMemoryStoreTest.Recorder<>();
+        dispatcher = new SnapshotDispatcher<>(screen, frames);
+    }
+
+    private static ItemSummary item(String id, boolean checked) {
+        return new ItemSummary(id, id, "u", 0, checked, 1);
+    }
+
+    @SafeVarargs
+    private static StoreSnapshot<ItemSummary> snap(List<ItemSummary> rows, boolean pending, Change<ItemSummary>... changes) {
+        List<Change<ItemSummary>> list = new ArrayList<>(changes.length);
+        for (Change<ItemSummary> c : changes) list.add(c);
+        return new StoreSnapshot<>(rows, list, false, pending);
+    }
+
+    @Test
+    public void firstSnapshotGoesStraightThroughAndABurstBecomesOneDelivery() {
+        List<ItemSummary> one = Collections.singletonList(item("a", false));
+        dispatcher.onSnapshot(snap(one, false, Change.added("a", item("a", false))));
+        assertEquals(1, screen.snapshots.size());
+
+        List<ItemSummary> two = Arrays.asList(item("a", true), item("b", false));
+        dispatcher.onSnapshot(snap(Arrays.asList(item("a", true)), false, Change.modified("a", item("a", true))));
+        dispatcher.onSnapshot(snap(two, false, Change.added("b", item("b", false))));
+        dispatcher.onSnapshot(snap(two, false, Change.added("c", item("c", false))));
+        dispatcher.onSnapshot(snap(two, false, Change.removed("c", item("c", false))));
+        assertEquals(1, screen.snapshots.size());
+
+        frames.frame();
+        assertEquals(2, screen.snapshots.size());
+        assertEquals(two, screen.last().items);
+        assertEquals("[MODIFIED a, ADDED b]", screen.last().changes.toString()); // c came and went
+        assertEquals(3, dispatcher.mergedCount());
+        assertEquals(5, dispatcher.receivedCount());
+        assertTrue(frames.due.isEmpty());
+    }
+
+    @Test
+    public void composesChangesPerDocument() {
+        List<ItemSummary> rows = Collections.singletonList(item("a", false));
+        dispatcher.onSnapshot(snap(rows, false, Change.added("a", item("a", false))));
+        dispatcher.onSnapshot(snap(Collections.emptyList(), false, Change.removed("a", item("a", false))));
+        dispatcher.onSnapshot(snap(rows, false, Change.added("a", item("a", true))));
+        dispatcher.onSnapshot(snap(rows, false, Change.added("n", item("n", false))));
+        dispatcher.onSnapshot(snap(rows, false, Change.modified("n", item("n", true))));
+        frames.frame();
+        List<Change<ItemSummary>> out = screen.last().changes;
+        assertEquals("[MODIFIED a, ADDED n]", out.toString());
+        assertTrue(out.get(1).value.checked);
+    }
+
+    @Test
+    public void dropsMetadataOnlySnapshotsThatChangeNothingVisible() {
+        List<ItemSummary> rows = Collections.singletonList(item("a", false));
+        dispatcher.onSnapshot(snap(rows, true, Change.added("a", item("a", false))));
+        dispatcher.onSnapshot(snap(rows, true));
+        assertTrue(frames.due.isEmpty());
+        assertEquals(1, dispatcher.droppedCount());
+
+        // The ack flips hasPendingWrites: the screen needs it even with no row changes
+        dispatcher.onSnapshot(snap(rows, false));
+        frames.frame();
+        assertEquals(2, screen.snapshots.size());
+        assertTrue(screen.last().isMetadataOnly());
+        assertFalse(screen.last().hasPendingWrites);
+    }
+
+    @Test
+    public void closeCancelsThePendingFrame() {
+        List<ItemSummary> rows = Collections.singletonList(item("a", false));
+        dispatcher.onSnapshot(snap(rows, false, Change.added("a", item("a", false))));
+        dispatcher.onSnapshot(snap(rows, false, Change.modified("a", item("a", true))));
+        dispatcher.close();
+        assertTrue(frames.due.isEmpty());
+        dispatcher.flush();
+        dispatcher.onSnapshot(snap(rows, true, Change.modified("a", item("a", false))));
+        assertEquals(1, screen.snapshots.size());
+    }
+}
@@ -0,0 +1,99 @@
+package com.quicklist.app.transfer;
+
+import com.quicklist.app.models.ItemSummary;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ItemReaderTest {
+
+    private static List<String> read(Format format, String input) throws IOException {
+        List<String> out = new ArrayList<>();
+        try (ItemReader r = ItemReader.open(format, new StringReader(input))) {
+            for (ItemReader.Row row; (row = r.next()) != null; ) {
+                out.add(row.quantity + "|" + row.text + (row.checked ? "|x" : "") + (row.category.isEmpty() ? "" : "|" + row.category));
+            }
+        }
+        return out;
+    }
+
+    @Test
+    public void pastedTextTakesQuantitiesFromCommonShapes() throws IOException {
+        String pasted = "- 2 x Milk\r\n\n* Eggs x12\n3 Apples\n[x] Bread (2)\n1. 2% yogurt\n  \n• [ ] Tea";
+        assertEquals(Arrays.asList("2|Milk", "12|Eggs", "3|Apples", "2|Bread|x", "1|2% yogurt", "1|Tea"),
+                read(Format.TEXT, pasted));
+    }
+
+    @Test
+    public void csvHonorsQuotesAndHeaderNames() throws IOException {
+        String csv = "Qty,Item,Aisle,Done\n2,\"Flour, plain\",Baking,yes\n,\"Say \"\"cheese\"\"\",,\n\n5,\"Two\nlines\",Dairy,no\n";
+        assertEquals(Arrays.asList("2|Flour, plain|x|Baking", "1|Say \"cheese\"", "5|Two\nlines|Dairy"),
+                read(Format.CSV, csv));
+        assertEquals(Arrays.asList("3|Milk", "1|Eggs"), read(Format.CSV, "Milk,3\nEggs"));
+    }
+
+    @Test
+    public void jsonSkipsUnknownAndNestedValues() throws IOException {
+        String json = "[{\"text\":\"Milk\",\"quantity\":2,\"meta\":{\"a\":[1,{\"b\":\"]\"}]}},"
+                + " \"3 x Limes\", {\"text\": \"Caf\\u00e9\", \"checked\": true, \"category\": \"Drinks\"}, {}, 7]";
+        assertEquals(Arrays.asList("2|Milk", "3|Limes", "1|Café|x|Drinks"), read(Format.JSON, json));
+        try {
+            read(Format.JSON, "[{\"text\": \"Milk\"");
+            fail();
+        } catch (ItemReader.FormatException expected) {}
+    }
+
+    @Test
+    public void everyFormatReadsBackWhatItWrote() throws IOException {
+        List<ItemSummary> items = Arrays.asList(
+                new ItemSummary("a", "Flour, \"00\"", "u", 1, true, 2, "Baking"),
+                new ItemSummary("b", "Tab\there", "u", 2, false, 1, ""));
+        for (Format f : Format.values()) {
+            StringWriter sw = new StringWriter();
+            try (ItemWriter w = ItemWriter.open(f, sw)) {
+                for (ItemSummary i : items) w.write(i);
+            }
+            List<String> back = read(f, sw.toString());
+            assertEquals(f.name(), "2|Flour, \"00\"|x" + (f == Format.TEXT ? "" : "|Baking"), back.get(0));
+            assertEquals(f.name(), "1|Tab\there", back.get(1));
+        }
+    }
+
+    @Test
+    public void readsAnUnboundedStreamWithoutHoldingIt() throws IOException {
+        final int n = 200_000;
+        Reader endless = new Reader() {
+            int row, pos;
+            String cur = "";
+            @Override public int read(char[] buf, int off, int len) {
+                int i = 0;
+                while (i < len) {
+                    if (pos == cur.length()) {
+                        if (row == n) break;
+                        cur = (row++ % 9 + 1) + " x item " + row + "\n";
+                        pos = 0;
+                    }
+                    buf[off + i++] = cur.charAt(pos++);
+                }
+                return i == 0 ? -1 : i;
+            }
+            @Override public void close() {}
+        };
+        int count = 0;
+        long quantity = 0;
+        try (ItemReader r = ItemReader.open(Format.TEXT, endless)) {
+            for (ItemReader.Row row; (row = r.next()) != null; ) { count++; quantity += row.quantity; }
+        }
+        assertEquals(n, count);
+        assertTrue(quantity > n);
+    }
+}
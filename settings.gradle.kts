@@ -21,3 +21,5 @@ dependencyResolutionManagement {
 
 rootProject.name = "QuickList"
 include(":app")
+include(":core")
+include(":benchmarks")